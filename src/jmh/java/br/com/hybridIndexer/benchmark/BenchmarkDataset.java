@@ -0,0 +1,48 @@
+package br.com.hybridIndexer.benchmark;
+
+import br.com.hybridIndexer.model.Transaction;
+import br.com.hybridIndexer.util.DatasetGenerator;
+import br.com.hybridIndexer.util.WorkloadGenerator;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Datasets dos benchmarks, com os mesmos tamanhos e distribuições dos
+ * arquivos de DatasetGenerator.main, gerados em memória com semente fixa
+ * para que todas as execuções meçam exatamente as mesmas transações.
+ * ZIPF usa o WorkloadGenerator: 10.000 origens com popularidade de Zipf e
+ * instantes quase em ordem, com rajadas, nos mesmos cinco anos dos demais.
+ */
+public enum BenchmarkDataset {
+    PEQUENO(1000, 0.0),
+    MEDIO(10000, 0.0),
+    GRANDE(100000, 0.0),
+    COLISAO_ALTA(10000, 0.8),
+    ZIPF(100000, 0.0) {
+        @Override
+        public List<Transaction> transactions() {
+            WorkloadGenerator generator = new WorkloadGenerator(SEED);
+            generator.setStart(LocalDateTime.of(2020, 1, 1, 0, 0));
+            generator.setMeanGapMillis(5 * 365 * 24 * 3600 * 1000.0 / size());
+            return generator.generate(size());
+        }
+    };
+    
+    public static final long SEED = 42L;
+    
+    private final int size;
+    private final double collisionRate;
+    
+    BenchmarkDataset(int size, double collisionRate) {
+        this.size = size;
+        this.collisionRate = collisionRate;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public List<Transaction> transactions() {
+        return DatasetGenerator.generateTransactions(size, collisionRate, SEED);
+    }
+}
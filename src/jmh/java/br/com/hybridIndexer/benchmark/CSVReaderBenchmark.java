@@ -0,0 +1,65 @@
+package br.com.hybridIndexer.benchmark;
+
+import br.com.hybridIndexer.model.Transaction;
+import br.com.hybridIndexer.util.CSVReader;
+import br.com.hybridIndexer.util.ColumnarDataset;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Leitura de cada dataset em CSV e no formato colunar (ColumnarDataset),
+ * escritos em arquivos temporários antes das medições
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CSVReaderBenchmark {
+    
+    @Param({"PEQUENO", "MEDIO", "GRANDE", "COLISAO_ALTA", "ZIPF"})
+    private BenchmarkDataset dataset;
+    
+    private File file;
+    private File columnarFile;
+    
+    @Setup
+    public void setup() throws IOException {
+        List<Transaction> transactions = dataset.transactions();
+        file = File.createTempFile("transacoes_" + dataset.name().toLowerCase(), ".csv");
+        CSVReader.writeTransactions(transactions, file.getAbsolutePath());
+        columnarFile = File.createTempFile("transacoes_" + dataset.name().toLowerCase(), ColumnarDataset.EXTENSION);
+        ColumnarDataset.writeTransactions(transactions, columnarFile.getAbsolutePath());
+    }
+    
+    @TearDown
+    public void tearDown() {
+        file.delete();
+        columnarFile.delete();
+    }
+    
+    @Benchmark
+    public List<Transaction> readTransactions() throws IOException {
+        return CSVReader.readTransactions(file.getAbsolutePath());
+    }
+    
+    @Benchmark
+    public List<Transaction> readColumnar() throws IOException {
+        return ColumnarDataset.readTransactions(columnarFile.getAbsolutePath());
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.hybridIndexer.benchmark;
+
+import br.com.hybridIndexer.datastructures.HybridHashTable;
+import br.com.hybridIndexer.model.Transaction;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Escalonamento de um bucket: inserção de bucketSize transações da mesma
+ * origem, em ordem de timestamp, em uma tabela nova com a política padrão
+ * e capacidade fixa, grande o bastante para que não haja redimensionamento.
+ * Os tamanhos vêm em pares vizinhos para isolar cada conversão:
+ * 64 → 65 inclui a migração do vetor ordenado para AVL e 2047 → 2048 a
+ * conversão da AVL (altura 10 → 11) para Rubro-Negra.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EscalationBenchmark {
+    private static final int CAPACITY = 4096;
+    
+    @Param({"64", "65", "2047", "2048"})
+    private int bucketSize;
+    
+    private Transaction[] rows;
+    
+    @Setup
+    public void setup() {
+        rows = new Transaction[bucketSize];
+        for (int i = 0; i < bucketSize; i++) {
+            rows[i] = new Transaction(String.format("TRX%08d", i), 1.0f, "BancoCentral", "ClientePF001",
+                                      String.format("2024-01-01 %08d", i));
+        }
+    }
+    
+    @Benchmark
+    public HybridHashTable fillBucket() {
+        HybridHashTable table = HybridHashTableBenchmark.newTable(CAPACITY);
+        for (Transaction row : rows) {
+            table.put(row);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.hybridIndexer.benchmark;
+
+import br.com.hybridIndexer.util.HashLinearTrial;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Inserção e buscas (com e sem sucesso) na HashLinearTrial com ids no
+ * formato dos datasets ("TRX%08d")
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HashLinearTrialBenchmark {
+    
+    @Param({"1000", "10000", "100000"})
+    private int size;
+    
+    private String[] keys;
+    private String[] missing;
+    private HashLinearTrial<String, Integer> map;
+    private int next;
+    
+    @Setup
+    public void setup() {
+        keys = new String[size];
+        missing = new String[size];
+        map = new HashLinearTrial<>();
+        for (int i = 0; i < size; i++) {
+            keys[i] = String.format("TRX%08d", i);
+            missing[i] = String.format("TRX%08d", size + i);
+            map.put(keys[i], i);
+        }
+    }
+    
+    private int nextKey() {
+        if (++next == size) {
+            next = 0;
+        }
+        return next;
+    }
+    
+    /**
+     * Carga de todas as chaves a partir da capacidade padrão, com redimensionamentos
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public HashLinearTrial<String, Integer> put() {
+        HashLinearTrial<String, Integer> target = new HashLinearTrial<>();
+        for (int i = 0; i < size; i++) {
+            target.put(keys[i], i);
+        }
+        return target;
+    }
+    
+    @Benchmark
+    public Integer getHit() {
+        return map.get(keys[nextKey()]);
+    }
+    
+    @Benchmark
+    public Integer getMiss() {
+        return map.get(missing[nextKey()]);
+    }
+}
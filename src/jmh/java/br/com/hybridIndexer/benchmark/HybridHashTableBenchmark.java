@@ -0,0 +1,99 @@
+package br.com.hybridIndexer.benchmark;
+
+import br.com.hybridIndexer.datastructures.EscalationPolicy;
+import br.com.hybridIndexer.datastructures.HashStrategy;
+import br.com.hybridIndexer.datastructures.HybridHashTable;
+import br.com.hybridIndexer.model.Transaction;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Carga e busca por id na HybridHashTable.
+ * A carga a partir da capacidade mínima inclui todos os redimensionamentos;
+ * a diferença para a carga com a tabela já dimensionada é o custo do resize.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class HybridHashTableBenchmark {
+    private static final int QUERIES = 1024;
+    
+    @Param({"PEQUENO", "MEDIO", "GRANDE", "COLISAO_ALTA", "ZIPF"})
+    private BenchmarkDataset dataset;
+    
+    private List<Transaction> transactions;
+    private HybridHashTable table;
+    private String[] ids;
+    private int next;
+    
+    @Setup
+    public void setup() {
+        transactions = dataset.transactions();
+        table = load(newTable(16));
+        
+        Random random = new Random(BenchmarkDataset.SEED);
+        ids = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            ids[i] = transactions.get(random.nextInt(transactions.size())).getId();
+        }
+    }
+    
+    /**
+     * Tabela sem cronometragem por operação, que mediria o próprio JMH
+     */
+    static HybridHashTable newTable(int capacity) {
+        HybridHashTable table = new HybridHashTable(capacity, false, false, HybridHashTable.IdIndex.CHAINING,
+                                                    HashStrategy.seeded(BenchmarkDataset.SEED), new EscalationPolicy());
+        table.getMetrics().setTimingEnabled(false);
+        return table;
+    }
+    
+    private HybridHashTable load(HybridHashTable target) {
+        for (Transaction transaction : transactions) {
+            target.put(transaction);
+        }
+        return target;
+    }
+    
+    private int nextQuery() {
+        return next = (next + 1) & (QUERIES - 1);
+    }
+    
+    /**
+     * Carga do dataset a partir da capacidade mínima, com todos os redimensionamentos
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public HybridHashTable putWithResize() {
+        return load(newTable(16));
+    }
+    
+    /**
+     * Carga do dataset com a tabela dimensionada para o dataset inteiro
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public HybridHashTable putPresized() {
+        return load(newTable(transactions.size() * 2));
+    }
+    
+    @Benchmark
+    public Transaction getById() {
+        return table.getById(ids[nextQuery()]);
+    }
+}
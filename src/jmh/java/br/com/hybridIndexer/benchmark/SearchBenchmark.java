@@ -0,0 +1,169 @@
+package br.com.hybridIndexer.benchmark;
+
+import br.com.hybridIndexer.datastructures.EscalationPolicy;
+import br.com.hybridIndexer.datastructures.HashStrategy;
+import br.com.hybridIndexer.datastructures.HybridHashTable;
+import br.com.hybridIndexer.model.SearchPage;
+import br.com.hybridIndexer.model.Transaction;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Busca por origem e intervalo de tempo na HybridHashTable.
+ * Origem e início do intervalo são sorteados com semente fixa; a largura
+ * da janela, em dias, controla quantas transações cada busca devolve.
+ * cachedSearch repete as mesmas buscas em uma tabela com cache de buscas,
+ * como um painel que consulta os mesmos intervalos.
+ * missingSearch procura origens que nunca foram inseridas, respondidas pelo
+ * filtro de chaves sem sondar a tabela.
+ * hotOrigemSearch varre toda a história de uma única origem muito grande,
+ * com a busca paralela ligada ou desligada (ver HotOrigem).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SearchBenchmark {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int QUERIES = 1024;
+    private static final long CACHE_LIMIT = 1 << 22;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    
+    @Param({"PEQUENO", "MEDIO", "GRANDE", "COLISAO_ALTA", "ZIPF"})
+    private BenchmarkDataset dataset;
+    
+    @Param({"1", "30", "365"})
+    private int windowDays;
+    
+    private HybridHashTable table;
+    private HybridHashTable cachedTable;
+    private String[] origens;
+    private String[] missing;
+    private String[] starts;
+    private String[] ends;
+    private int next;
+    
+    @Setup
+    public void setup() {
+        List<Transaction> transactions = dataset.transactions();
+        table = HybridHashTableBenchmark.newTable(16);
+        cachedTable = HybridHashTableBenchmark.newTable(16);
+        cachedTable.setSearchCache(CACHE_LIMIT);
+        for (Transaction transaction : transactions) {
+            table.put(transaction);
+            cachedTable.put(transaction);
+        }
+        
+        // Os timestamps dos datasets vão de 2020 a 2024
+        Random random = new Random(BenchmarkDataset.SEED);
+        LocalDateTime first = LocalDateTime.of(2020, 1, 1, 0, 0);
+        origens = new String[QUERIES];
+        missing = new String[QUERIES];
+        starts = new String[QUERIES];
+        ends = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            LocalDateTime start = first.plusMinutes(random.nextInt(5 * 365 * 24 * 60));
+            origens[i] = transactions.get(random.nextInt(transactions.size())).getOrigem();
+            missing[i] = "AUSENTE" + random.nextInt(1_000_000);
+            starts[i] = start.format(TIMESTAMP);
+            ends[i] = start.plusDays(windowDays).format(TIMESTAMP);
+        }
+    }
+    
+    /**
+     * Uma única origem com rows transações espalhadas pelos cinco anos dos
+     * datasets: o caso em que a busca paralela pode compensar. Com
+     * parallelScan=false vale a política padrão (busca sequencial); com true,
+     * o limite é PARALLEL_THRESHOLD. partitioned divide o bucket em partições
+     * mensais, senão ele fica em uma Árvore B+.
+     * Os parâmetros de SearchBenchmark também multiplicam este caso; rode com
+     * -p dataset=PEQUENO -p windowDays=1 para medi-lo uma vez por combinação.
+     */
+    @State(Scope.Benchmark)
+    public static class HotOrigem {
+        static final String ORIGEM = "QUENTE";
+        
+        @Param({"1000000"})
+        private int rows;
+        
+        @Param({"false", "true"})
+        private boolean parallelScan;
+        
+        @Param({"false", "true"})
+        private boolean partitioned;
+        
+        private HybridHashTable table;
+        
+        @Setup
+        public void setup() {
+            EscalationPolicy policy = new EscalationPolicy();
+            if (parallelScan) {
+                policy.setParallelScanThreshold(PARALLEL_THRESHOLD);
+            }
+            if (partitioned) {
+                policy.setPartitionThreshold(1 << 16);
+            }
+            table = new HybridHashTable(16, false, false, HybridHashTable.IdIndex.CHAINING,
+                                        HashStrategy.seeded(BenchmarkDataset.SEED), policy);
+            table.getMetrics().setTimingEnabled(false);
+            LocalDateTime first = LocalDateTime.of(2020, 1, 1, 0, 0);
+            long step = 5L * 365 * 24 * 3600 / rows;
+            for (int i = 0; i < rows; i++) {
+                table.put(new Transaction("H" + i, i % 1000, ORIGEM, "DEST" + (i % 1000),
+                                          first.plusSeconds(i * step).format(TIMESTAMP)));
+            }
+        }
+    }
+    
+    private int nextQuery() {
+        return next = (next + 1) & (QUERIES - 1);
+    }
+    
+    @Benchmark
+    public List<Transaction> search() {
+        int q = nextQuery();
+        return table.search(origens[q], starts[q], ends[q]);
+    }
+    
+    @Benchmark
+    public List<Transaction> cachedSearch() {
+        int q = nextQuery();
+        return cachedTable.search(origens[q], starts[q], ends[q]);
+    }
+    
+    @Benchmark
+    public List<Transaction> missingSearch() {
+        int q = nextQuery();
+        return table.search(missing[q], starts[q], ends[q]);
+    }
+    
+    /**
+     * Primeira página de 10 resultados: o custo não deve crescer com a janela
+     */
+    @Benchmark
+    public SearchPage searchFirstPage() {
+        int q = nextQuery();
+        return table.searchPage(origens[q], starts[q], ends[q], null, 10, false);
+    }
+    
+    @Benchmark
+    public List<Transaction> hotOrigemSearch(HotOrigem hot) {
+        return hot.table.search(HotOrigem.ORIGEM, null, null);
+    }
+}
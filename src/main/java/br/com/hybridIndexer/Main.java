@@ -1,10 +1,17 @@
 package br.com.hybridIndexer;
 
+import br.com.hybridIndexer.datastructures.EscalationPolicy;
+import br.com.hybridIndexer.datastructures.HashStrategy;
 import br.com.hybridIndexer.datastructures.HybridHashTable;
 import br.com.hybridIndexer.model.Transaction;
 import br.com.hybridIndexer.util.CSVReader;
+import br.com.hybridIndexer.util.ColumnarDataset;
+import br.com.hybridIndexer.util.HeadlessBenchmark;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 
@@ -17,6 +24,12 @@ public class Main {
     private static List<Transaction> transactions;
     
     public static void main(String[] args) {
+        // Modo não interativo para scripts: --benchmark [--chave=valor ...]
+        if (args.length > 0 && args[0].equals("--benchmark")) {
+            HeadlessBenchmark.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        
         System.out.println("===========================================");
         System.out.println("  Sistema de Indexação Híbrida");
         System.out.println("  Estrutura de Dados II - UFMA");
@@ -41,9 +54,15 @@ public class Main {
                     searchTransactions(scanner);
                     break;
                 case 4:
-                    printStatistics();
+                    searchTransactionsByDestino(scanner);
                     break;
                 case 5:
+                    searchTransactionsByPair(scanner);
+                    break;
+                case 6:
+                    printStatistics();
+                    break;
+                case 7:
                     running = false;
                     System.out.println("Encerrando o programa...");
                     break;
@@ -60,21 +79,29 @@ public class Main {
         System.out.println("1. Carregar dataset de transações");
         System.out.println("2. Executar testes de performance");
         System.out.println("3. Buscar transações por origem e período");
-        System.out.println("4. Exibir estatísticas da tabela hash");
-        System.out.println("5. Sair");
+        System.out.println("4. Buscar transações por destino e período");
+        System.out.println("5. Buscar transferências de uma origem para um destino");
+        System.out.println("6. Exibir estatísticas da tabela hash");
+        System.out.println("7. Sair");
         System.out.print("Escolha uma opção: ");
     }
     
     private static void loadDataset(Scanner scanner) {
-        System.out.print("Digite o caminho do arquivo CSV: ");
+        System.out.print("Digite o caminho do arquivo CSV (ou " + ColumnarDataset.EXTENSION + "): ");
         String filePath = scanner.nextLine();
         
         try {
             System.out.println("Carregando transações...");
             long startTime = System.currentTimeMillis();
             
-            transactions = CSVReader.readTransactions(filePath);
-            hashTable = new HybridHashTable();
+            transactions = ColumnarDataset.isColumnar(filePath)
+                ? ColumnarDataset.readTransactions(filePath)
+                : CSVReader.readTransactions(filePath);
+            // Limites de escalonamento ajustáveis por -DhybridIndexer.* (ex.: -DhybridIndexer.adaptive=true)
+            hashTable = new HybridHashTable(512, true, true, HybridHashTable.IdIndex.CHAINING,
+                                            HashStrategy.randomSeeded(), EscalationPolicy.fromSystemProperties());
+            // Métricas visíveis no JConsole/VisualVM em br.com.hybridIndexer:type=HybridHashTable
+            hashTable.getMetrics().registerMBean("main");
             
             // Inserir transações na tabela hash
             for (Transaction transaction : transactions) {
@@ -212,7 +239,18 @@ public class Main {
         hashTable.resetCounters();
         long startTime = System.currentTimeMillis();
         
-        List<Transaction> results = hashTable.search(origem, startDate, endDate);
+        // Só as 10 primeiras são guardadas; o restante do cursor é apenas contado,
+        // sem montar a lista de resultados
+        List<Transaction> first = new ArrayList<>(10);
+        long found = 0;
+        Iterator<Transaction> cursor = hashTable.searchIterator(origem, startDate, endDate, false);
+        while (cursor.hasNext()) {
+            Transaction t = cursor.next();
+            if (first.size() < 10) {
+                first.add(t);
+            }
+            found++;
+        }
         
         long endTime = System.currentTimeMillis();
         long elapsedTime = endTime - startTime;
@@ -220,22 +258,116 @@ public class Main {
         System.out.println("\n=== RESULTADOS DA BUSCA ===");
         System.out.println("Origem: " + origem);
         System.out.println("Período: " + startDate + " até " + endDate);
+        System.out.println("Transações encontradas: " + found);
+        System.out.println("Tempo de busca: " + elapsedTime + " ms");
+        System.out.println("Comparações realizadas: " + hashTable.getComparisons());
+        
+        if (!first.isEmpty()) {
+            System.out.println("\nPrimeiras " + first.size() + " transações:");
+            System.out.println("ID | Valor | Destino | Timestamp");
+            System.out.println("---|-------|---------|----------");
+            
+            for (Transaction t : first) {
+                System.out.printf("%-3s | %-7.2f | %-7s | %s%n",
+                    t.getId().length() > 3 ? t.getId().substring(0, 3) : t.getId(),
+                    t.getValor(),
+                    t.getDestino().length() > 7 ? t.getDestino().substring(0, 7) : t.getDestino(),
+                    t.getTimestamp());
+            }
+        }
+    }
+    
+    private static void searchTransactionsByDestino(Scanner scanner) {
+        if (hashTable == null) {
+            System.out.println("Por favor, carregue um dataset primeiro!");
+            return;
+        }
+        
+        System.out.print("Digite o destino: ");
+        String destino = scanner.nextLine();
+        
+        System.out.print("Digite a data inicial (YYYY-MM-DD): ");
+        String startDate = scanner.nextLine();
+        
+        System.out.print("Digite a data final (YYYY-MM-DD): ");
+        String endDate = scanner.nextLine();
+        
+        hashTable.resetCounters();
+        long startTime = System.currentTimeMillis();
+        
+        List<Transaction> results = hashTable.searchByDestino(destino, startDate, endDate);
+        
+        long endTime = System.currentTimeMillis();
+        long elapsedTime = endTime - startTime;
+        
+        System.out.println("\n=== RESULTADOS DA BUSCA ===");
+        System.out.println("Destino: " + destino);
+        System.out.println("Período: " + startDate + " até " + endDate);
         System.out.println("Transações encontradas: " + results.size());
         System.out.println("Tempo de busca: " + elapsedTime + " ms");
         System.out.println("Comparações realizadas: " + hashTable.getComparisons());
         
         if (results.size() > 0) {
             System.out.println("\nPrimeiras 10 transações:");
-            System.out.println("ID | Valor | Destino | Timestamp");
-            System.out.println("---|-------|---------|----------");
+            System.out.println("ID | Valor | Origem | Timestamp");
+            System.out.println("---|-------|--------|----------");
             
             int count = 0;
             for (Transaction t : results) {
                 if (count++ >= 10) break;
-                System.out.printf("%-3s | %-7.2f | %-7s | %s%n",
+                System.out.printf("%-3s | %-7.2f | %-6s | %s%n",
+                    t.getId().length() > 3 ? t.getId().substring(0, 3) : t.getId(),
+                    t.getValor(),
+                    t.getOrigem().length() > 6 ? t.getOrigem().substring(0, 6) : t.getOrigem(),
+                    t.getTimestamp());
+            }
+        }
+    }
+    
+    private static void searchTransactionsByPair(Scanner scanner) {
+        if (hashTable == null) {
+            System.out.println("Por favor, carregue um dataset primeiro!");
+            return;
+        }
+        
+        System.out.print("Digite a origem: ");
+        String origem = scanner.nextLine();
+        
+        System.out.print("Digite o destino: ");
+        String destino = scanner.nextLine();
+        
+        System.out.print("Digite a data inicial (YYYY-MM-DD): ");
+        String startDate = scanner.nextLine();
+        
+        System.out.print("Digite a data final (YYYY-MM-DD): ");
+        String endDate = scanner.nextLine();
+        
+        hashTable.resetCounters();
+        long startTime = System.currentTimeMillis();
+        
+        List<Transaction> results = hashTable.searchByOrigemDestino(origem, destino, startDate, endDate);
+        
+        long endTime = System.currentTimeMillis();
+        long elapsedTime = endTime - startTime;
+        
+        System.out.println("\n=== RESULTADOS DA BUSCA ===");
+        System.out.println("Origem: " + origem + " → Destino: " + destino);
+        System.out.println("Período: " + startDate + " até " + endDate);
+        System.out.println("Transações encontradas: " + results.size());
+        System.out.println("Tempo de busca: " + elapsedTime + " ms");
+        System.out.println("Comparações realizadas: " + hashTable.getComparisons());
+        
+        if (results.size() > 0) {
+            System.out.println("\nPrimeiras 10 transações:");
+            System.out.println("ID | Valor | Timestamp");
+            System.out.println("---|-------|----------");
+            
+            int count = 0;
+            for (Transaction t : results) {
+                if (count++ >= 10) break;
+                System.out.printf("%-3s | %-7.2f | %s%n",
                     t.getId().length() > 3 ? t.getId().substring(0, 3) : t.getId(),
                     t.getValor(),
-                    t.getDestino().length() > 7 ? t.getDestino().substring(0, 7) : t.getDestino(),
                     t.getTimestamp());
             }
         }
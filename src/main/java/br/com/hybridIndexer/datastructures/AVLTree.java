@@ -1,5 +1,10 @@
 package br.com.hybridIndexer.datastructures;
 
+import br.com.hybridIndexer.util.HeapEstimate;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
 /**
  * Implementação de uma Árvore AVL (Adelson-Velsky e Landis)
  * 
@@ -81,22 +86,25 @@ public class AVLTree<T extends Comparable<T>> implements BalancedTree<T> {
             node.setRight(removeRecursive(node.getRight(), value));
         } else {
             // Encontrou o nó a ser removido
-            size--;
             
             // Caso 1: Nó folha
             if (node.getLeft() == null && node.getRight() == null) {
+                size--;
                 return null;
             }
             
             // Caso 2: Nó com apenas um filho
             if (node.getLeft() == null) {
+                size--;
                 return node.getRight();
             }
             if (node.getRight() == null) {
+                size--;
                 return node.getLeft();
             }
             
-            // Caso 3: Nó com dois filhos
+            // Caso 3: Nó com dois filhos (o contador é decrementado
+            // na remoção do sucessor, que cai no caso 1 ou 2)
             NodeAVL<T> minRight = findMin(node.getRight());
             node.setElement(minRight.getElement());
             node.setRight(removeRecursive(node.getRight(), minRight.getElement()));
@@ -220,6 +228,15 @@ public class AVLTree<T extends Comparable<T>> implements BalancedTree<T> {
         return (root == null) ? -1 : root.getHeight();
     }
     
+    /**
+     * Um nó por elemento: elemento, dois filhos e altura
+     */
+    @Override
+    public long estimatedBytes() {
+        return HeapEstimate.object(2 * HeapEstimate.REFERENCE + 4)
+            + size * HeapEstimate.object(3 * HeapEstimate.REFERENCE + 4);
+    }
+    
     @Override
     public void printInOrder() {
         printInOrderRecursive(root);
@@ -254,9 +271,7 @@ public class AVLTree<T extends Comparable<T>> implements BalancedTree<T> {
         return root;
     }
     
-    /**
-     * Percorre a árvore em ordem e aplica uma ação a cada elemento
-     */
+    @Override
     public void inOrderTraversal(java.util.function.Consumer<T> action) {
         inOrderTraversalRecursive(root, action);
     }
@@ -268,4 +283,92 @@ public class AVLTree<T extends Comparable<T>> implements BalancedTree<T> {
             inOrderTraversalRecursive(node.getRight(), action);
         }
     }
+    
+    @Override
+    public void rangeTraversal(T from, T to, java.util.function.Consumer<T> action) {
+        rangeTraversalRecursive(root, from, to, action);
+    }
+    
+    private void rangeTraversalRecursive(NodeAVL<T> node, T from, T to,
+                                         java.util.function.Consumer<T> action) {
+        if (node != null) {
+            int cmpFrom = node.getElement().compareTo(from);
+            int cmpTo = node.getElement().compareTo(to);
+            // Subárvore esquerda só tem elementos menores que o nó
+            if (cmpFrom > 0) {
+                rangeTraversalRecursive(node.getLeft(), from, to, action);
+            }
+            if (cmpFrom >= 0 && cmpTo <= 0) {
+                action.accept(node.getElement());
+            }
+            // Subárvore direita só tem elementos maiores que o nó
+            if (cmpTo < 0) {
+                rangeTraversalRecursive(node.getRight(), from, to, action);
+            }
+        }
+    }
+    
+    @Override
+    public Iterator<T> iterator() {
+        return new TreeIterator(null, false);
+    }
+    
+    @Override
+    public Iterator<T> iterator(T from) {
+        return new TreeIterator(from, false);
+    }
+    
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new TreeIterator(null, true);
+    }
+    
+    @Override
+    public Iterator<T> descendingIterator(T from) {
+        return new TreeIterator(from, true);
+    }
+    
+    /**
+     * Iterador em ordem com pilha explícita. A pilha guarda os ancestrais ainda
+     * não visitados, então cada next() custa O(1) amortizado e o posicionamento
+     * inicial custa O(log n).
+     */
+    private class TreeIterator implements Iterator<T> {
+        private final ArrayDeque<NodeAVL<T>> stack = new ArrayDeque<>();
+        private final boolean descending;
+        
+        TreeIterator(T from, boolean descending) {
+            this.descending = descending;
+            NodeAVL<T> node = root;
+            while (node != null) {
+                int cmp = (from == null) ? 0 : node.getElement().compareTo(from);
+                if (descending ? cmp <= 0 : cmp >= 0) {
+                    // Nó está no intervalo: visitar depois da subárvore mais próxima de from
+                    stack.push(node);
+                    node = descending ? node.getRight() : node.getLeft();
+                } else {
+                    node = descending ? node.getLeft() : node.getRight();
+                }
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+        
+        @Override
+        public T next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            NodeAVL<T> node = stack.pop();
+            NodeAVL<T> next = descending ? node.getLeft() : node.getRight();
+            while (next != null) {
+                stack.push(next);
+                next = descending ? next.getRight() : next.getLeft();
+            }
+            return node.getElement();
+        }
+    }
 }
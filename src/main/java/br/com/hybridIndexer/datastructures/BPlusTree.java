@@ -0,0 +1,540 @@
+package br.com.hybridIndexer.datastructures;
+
+import br.com.hybridIndexer.util.HeapEstimate;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementação de uma Árvore B+
+ * Os elementos ficam em folhas largas e ordenadas, duplamente ligadas às
+ * irmãs, então percursos e buscas por intervalo leem vetores contíguos em
+ * vez de seguir um ponteiro por elemento como na AVL e na Rubro-Negra.
+ *
+ * @param <T> Tipo de dados armazenado na árvore (deve ser comparável)
+ */
+public class BPlusTree<T extends Comparable<T>> implements BalancedTree<T> {
+    public static final int DEFAULT_ORDER = 64;
+    
+    private final int order;       // máximo de chaves por nó
+    private final int minKeys;     // mínimo de chaves por nó (exceto a raiz)
+    private NodeBPlus<T> root;
+    private NodeBPlus<T> head;     // folha mais à esquerda
+    private int size;
+    private int height;
+    
+    // Resultado da última divisão durante a inserção
+    private T splitKey;
+    private boolean inserted;
+    
+    /**
+     * Construtor padrão
+     */
+    public BPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+    
+    /**
+     * Construtor com a ordem (número máximo de chaves por nó)
+     * @param order Ordem da árvore (mínimo 3)
+     */
+    public BPlusTree(int order) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Ordem da Árvore B+ deve ser pelo menos 3");
+        }
+        this.order = order;
+        this.minKeys = order / 2;
+        this.root = new NodeBPlus<>(true, order);
+        this.head = root;
+        this.size = 0;
+        this.height = 0;
+    }
+    
+    @Override
+    public void insert(T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Valor não pode ser null");
+        }
+        
+        inserted = false;
+        NodeBPlus<T> right = insertRecursive(root, value);
+        if (right != null) {
+            // A raiz foi dividida: criar nova raiz
+            NodeBPlus<T> newRoot = new NodeBPlus<>(false, order);
+            newRoot.setChild(0, root);
+            newRoot.setChild(1, right);
+            newRoot.setKey(0, splitKey);
+            newRoot.setCount(1);
+            root = newRoot;
+            height++;
+        }
+        if (inserted) {
+            size++;
+        }
+    }
+    
+    /**
+     * Insere recursivamente e divide os nós que estouram
+     * @return Novo nó à direita se o nó foi dividido (separador em splitKey), ou null
+     */
+    private NodeBPlus<T> insertRecursive(NodeBPlus<T> node, T value) {
+        if (node.isLeaf()) {
+            int pos = node.search(value);
+            if (pos >= 0) {
+                // Valor duplicado - não inserir
+                return null;
+            }
+            pos = -(pos + 1);
+            node.insertKey(pos, value);
+            inserted = true;
+            if (node.getCount() <= order) {
+                return null;
+            }
+            // Inserções em ordem crescente enchem a folha da direita por completo
+            boolean append = pos == order && node.getNext() == null;
+            return splitLeaf(node, append ? order : node.getCount() / 2);
+        }
+        
+        int index = node.childIndex(value);
+        NodeBPlus<T> right = insertRecursive(node.getChild(index), value);
+        if (right == null) {
+            return null;
+        }
+        node.insertChild(index + 1, right);
+        node.insertKey(index, splitKey);
+        if (node.getCount() <= order) {
+            return null;
+        }
+        return splitInternal(node);
+    }
+    
+    /**
+     * Divide uma folha, mantendo as primeiras mid chaves na folha original
+     */
+    private NodeBPlus<T> splitLeaf(NodeBPlus<T> leaf, int mid) {
+        NodeBPlus<T> right = new NodeBPlus<>(true, order);
+        int moved = leaf.getCount() - mid;
+        System.arraycopy(leaf.getKeys(), mid, right.getKeys(), 0, moved);
+        java.util.Arrays.fill(leaf.getKeys(), mid, leaf.getCount(), null);
+        right.setCount(moved);
+        leaf.setCount(mid);
+        
+        right.setNext(leaf.getNext());
+        right.setPrev(leaf);
+        if (leaf.getNext() != null) {
+            leaf.getNext().setPrev(right);
+        }
+        leaf.setNext(right);
+        splitKey = right.getKey(0);
+        return right;
+    }
+    
+    /**
+     * Divide um nó interno, promovendo a chave do meio
+     */
+    private NodeBPlus<T> splitInternal(NodeBPlus<T> node) {
+        NodeBPlus<T> right = new NodeBPlus<>(false, order);
+        int count = node.getCount();
+        int mid = count / 2;
+        splitKey = node.getKey(mid);
+        
+        int moved = count - mid - 1;
+        System.arraycopy(node.getKeys(), mid + 1, right.getKeys(), 0, moved);
+        System.arraycopy(node.getChildren(), mid + 1, right.getChildren(), 0, moved + 1);
+        java.util.Arrays.fill(node.getKeys(), mid, count, null);
+        java.util.Arrays.fill(node.getChildren(), mid + 1, count + 1, null);
+        right.setCount(moved);
+        node.setCount(mid);
+        return right;
+    }
+    
+    @Override
+    public boolean remove(T value) {
+        if (value == null || size == 0) {
+            return false;
+        }
+        
+        boolean removed = removeRecursive(root, value);
+        if (!root.isLeaf() && root.getCount() == 0) {
+            // A raiz ficou com um único filho: a árvore perde um nível
+            root = root.getChild(0);
+            height--;
+        }
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+    
+    /**
+     * Remove recursivamente e corrige os filhos que ficaram abaixo do mínimo
+     */
+    private boolean removeRecursive(NodeBPlus<T> node, T value) {
+        if (node.isLeaf()) {
+            int pos = node.search(value);
+            if (pos < 0) {
+                return false;
+            }
+            node.removeKey(pos);
+            return true;
+        }
+        
+        int index = node.childIndex(value);
+        NodeBPlus<T> child = node.getChild(index);
+        boolean removed = removeRecursive(child, value);
+        if (removed && child.getCount() < minKeys) {
+            rebalance(node, index);
+        }
+        return removed;
+    }
+    
+    /**
+     * Corrige um filho abaixo do mínimo emprestando de um irmão ou fundindo com ele
+     */
+    private void rebalance(NodeBPlus<T> parent, int index) {
+        NodeBPlus<T> child = parent.getChild(index);
+        NodeBPlus<T> left = index > 0 ? parent.getChild(index - 1) : null;
+        NodeBPlus<T> right = index < parent.getCount() ? parent.getChild(index + 1) : null;
+        
+        if (left != null && left.getCount() > minKeys) {
+            borrowFromLeft(parent, index, left, child);
+        } else if (right != null && right.getCount() > minKeys) {
+            borrowFromRight(parent, index, child, right);
+        } else if (left != null) {
+            merge(parent, index - 1, left, child);
+        } else if (right != null) {
+            merge(parent, index, child, right);
+        }
+    }
+    
+    /**
+     * Move a última chave do irmão esquerdo para o início do filho
+     */
+    private void borrowFromLeft(NodeBPlus<T> parent, int index, NodeBPlus<T> left, NodeBPlus<T> child) {
+        int last = left.getCount() - 1;
+        if (child.isLeaf()) {
+            child.insertKey(0, left.getKey(last));
+            left.removeKey(last);
+            parent.setKey(index - 1, child.getKey(0));
+        } else {
+            child.insertChild(0, left.getChild(last + 1));
+            child.insertKey(0, parent.getKey(index - 1));
+            parent.setKey(index - 1, left.getKey(last));
+            left.setChild(last + 1, null);
+            left.removeKey(last);
+        }
+    }
+    
+    /**
+     * Move a primeira chave do irmão direito para o fim do filho
+     */
+    private void borrowFromRight(NodeBPlus<T> parent, int index, NodeBPlus<T> child, NodeBPlus<T> right) {
+        if (child.isLeaf()) {
+            child.insertKey(child.getCount(), right.getKey(0));
+            right.removeKey(0);
+            parent.setKey(index, right.getKey(0));
+        } else {
+            child.setChild(child.getCount() + 1, right.getChild(0));
+            child.insertKey(child.getCount(), parent.getKey(index));
+            parent.setKey(index, right.getKey(0));
+            right.removeChild(0);
+            right.removeKey(0);
+        }
+    }
+    
+    /**
+     * Funde o nó da direita no da esquerda e remove o separador keyIndex do pai
+     */
+    private void merge(NodeBPlus<T> parent, int keyIndex, NodeBPlus<T> left, NodeBPlus<T> right) {
+        int leftCount = left.getCount();
+        if (left.isLeaf()) {
+            System.arraycopy(right.getKeys(), 0, left.getKeys(), leftCount, right.getCount());
+            left.setCount(leftCount + right.getCount());
+            left.setNext(right.getNext());
+            if (right.getNext() != null) {
+                right.getNext().setPrev(left);
+            }
+        } else {
+            left.setKey(leftCount, parent.getKey(keyIndex));
+            System.arraycopy(right.getKeys(), 0, left.getKeys(), leftCount + 1, right.getCount());
+            System.arraycopy(right.getChildren(), 0, left.getChildren(), leftCount + 1, right.getCount() + 1);
+            left.setCount(leftCount + 1 + right.getCount());
+        }
+        parent.removeChild(keyIndex + 1);
+        parent.removeKey(keyIndex);
+    }
+    
+    @Override
+    public boolean find(T value) {
+        if (value == null) {
+            return false;
+        }
+        NodeBPlus<T> leaf = findLeaf(value);
+        return leaf.search(value) >= 0;
+    }
+    
+    /**
+     * Desce até a folha que contém (ou conteria) o valor
+     */
+    private NodeBPlus<T> findLeaf(T value) {
+        NodeBPlus<T> node = root;
+        while (!node.isLeaf()) {
+            node = node.getChild(node.childIndex(value));
+        }
+        return node;
+    }
+    
+    @Override
+    public int getHeight() {
+        return size == 0 ? -1 : height;
+    }
+    
+    /**
+     * Soma os nós, cada um com vetores de order + 1 chaves e, nos internos,
+     * order + 2 filhos; percorre os nós, não os elementos
+     */
+    @Override
+    public long estimatedBytes() {
+        return HeapEstimate.object(6 * HeapEstimate.REFERENCE + 2) + nodeBytes(root);
+    }
+    
+    private long nodeBytes(NodeBPlus<T> node) {
+        if (node == null) {
+            return 0;
+        }
+        // folha, chaves, filhos, contagem e irmãos
+        long bytes = HeapEstimate.object(1 + 4 * HeapEstimate.REFERENCE + 4)
+            + HeapEstimate.referenceArray(order + 1);
+        if (!node.isLeaf()) {
+            bytes += HeapEstimate.referenceArray(order + 2);
+            for (int i = 0; i <= node.getCount(); i++) {
+                bytes += nodeBytes(node.getChild(i));
+            }
+        }
+        return bytes;
+    }
+    
+    @Override
+    public void printInOrder() {
+        inOrderTraversal(value -> System.out.print(value + " "));
+        System.out.println();
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Retorna o menor elemento da árvore
+     * @return Menor elemento ou null se a árvore estiver vazia
+     */
+    public T first() {
+        return size == 0 ? null : head.getKey(0);
+    }
+    
+    /**
+     * Retorna a ordem da árvore
+     */
+    public int getOrder() {
+        return order;
+    }
+    
+    /**
+     * Percorre as folhas pelos ponteiros de irmão, sem recursão
+     */
+    @Override
+    public void inOrderTraversal(java.util.function.Consumer<T> action) {
+        for (NodeBPlus<T> leaf = head; leaf != null; leaf = leaf.getNext()) {
+            for (int i = 0; i < leaf.getCount(); i++) {
+                action.accept(leaf.getKey(i));
+            }
+        }
+    }
+    
+    /**
+     * Desce uma única vez até a folha do limite inferior e segue pelas folhas irmãs
+     */
+    @Override
+    public void rangeTraversal(T from, T to, java.util.function.Consumer<T> action) {
+        NodeBPlus<T> leaf = findLeaf(from);
+        int pos = leaf.search(from);
+        int i = pos >= 0 ? pos : -(pos + 1);
+        while (leaf != null) {
+            for (; i < leaf.getCount(); i++) {
+                T value = leaf.getKey(i);
+                if (value.compareTo(to) > 0) {
+                    return;
+                }
+                action.accept(value);
+            }
+            leaf = leaf.getNext();
+            i = 0;
+        }
+    }
+    
+    /**
+     * Descreve [from, to] como sequências de folhas com cerca de grain
+     * elementos cada, para a coleta paralela. Desce uma vez até a folha de
+     * from e segue pelas irmãs contando apenas as folhas inteiras; só a última
+     * folha do intervalo é lida por busca binária, então o custo é uma visita
+     * por folha, não por elemento.
+     * @param from Limite inferior (inclusivo); null para começar do menor elemento
+     * @param to Limite superior (inclusivo); null para ir até o maior elemento
+     */
+    void addRangeChunks(T from, T to, RangeCollector<T> collector) {
+        NodeBPlus<T> leaf = head;
+        int i = 0;
+        if (from != null) {
+            leaf = findLeaf(from);
+            int pos = leaf.search(from);
+            i = pos >= 0 ? pos : -(pos + 1);
+            collector.addVisited(height);
+        }
+        NodeBPlus<T> runLeaf = leaf;
+        int runIndex = i;
+        int length = 0;
+        while (leaf != null) {
+            collector.addVisited(1);
+            int end = leaf.getCount();
+            boolean last = to != null && end > 0 && leaf.getKey(end - 1).compareTo(to) > 0;
+            if (last) {
+                int pos = leaf.search(to);
+                end = pos >= 0 ? pos + 1 : -(pos + 1);
+            }
+            length += Math.max(0, end - i);
+            if (last) {
+                break;
+            }
+            leaf = leaf.getNext();
+            i = 0;
+            if (length >= collector.grain()) {
+                collector.add(new LeafRun<>(runLeaf, runIndex, length));
+                runLeaf = leaf;
+                runIndex = 0;
+                length = 0;
+            }
+        }
+        collector.add(new LeafRun<>(runLeaf, runIndex, length));
+    }
+    
+    /**
+     * Trecho de length elementos a partir da posição index de uma folha,
+     * seguindo pelas folhas irmãs
+     */
+    private static final class LeafRun<T extends Comparable<T>> implements RangeCollector.Chunk {
+        private final NodeBPlus<T> leaf;
+        private final int index;
+        private final int length;
+        
+        LeafRun(NodeBPlus<T> leaf, int index, int length) {
+            this.leaf = leaf;
+            this.index = index;
+            this.length = length;
+        }
+        
+        @Override
+        public int length() {
+            return length;
+        }
+        
+        @Override
+        public void copyTo(Object[] out, int offset) {
+            NodeBPlus<T> current = leaf;
+            int i = index;
+            int remaining = length;
+            while (remaining > 0) {
+                int n = Math.min(remaining, current.getCount() - i);
+                if (n > 0) {
+                    System.arraycopy(current.getKeys(), i, out, offset, n);
+                    offset += n;
+                    remaining -= n;
+                }
+                current = current.getNext();
+                i = 0;
+            }
+        }
+    }
+    
+    @Override
+    public Iterator<T> iterator() {
+        return new LeafIterator(head, 0, false);
+    }
+    
+    @Override
+    public Iterator<T> iterator(T from) {
+        if (from == null) {
+            return iterator();
+        }
+        NodeBPlus<T> leaf = findLeaf(from);
+        int pos = leaf.search(from);
+        return new LeafIterator(leaf, pos >= 0 ? pos : -(pos + 1), false);
+    }
+    
+    @Override
+    public Iterator<T> descendingIterator() {
+        NodeBPlus<T> leaf = root;
+        while (!leaf.isLeaf()) {
+            leaf = leaf.getChild(leaf.getCount());
+        }
+        return new LeafIterator(leaf, leaf.getCount() - 1, true);
+    }
+    
+    @Override
+    public Iterator<T> descendingIterator(T from) {
+        if (from == null) {
+            return descendingIterator();
+        }
+        NodeBPlus<T> leaf = findLeaf(from);
+        int pos = leaf.search(from);
+        return new LeafIterator(leaf, pos >= 0 ? pos : -(pos + 1) - 1, true);
+    }
+    
+    /**
+     * Iterador que caminha pelo vetor de cada folha e salta para a folha irmã
+     */
+    private class LeafIterator implements Iterator<T> {
+        private NodeBPlus<T> leaf;
+        private int index;
+        private final boolean descending;
+        
+        LeafIterator(NodeBPlus<T> leaf, int index, boolean descending) {
+            this.leaf = leaf;
+            this.index = index;
+            this.descending = descending;
+            advance();
+        }
+        
+        /**
+         * Avança para a próxima folha quando a posição sai da folha atual
+         */
+        private void advance() {
+            while (leaf != null && (index < 0 || index >= leaf.getCount())) {
+                leaf = descending ? leaf.getPrev() : leaf.getNext();
+                if (leaf != null) {
+                    index = descending ? leaf.getCount() - 1 : 0;
+                }
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+        
+        @Override
+        public T next() {
+            if (leaf == null) {
+                throw new NoSuchElementException();
+            }
+            T value = leaf.getKey(index);
+            index += descending ? -1 : 1;
+            advance();
+            return value;
+        }
+    }
+}
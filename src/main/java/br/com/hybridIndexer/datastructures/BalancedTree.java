@@ -1,11 +1,14 @@
 package br.com.hybridIndexer.datastructures;
 
+import java.util.Iterator;
+import java.util.function.Consumer;
+
 /**
  * Interface genérica para árvores balanceadas (AVL e Rubro-Negra)
  * 
  * @param <T> Tipo de dados armazenado na árvore (deve ser comparável)
  */
-public interface BalancedTree<T extends Comparable<T>> {
+public interface BalancedTree<T extends Comparable<T>> extends Iterable<T> {
     
     /**
      * Insere um valor na árvore
@@ -44,9 +47,55 @@ public interface BalancedTree<T extends Comparable<T>> {
      */
     int size();
     
+    /**
+     * Estimativa da memória ocupada pela estrutura no heap (nós e vetores),
+     * sem contar os elementos, que são compartilhados com os outros índices
+     * @return Bytes estimados (ver HeapEstimate)
+     */
+    long estimatedBytes();
+    
     /**
      * Verifica se a árvore está vazia
      * @return true se a árvore está vazia, false caso contrário
      */
     boolean isEmpty();
+    
+    /**
+     * Percorre a árvore em ordem e aplica uma ação a cada elemento
+     * @param action Ação aplicada a cada elemento
+     */
+    void inOrderTraversal(Consumer<T> action);
+    
+    /**
+     * Percorre em ordem apenas os elementos no intervalo [from, to],
+     * descendo somente pelas subárvores que podem conter elementos do intervalo
+     * @param from Limite inferior (inclusivo)
+     * @param to Limite superior (inclusivo)
+     * @param action Ação aplicada a cada elemento do intervalo
+     */
+    void rangeTraversal(T from, T to, Consumer<T> action);
+    
+    /**
+     * Iterador em ordem crescente, sem recursão, posicionado no primeiro
+     * elemento maior ou igual a from. Permite parar após o primeiro resultado
+     * ou os N primeiros sem percorrer o restante da árvore.
+     * A árvore não deve ser modificada enquanto o iterador estiver em uso.
+     * @param from Limite inferior (inclusivo); null para começar do menor elemento
+     * @return Iterador crescente a partir de from
+     */
+    Iterator<T> iterator(T from);
+    
+    /**
+     * Iterador em ordem decrescente a partir do maior elemento
+     * @return Iterador decrescente
+     */
+    Iterator<T> descendingIterator();
+    
+    /**
+     * Iterador em ordem decrescente posicionado no primeiro elemento
+     * menor ou igual a from
+     * @param from Limite superior (inclusivo); null para começar do maior elemento
+     * @return Iterador decrescente a partir de from
+     */
+    Iterator<T> descendingIterator(T from);
 }
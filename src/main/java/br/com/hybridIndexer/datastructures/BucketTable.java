@@ -0,0 +1,222 @@
+package br.com.hybridIndexer.datastructures;
+
+import br.com.hybridIndexer.model.Transaction;
+import br.com.hybridIndexer.util.HeapEstimate;
+
+/**
+ * Posições de um índice por chave da HybridHashTable em vetores paralelos.
+ * Cada posição é um byte com o tipo, uma referência ao conteúdo (a transação
+ * única ou a estrutura do bucket) e o hash completo da chave, sem um objeto
+ * por posição. A sondagem percorre kinds e hashes, que são contíguos, e só
+ * segue a referência quando o hash coincide com o da chave procurada; o
+ * redimensionamento reposiciona os buckets pelo hash guardado, sem recalcular
+ * o hash das chaves. Os contadores da política adaptativa só são alocados
+ * quando a política conta o primeiro acesso. O filtro de chaves opcional
+ * (KeyFilter) recebe o hash de cada chave nova e responde, lendo uma linha de
+ * cache, se a chave certamente não está na tabela; quando passa das chaves
+ * previstas é reconstruído com o dobro do tamanho a partir dos hashes guardados,
+ * o que também esquece as chaves removidas.
+ */
+final class BucketTable {
+    static final byte EMPTY = 0;
+    static final byte TOMBSTONE = 1;        // posição removida (a sondagem continua através dela)
+    static final byte TRANSACTION = 2;      // transação única
+    static final byte SORTED_ARRAY = 3;     // vetor ordenado (chave com poucas transações)
+    static final byte AVL_TREE = 4;         // AVL, após o vetor ordenado passar do limite
+    static final byte RED_BLACK_TREE = 5;   // Rubro-Negra, após a AVL ficar muito alta
+    static final byte BPLUS_TREE = 6;       // B+, após a Rubro-Negra passar do limite de tamanho
+    static final byte PARTITIONED = 7;      // partições de tempo, após passar do limite de particionamento
+    
+    private static final String[] NAMES = {
+        "EMPTY", "TOMBSTONE", "TRANSACTION", "SORTED_ARRAY", "AVL_TREE", "RED_BLACK_TREE", "BPLUS_TREE",
+        "PARTITIONED"
+    };
+    
+    final byte[] kinds;
+    final Object[] data;
+    final int[] hashes;     // hash completo da chave (antes da máscara) nas posições ocupadas
+    private int[] reads;    // buscas no bucket desde a última reavaliação (política adaptativa)
+    private int[] writes;   // inserções e remoções no bucket desde a última reavaliação
+    private KeyFilter filter;   // null sem filtro de chaves
+    
+    BucketTable(int capacity) {
+        this(capacity, false, 0);
+    }
+    
+    /**
+     * @param filtered true para manter o filtro de chaves
+     * @param expectedKeys Chaves previstas para o filtro; ele nunca começa com
+     *                     menos que capacity / 16, para que as reconstruções
+     *                     (que percorrem toda a tabela) sejam raras
+     */
+    BucketTable(int capacity, boolean filtered, int expectedKeys) {
+        this.kinds = new byte[capacity];
+        this.data = new Object[capacity];
+        this.hashes = new int[capacity];
+        this.filter = filtered ? new KeyFilter(Math.max(expectedKeys, capacity / 16)) : null;
+    }
+    
+    int capacity() {
+        return kinds.length;
+    }
+    
+    /**
+     * Bucket com várias transações da mesma chave (vetor ordenado ou árvore)
+     */
+    static boolean isTree(byte kind) {
+        return kind >= SORTED_ARRAY;
+    }
+    
+    /**
+     * Posição com transação única ou bucket
+     */
+    static boolean isOccupied(byte kind) {
+        return kind >= TRANSACTION;
+    }
+    
+    /**
+     * Nome do tipo, usado nas métricas e nas estatísticas
+     */
+    static String name(byte kind) {
+        return NAMES[kind];
+    }
+    
+    /**
+     * Ocupa uma posição livre com uma transação única, zerando os contadores
+     */
+    void put(int slot, Transaction transaction, int hash) {
+        kinds[slot] = TRANSACTION;
+        data[slot] = transaction;
+        hashes[slot] = hash;
+        if (reads != null) {
+            reads[slot] = 0;
+            writes[slot] = 0;
+        }
+        addToFilter(hash);
+    }
+    
+    /**
+     * Esvazia uma posição deixando lápide
+     */
+    void remove(int slot) {
+        kinds[slot] = TOMBSTONE;
+        data[slot] = null;
+    }
+    
+    /**
+     * Copia o bucket de uma posição de outra tabela, com os contadores
+     */
+    void copy(BucketTable from, int fromSlot, int slot) {
+        kinds[slot] = from.kinds[fromSlot];
+        data[slot] = from.data[fromSlot];
+        hashes[slot] = from.hashes[fromSlot];
+        if (from.reads != null) {
+            ensureCounters();
+            reads[slot] = from.reads[fromSlot];
+            writes[slot] = from.writes[fromSlot];
+        }
+        addToFilter(hashes[slot]);
+    }
+    
+    private void addToFilter(int hash) {
+        if (filter == null) {
+            return;
+        }
+        filter.add(hash);
+        if (filter.isSaturated()) {
+            rebuildFilter();
+        }
+    }
+    
+    /**
+     * Reconstrói o filtro a partir dos hashes das posições ocupadas, com folga
+     * para outro tanto de chaves novas
+     */
+    private void rebuildFilter() {
+        int occupied = 0;
+        for (byte kind : kinds) {
+            if (isOccupied(kind)) {
+                occupied++;
+            }
+        }
+        KeyFilter rebuilt = new KeyFilter(Math.max(occupied * 2, kinds.length / 16));
+        for (int slot = 0; slot < kinds.length; slot++) {
+            if (isOccupied(kinds[slot])) {
+                rebuilt.add(hashes[slot]);
+            }
+        }
+        filter = rebuilt;
+    }
+    
+    /**
+     * Consulta o filtro de chaves
+     * @return false se nenhuma chave com esse hash está na tabela; true se pode
+     *         estar (ou se a tabela não tem filtro)
+     */
+    boolean mightContain(int hash) {
+        return filter == null || filter.mightContain(hash);
+    }
+    
+    boolean isFiltered() {
+        return filter != null;
+    }
+    
+    /**
+     * Chaves adicionadas ao filtro desde a última reconstrução (limite superior
+     * das chaves distintas), ou 0 sem filtro
+     */
+    int filterKeys() {
+        return filter == null ? 0 : filter.keys();
+    }
+    
+    private void ensureCounters() {
+        if (reads == null) {
+            reads = new int[kinds.length];
+            writes = new int[kinds.length];
+        }
+    }
+    
+    int reads(int slot) {
+        return reads == null ? 0 : reads[slot];
+    }
+    
+    int writes(int slot) {
+        return writes == null ? 0 : writes[slot];
+    }
+    
+    void countRead(int slot) {
+        ensureCounters();
+        reads[slot]++;
+    }
+    
+    void countWrite(int slot) {
+        ensureCounters();
+        writes[slot]++;
+    }
+    
+    /**
+     * Reduz os contadores à metade, para que o uso recente pese mais
+     */
+    void decayCounters(int slot) {
+        if (reads != null) {
+            reads[slot] >>= 1;
+            writes[slot] >>= 1;
+        }
+    }
+    
+    /**
+     * Memória dos vetores de posições e do filtro (sem o conteúdo dos buckets)
+     */
+    long estimatedBytes() {
+        long bytes = HeapEstimate.object(6 * HeapEstimate.REFERENCE)
+            + HeapEstimate.array(kinds.length, 1) + HeapEstimate.referenceArray(kinds.length)
+            + HeapEstimate.array(kinds.length, 4);
+        if (reads != null) {
+            bytes += 2 * HeapEstimate.array(kinds.length, 4);
+        }
+        if (filter != null) {
+            bytes += filter.estimatedBytes();
+        }
+        return bytes;
+    }
+}
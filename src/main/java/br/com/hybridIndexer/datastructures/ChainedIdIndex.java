@@ -0,0 +1,231 @@
+package br.com.hybridIndexer.datastructures;
+
+import br.com.hybridIndexer.model.Transaction;
+import br.com.hybridIndexer.util.HeapEstimate;
+import java.util.Arrays;
+
+/**
+ * Índice por id com encadeamento sobre vetores primitivos.
+ * Cada posição guarda o índice da primeira entrada do seu encadeamento; as
+ * entradas de todas as posições ficam em um vetor compartilhado, com a
+ * transação, o hash completo do id e o índice da próxima entrada. Uma
+ * entrada custa 12 bytes, contra o nó de 24 bytes por elemento mais a
+ * LinkedList de cada posição. O percurso compara o hash guardado e só lê
+ * a transação quando ele coincide. As entradas liberadas formam uma lista
+ * de livres, reutilizada pelas próximas inserções.
+ * Como o encadeamento admite ids repetidos, a ordem de inserção é mantida
+ * em cada posição e a busca devolve a primeira transação com o id.
+ */
+class ChainedIdIndex {
+    private static final int NONE = -1;
+    
+    private int[] heads;           // primeira entrada de cada posição (NONE se vazia)
+    private Transaction[] rows;
+    private int[] hashes;          // hash completo do id de cada entrada
+    private int[] next;            // próxima entrada do encadeamento, ou da lista de livres
+    private int entryCount;        // entradas já usadas alguma vez
+    private int freeHead = NONE;
+    private int size;
+    private long probes;
+    
+    ChainedIdIndex(int capacity) {
+        this.heads = newHeads(capacity);
+        this.rows = new Transaction[16];
+        this.hashes = new int[16];
+        this.next = new int[16];
+    }
+    
+    private static int[] newHeads(int capacity) {
+        int[] heads = new int[capacity];
+        Arrays.fill(heads, NONE);
+        return heads;
+    }
+    
+    /**
+     * Busca a primeira transação com o id
+     * @param hash Hash completo do id (antes da máscara)
+     * @return A transação ou null se não existir
+     */
+    Transaction get(String id, int hash) {
+        for (int e = heads[hash & (heads.length - 1)]; e != NONE; e = next[e]) {
+            probes++;
+            if (hashes[e] == hash && rows[e].getId().equals(id)) {
+                return rows[e];
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Acrescenta a transação ao fim do encadeamento da sua posição
+     * @param hash Hash completo do id (antes da máscara)
+     */
+    void add(Transaction transaction, int hash) {
+        int e = allocateEntry();
+        rows[e] = transaction;
+        hashes[e] = hash;
+        next[e] = NONE;
+        append(hash & (heads.length - 1), e);
+        size++;
+    }
+    
+    private void append(int index, int e) {
+        int last = heads[index];
+        if (last == NONE) {
+            heads[index] = e;
+            return;
+        }
+        probes++;
+        while (next[last] != NONE) {
+            last = next[last];
+            probes++;
+        }
+        next[last] = e;
+    }
+    
+    /**
+     * Remove uma transação do encadeamento
+     * @param hash Hash completo do id (antes da máscara)
+     * @param target Instância a remover, ou null para a primeira com o id
+     * @return A transação removida ou null se não existir
+     */
+    Transaction remove(String id, int hash, Transaction target) {
+        int index = hash & (heads.length - 1);
+        int previous = NONE;
+        for (int e = heads[index]; e != NONE; previous = e, e = next[e]) {
+            probes++;
+            Transaction t = rows[e];
+            if (target == null ? hashes[e] == hash && t.getId().equals(id) : t == target) {
+                if (previous == NONE) {
+                    heads[index] = next[e];
+                } else {
+                    next[previous] = next[e];
+                }
+                releaseEntry(e);
+                size--;
+                return t;
+            }
+        }
+        return null;
+    }
+    
+    private int allocateEntry() {
+        if (freeHead != NONE) {
+            int e = freeHead;
+            freeHead = next[e];
+            return e;
+        }
+        if (entryCount == rows.length) {
+            int length = rows.length + (rows.length >> 1);
+            rows = Arrays.copyOf(rows, length);
+            hashes = Arrays.copyOf(hashes, length);
+            next = Arrays.copyOf(next, length);
+        }
+        return entryCount++;
+    }
+    
+    private void releaseEntry(int e) {
+        rows[e] = null;
+        next[e] = freeHead;
+        freeHead = e;
+    }
+    
+    /**
+     * Redistribui os encadeamentos para uma nova capacidade (potência de dois),
+     * pelos hashes guardados e mantendo a ordem de inserção de cada posição
+     */
+    void resize(int capacity) {
+        int[] oldHeads = heads;
+        int[] newHeads = newHeads(capacity);
+        int[] tails = newHeads(capacity);
+        for (int head : oldHeads) {
+            int e = head;
+            while (e != NONE) {
+                int following = next[e];
+                int index = hashes[e] & (capacity - 1);
+                next[e] = NONE;
+                if (tails[index] == NONE) {
+                    newHeads[index] = e;
+                } else {
+                    next[tails[index]] = e;
+                }
+                tails[index] = e;
+                e = following;
+            }
+        }
+        heads = newHeads;
+    }
+    
+    /**
+     * Compacta as entradas no início do vetor compartilhado e o reduz ao
+     * necessário, descartando a lista de livres
+     */
+    void trimToSize() {
+        int length = Math.max(16, size);
+        if (length >= rows.length) {
+            return;
+        }
+        Transaction[] newRows = new Transaction[length];
+        int[] newHashes = new int[length];
+        int[] newNext = new int[length];
+        int count = 0;
+        for (int index = 0; index < heads.length; index++) {
+            int previous = NONE;
+            for (int e = heads[index]; e != NONE; e = next[e]) {
+                newRows[count] = rows[e];
+                newHashes[count] = hashes[e];
+                newNext[count] = NONE;
+                if (previous == NONE) {
+                    heads[index] = count;
+                } else {
+                    newNext[previous] = count;
+                }
+                previous = count++;
+            }
+        }
+        rows = newRows;
+        hashes = newHashes;
+        next = newNext;
+        entryCount = count;
+        freeHead = NONE;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    int capacity() {
+        return heads.length;
+    }
+    
+    /**
+     * Entradas visitadas nos percursos, para a contagem de comparações
+     */
+    long getProbes() {
+        return probes;
+    }
+    
+    /**
+     * Maior encadeamento
+     */
+    int maxChainLength() {
+        int max = 0;
+        for (int head : heads) {
+            int length = 0;
+            for (int e = head; e != NONE; e = next[e]) {
+                length++;
+            }
+            max = Math.max(max, length);
+        }
+        return max;
+    }
+    
+    /**
+     * Memória estimada do índice (posições e entradas), sem as transações
+     */
+    long estimatedBytes() {
+        return HeapEstimate.object(4 * HeapEstimate.REFERENCE + 4 * 3 + 8)
+            + HeapEstimate.array(heads.length, 4) + HeapEstimate.referenceArray(rows.length)
+            + HeapEstimate.array(hashes.length, 4) + HeapEstimate.array(next.length, 4);
+    }
+}
@@ -0,0 +1,363 @@
+package br.com.hybridIndexer.datastructures;
+
+import java.util.Properties;
+
+/**
+ * Política de escalonamento dos buckets da HybridHashTable.
+ * Reúne os limites que decidem quantas chaves podem ter o mesmo hash, a carga
+ * da tabela e quando um bucket troca de estrutura: vetor ordenado enquanto é
+ * pequeno, depois AVL, Rubro-Negra e Árvore B+. No modo adaptativo, cada bucket
+ * conta suas leituras e escritas: buckets dominados por buscas continuam em AVL
+ * (mais baixa, busca mais rápida) além do limite de altura, e os dominados por
+ * inserções passam à Rubro-Negra (menos rotações por inserção).
+ * Buckets com mais de partitionThreshold transações podem ainda ser divididos
+ * em partições de tempo (TimePartitionedBucket), uma por período do timestamp.
+ * Com keyFilter, cada índice por chave mantém um filtro de Bloom (KeyFilter)
+ * que responde às buscas por chaves ausentes sem sondar a tabela.
+ * Buscas por intervalo que cobrem pelo menos parallelScanThreshold transações
+ * de um bucket são divididas (subárvores da Rubro-Negra, sequências de folhas
+ * da B+, partições de tempo) e coletadas em um ForkJoinPool. A busca paralela
+ * fica desligada por padrão; SearchBenchmark.hotOrigemSearch mede o ganho
+ * antes de escolher um limite, por exemplo 65536.
+ * Os valores podem ser lidos de propriedades com o prefixo "hybridIndexer.",
+ * por exemplo -DhybridIndexer.adaptive=true, sem recompilar.
+ */
+public class EscalationPolicy {
+    public static final String PROPERTY_PREFIX = "hybridIndexer.";
+    
+    /**
+     * Período das partições de tempo, dado pelo prefixo do timestamp
+     * (formato YYYY-MM-DD HH:MM:SS) que as transações da partição compartilham
+     */
+    public enum PartitionPeriod {
+        YEAR(4), MONTH(7), DAY(10), HOUR(13);
+        
+        private final int prefixLength;
+        
+        PartitionPeriod(int prefixLength) {
+            this.prefixLength = prefixLength;
+        }
+        
+        /**
+         * Caracteres do timestamp que identificam o período
+         */
+        public int getPrefixLength() {
+            return prefixLength;
+        }
+    }
+    
+    public static final int MIN_QUADRATIC_PROBES = 3;
+    
+    private int maxQuadraticProbes = 3;     // chaves a mais com o mesmo hash toleradas (só sem semente)
+    private double loadFactor = 0.75;
+    private int smallBucketThreshold = 64;  // vetor ordenado com mais elementos que isso vira AVL
+    private int maxAvlHeight = 10;          // AVL mais alta que isso vira Rubro-Negra
+    private int bPlusTreeThreshold = 4096;  // Rubro-Negra com mais elementos que isso vira Árvore B+
+    private boolean adaptive = false;
+    private int readHeavyAvlHeight = 16;    // altura máxima da AVL em buckets dominados por leitura
+    private double readHeavyRatio = 4.0;    // leituras por escrita para o bucket ser de leitura
+    private int evaluationInterval = 256;   // operações no bucket entre reavaliações
+    private int partitionThreshold = Integer.MAX_VALUE; // bucket maior que isso é particionado por tempo
+    private PartitionPeriod partitionPeriod = PartitionPeriod.MONTH;
+    private boolean keyFilter = true;       // filtro de Bloom nos índices por chave
+    private int parallelScanThreshold = Integer.MAX_VALUE; // transações no intervalo para a busca ser paralela (desligada)
+    
+    /**
+     * Cria a política com os valores padrão (não adaptativa)
+     */
+    public EscalationPolicy() {
+    }
+    
+    /**
+     * Cria a política a partir de propriedades; chaves ausentes mantêm o padrão
+     * @throws IllegalArgumentException se algum valor for inválido
+     */
+    public static EscalationPolicy fromProperties(Properties properties) {
+        EscalationPolicy policy = new EscalationPolicy();
+        String value;
+        // Apesar do nome, mantido por compatibilidade: chaves a mais com exatamente
+        // o mesmo hash toleradas quando a HashStrategy não tem semente
+        if ((value = property(properties, "maxQuadraticProbes")) != null) {
+            policy.setMaxQuadraticProbes(Integer.parseInt(value));
+        }
+        if ((value = property(properties, "loadFactor")) != null) {
+            policy.setLoadFactor(Double.parseDouble(value));
+        }
+        if ((value = property(properties, "smallBucketThreshold")) != null) {
+            policy.setSmallBucketThreshold(Integer.parseInt(value));
+        }
+        // Os dois limites dependem um do outro: o da Árvore B+ é validado depois da altura
+        String bPlusTreeThreshold = property(properties, "bPlusTreeThreshold");
+        if (bPlusTreeThreshold != null) {
+            policy.bPlusTreeThreshold = Integer.MAX_VALUE;
+        }
+        if ((value = property(properties, "maxAvlHeight")) != null) {
+            policy.setMaxAvlHeight(Integer.parseInt(value));
+        }
+        if (bPlusTreeThreshold != null) {
+            policy.setBPlusTreeThreshold(Integer.parseInt(bPlusTreeThreshold));
+        }
+        if ((value = property(properties, "adaptive")) != null) {
+            policy.setAdaptive(Boolean.parseBoolean(value));
+        }
+        if ((value = property(properties, "readHeavyAvlHeight")) != null) {
+            policy.setReadHeavyAvlHeight(Integer.parseInt(value));
+        }
+        if ((value = property(properties, "readHeavyRatio")) != null) {
+            policy.setReadHeavyRatio(Double.parseDouble(value));
+        }
+        if ((value = property(properties, "evaluationInterval")) != null) {
+            policy.setEvaluationInterval(Integer.parseInt(value));
+        }
+        if ((value = property(properties, "partitionThreshold")) != null) {
+            policy.setPartitionThreshold(Integer.parseInt(value));
+        }
+        if ((value = property(properties, "partitionPeriod")) != null) {
+            try {
+                policy.setPartitionPeriod(PartitionPeriod.valueOf(value.toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Período de partição inválido: " + value);
+            }
+        }
+        if ((value = property(properties, "keyFilter")) != null) {
+            policy.setKeyFilter(Boolean.parseBoolean(value));
+        }
+        if ((value = property(properties, "parallelScanThreshold")) != null) {
+            policy.setParallelScanThreshold(Integer.parseInt(value));
+        }
+        return policy;
+    }
+    
+    /**
+     * Cria a política a partir das propriedades do sistema (-DhybridIndexer.*)
+     */
+    public static EscalationPolicy fromSystemProperties() {
+        return fromProperties(System.getProperties());
+    }
+    
+    private static String property(Properties properties, String name) {
+        String value = properties.getProperty(PROPERTY_PREFIX + name);
+        return value == null ? null : value.trim();
+    }
+    
+    /**
+     * Verifica se o bucket é dominado por leituras (apenas no modo adaptativo)
+     */
+    boolean isReadHeavy(int reads, int writes) {
+        return adaptive && reads >= readHeavyRatio * Math.max(1, writes);
+    }
+    
+    /**
+     * Altura máxima da AVL para um bucket com essas leituras e escritas
+     */
+    int avlHeightLimit(int reads, int writes) {
+        return isReadHeavy(reads, writes) ? readHeavyAvlHeight : maxAvlHeight;
+    }
+    
+    /**
+     * Rubro-Negra com até este tamanho volta a ser AVL
+     * (a AVL reconstruída fica com altura menor que maxAvlHeight)
+     */
+    int rbToAvlSize() {
+        return 1 << (maxAvlHeight - 1);
+    }
+    
+    // Getters e Setters
+    public int getMaxQuadraticProbes() {
+        return maxQuadraticProbes;
+    }
+    
+    /**
+     * Chaves a mais com exatamente o mesmo hash toleradas; o nome vem da época
+     * em que limitava a sondagem, que hoje continua até achar uma posição livre.
+     * Lido apenas quando a tabela é criada e só vale para HashStrategy sem
+     * semente (javaHashCode), em que mais de maxQuadraticProbes + 1 chaves com
+     * o mesmo hash indicam um ataque e são rejeitadas. Com semente nenhuma chave
+     * é rejeitada: grupos assim só aparecem por acaso em conjuntos enormes de
+     * chaves. Abaixo de MIN_QUADRATIC_PROBES, colisões comuns de hashes de 32
+     * bits entre chaves legítimas já seriam rejeitadas
+     */
+    public void setMaxQuadraticProbes(int maxQuadraticProbes) {
+        if (maxQuadraticProbes < MIN_QUADRATIC_PROBES || maxQuadraticProbes > 64) {
+            throw new IllegalArgumentException("Número de colisões deve estar entre " + MIN_QUADRATIC_PROBES
+                + " e 64: " + maxQuadraticProbes);
+        }
+        this.maxQuadraticProbes = maxQuadraticProbes;
+    }
+    
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+    
+    /**
+     * Lido apenas quando a tabela é criada
+     */
+    public void setLoadFactor(double loadFactor) {
+        if (!(loadFactor > 0 && loadFactor <= 1)) {
+            throw new IllegalArgumentException("Fator de carga deve estar em (0, 1]: " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+    }
+    
+    public int getSmallBucketThreshold() {
+        return smallBucketThreshold;
+    }
+    
+    /**
+     * @param smallBucketThreshold Tamanho máximo do vetor ordenado (1 leva direto à AVL)
+     */
+    public void setSmallBucketThreshold(int smallBucketThreshold) {
+        if (smallBucketThreshold < 1 || smallBucketThreshold > 1 << 16) {
+            throw new IllegalArgumentException("Limite do vetor ordenado deve estar entre 1 e 65536: "
+                + smallBucketThreshold);
+        }
+        this.smallBucketThreshold = smallBucketThreshold;
+    }
+    
+    public int getMaxAvlHeight() {
+        return maxAvlHeight;
+    }
+    
+    public void setMaxAvlHeight(int maxAvlHeight) {
+        if (maxAvlHeight < 2 || maxAvlHeight > 30) {
+            throw new IllegalArgumentException("Altura máxima da AVL deve estar entre 2 e 30: " + maxAvlHeight);
+        }
+        if ((1 << (maxAvlHeight - 1)) > bPlusTreeThreshold) {
+            throw new IllegalArgumentException("Altura máxima da AVL incompatível com o limite da Árvore B+ ("
+                + bPlusTreeThreshold + ")");
+        }
+        this.maxAvlHeight = maxAvlHeight;
+        this.readHeavyAvlHeight = Math.max(readHeavyAvlHeight, maxAvlHeight);
+    }
+    
+    public int getBPlusTreeThreshold() {
+        return bPlusTreeThreshold;
+    }
+    
+    /**
+     * @param bPlusTreeThreshold Limite de tamanho (Integer.MAX_VALUE desabilita o nível B+)
+     */
+    public void setBPlusTreeThreshold(int bPlusTreeThreshold) {
+        if (bPlusTreeThreshold < rbToAvlSize()) {
+            throw new IllegalArgumentException("Limite da Árvore B+ deve ser pelo menos " + rbToAvlSize());
+        }
+        this.bPlusTreeThreshold = bPlusTreeThreshold;
+    }
+    
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+    
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+    
+    public int getReadHeavyAvlHeight() {
+        return readHeavyAvlHeight;
+    }
+    
+    public void setReadHeavyAvlHeight(int readHeavyAvlHeight) {
+        if (readHeavyAvlHeight < maxAvlHeight || readHeavyAvlHeight > 30) {
+            throw new IllegalArgumentException("Altura da AVL de leitura deve estar entre " + maxAvlHeight
+                + " e 30: " + readHeavyAvlHeight);
+        }
+        this.readHeavyAvlHeight = readHeavyAvlHeight;
+    }
+    
+    public double getReadHeavyRatio() {
+        return readHeavyRatio;
+    }
+    
+    public void setReadHeavyRatio(double readHeavyRatio) {
+        if (!(readHeavyRatio > 0)) {
+            throw new IllegalArgumentException("Proporção de leituras deve ser positiva: " + readHeavyRatio);
+        }
+        this.readHeavyRatio = readHeavyRatio;
+    }
+    
+    public int getEvaluationInterval() {
+        return evaluationInterval;
+    }
+    
+    public void setEvaluationInterval(int evaluationInterval) {
+        if (evaluationInterval < 1) {
+            throw new IllegalArgumentException("Intervalo de reavaliação deve ser positivo: " + evaluationInterval);
+        }
+        this.evaluationInterval = evaluationInterval;
+    }
+    
+    public int getPartitionThreshold() {
+        return partitionThreshold;
+    }
+    
+    /**
+     * @param partitionThreshold Tamanho a partir do qual o bucket é dividido em
+     *                           partições de tempo (Integer.MAX_VALUE desabilita)
+     */
+    public void setPartitionThreshold(int partitionThreshold) {
+        if (partitionThreshold < 2) {
+            throw new IllegalArgumentException("Limite do particionamento deve ser pelo menos 2: " + partitionThreshold);
+        }
+        this.partitionThreshold = partitionThreshold;
+    }
+    
+    public PartitionPeriod getPartitionPeriod() {
+        return partitionPeriod;
+    }
+    
+    /**
+     * Lido quando um bucket é particionado; buckets já particionados mantêm o seu período
+     */
+    public void setPartitionPeriod(PartitionPeriod partitionPeriod) {
+        if (partitionPeriod == null) {
+            throw new IllegalArgumentException("Período de partição não pode ser null");
+        }
+        this.partitionPeriod = partitionPeriod;
+    }
+    
+    public boolean isKeyFilter() {
+        return keyFilter;
+    }
+    
+    /**
+     * Lido quando a tabela é criada, como o fator de carga
+     */
+    public void setKeyFilter(boolean keyFilter) {
+        this.keyFilter = keyFilter;
+    }
+    
+    public int getParallelScanThreshold() {
+        return parallelScanThreshold;
+    }
+    
+    /**
+     * @param parallelScanThreshold Transações no intervalo a partir das quais
+     *                              uma busca em um bucket é paralela
+     *                              (Integer.MAX_VALUE, o padrão, desabilita)
+     */
+    public void setParallelScanThreshold(int parallelScanThreshold) {
+        if (parallelScanThreshold < 1) {
+            throw new IllegalArgumentException("Limite da busca paralela deve ser positivo: " + parallelScanThreshold);
+        }
+        this.parallelScanThreshold = parallelScanThreshold;
+    }
+    
+    @Override
+    public String toString() {
+        return "EscalationPolicy{" +
+                "maxQuadraticProbes=" + maxQuadraticProbes +
+                ", loadFactor=" + loadFactor +
+                ", smallBucketThreshold=" + smallBucketThreshold +
+                ", maxAvlHeight=" + maxAvlHeight +
+                ", bPlusTreeThreshold=" + bPlusTreeThreshold +
+                ", adaptive=" + adaptive +
+                ", readHeavyAvlHeight=" + readHeavyAvlHeight +
+                ", readHeavyRatio=" + readHeavyRatio +
+                ", evaluationInterval=" + evaluationInterval +
+                ", partitionThreshold=" + partitionThreshold +
+                ", partitionPeriod=" + partitionPeriod +
+                ", keyFilter=" + keyFilter +
+                ", parallelScanThreshold=" + parallelScanThreshold +
+                '}';
+    }
+}
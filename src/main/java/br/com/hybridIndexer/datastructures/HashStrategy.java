@@ -0,0 +1,62 @@
+package br.com.hybridIndexer.datastructures;
+
+/**
+ * Estratégia de hash das chaves da HybridHashTable.
+ * A tabela usa capacidade potência de dois e obtém a posição com uma máscara
+ * sobre os bits baixos, então a estratégia deve espalhar bem todos os bits.
+ */
+public interface HashStrategy {
+    
+    /**
+     * Hash de 32 bits da chave (pode ser negativo)
+     */
+    int hash(String key);
+    
+    /**
+     * Hash de 64 bits da chave, usado pelo índice por id em vetores primitivos
+     * (RowIdIndex). O padrão espalha o hash de 32 bits, então chaves com o
+     * mesmo hash() continuam colidindo; estratégias com saída maior, como o
+     * SipHash, devolvem os 64 bits completos.
+     */
+    default long hash64(String key) {
+        long z = hash(key) * 0x9e3779b97f4a7c15L;
+        return z ^ (z >>> 32);
+    }
+    
+    /**
+     * true se o hash depende de uma semente, de modo que quem envia as chaves
+     * não consegue produzir muitas com o mesmo hash. Com estratégias sem
+     * semente a tabela rejeita chaves a mais com exatamente o mesmo hash
+     * (ver EscalationPolicy.setMaxQuadraticProbes).
+     */
+    default boolean isSeeded() {
+        return false;
+    }
+    
+    /**
+     * SipHash-1-3 com chave aleatória própria: chaves enviadas por terceiros
+     * não conseguem ser escolhidas para colidir, porque a semente não é conhecida.
+     * É a estratégia padrão da tabela.
+     */
+    static HashStrategy randomSeeded() {
+        return new SipHashStrategy();
+    }
+    
+    /**
+     * SipHash-1-3 com semente fixa, para execuções reproduzíveis
+     */
+    static HashStrategy seeded(long seed) {
+        return new SipHashStrategy(seed);
+    }
+    
+    /**
+     * String.hashCode com os bits altos misturados aos baixos (como java.util.HashMap).
+     * Mais barato, mas previsível: chaves com o mesmo hashCode sempre colidem.
+     */
+    static HashStrategy javaHashCode() {
+        return key -> {
+            int h = key.hashCode();
+            return h ^ (h >>> 16);
+        };
+    }
+}
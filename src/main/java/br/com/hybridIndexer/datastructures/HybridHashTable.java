@@ -1,45 +1,110 @@
 package br.com.hybridIndexer.datastructures;
 
+import br.com.hybridIndexer.metrics.IndexMetrics;
+import br.com.hybridIndexer.model.SearchPage;
 import br.com.hybridIndexer.model.Transaction;
+import br.com.hybridIndexer.util.HashLinearTrial;
+import br.com.hybridIndexer.util.HeapEstimate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Tabela Hash Híbrida que indexa transações por dois campos (id e origem)
- * com diferentes estratégias de tratamento de colisão
+ * com diferentes estratégias de tratamento de colisão.
+ * Os encadeamentos por id ficam em um vetor próprio, com a mesma capacidade
+ * da tabela de origens, para que um índice nunca sobrescreva o outro.
+ * Chaves com poucas transações ficam em um vetor ordenado (SortedArrayBucket)
+ * e só passam a árvore quando crescem além do limite da política.
+ * Opcionalmente mantém índices secundários por destino e pelo par
+ * (origem, destino), com o mesmo escalonamento sondagem quadrática → vetor
+ * ordenado → AVL → Rubro-Negra usado para origem.
+ * O índice por id pode usar encadeamento (padrão, ChainedIdIndex), sondagem linear
+ * Robin Hood (HashLinearTrial), que mantém sondagens curtas com carga alta,
+ * ou vetores primitivos (RowIdIndex), sem objetos por entrada.
+ * Buckets maiores que o limite de particionamento da política são divididos
+ * em partições de tempo (TimePartitionedBucket), que as buscas por intervalo
+ * podam e que podem ser congeladas ou descartadas inteiras.
+ * Opcionalmente guarda os resultados de search() em um SearchCache, que cada
+ * escrita invalida apenas para a sua origem.
+ * Com uma janela de retenção, as transações anteriores ao limite (o timestamp
+ * mais recente menos a janela) são descartadas aos poucos a cada escrita.
+ * Buscas que cobrem boa parte de um bucket Rubro-Negra grande são divididas
+ * entre as subárvores e coletadas em paralelo em um ForkJoinPool.
+ * As posições vêm de uma HashStrategy (por padrão SipHash com semente
+ * aleatória por instância) mascarada pela capacidade, sempre potência de dois.
+ * Os índices por id Robin Hood e em vetores primitivos usam a mesma estratégia.
  */
 public class HybridHashTable {
     
-    // Tipos de estruturas que podem estar em cada posição da tabela
-    private enum EntryType {
-        EMPTY,
-        TRANSACTION,        // Transação única (para origem com sondagem quadrática)
-        LINKED_LIST,        // Lista encadeada (para id)
-        AVL_TREE,          // Árvore AVL (para origem após muitas colisões)
-        RED_BLACK_TREE     // Árvore Rubro-Negra (para origem após AVL ficar muito alta)
+    /**
+     * Estrutura usada no índice por id
+     */
+    public enum IdIndex {
+        CHAINING,       // ChainedIdIndex: encadeamento em vetores, com a capacidade da tabela
+        ROBIN_HOOD,     // HashLinearTrial: sondagem linear Robin Hood, redimensionada à parte
+        PRIMITIVE       // RowIdIndex: hash de 64 bits do id → linha, em vetores primitivos
     }
     
-    // Classe interna para armazenar entrada na tabela
-    private class TableEntry {
-        EntryType type;
-        Object data;
-        
-        TableEntry() {
-            this.type = EntryType.EMPTY;
-            this.data = null;
-        }
+    /**
+     * O que fazer quando a memória estimada passa do orçamento
+     */
+    public enum BudgetAction {
+        ALERT,          // apenas avisa
+        COMPACT         // compacta a tabela e avisa se ainda estiver acima do orçamento
     }
     
-    private TableEntry[] table;
+    private BucketTable table;
+    private ChainedIdIndex idChains;   // null exceto com IdIndex.CHAINING
+    private HashLinearTrial<String, Transaction> idMap; // null exceto com IdIndex.ROBIN_HOOD
+    private RowIdIndex idRows;         // null exceto com IdIndex.PRIMITIVE
+    private BucketTable destinoTable;  // null quando o índice por destino está desabilitado
+    private BucketTable pairTable;     // null quando o índice por (origem, destino) está desabilitado
     private int size;
     private int capacity;
+    private int minCapacity;           // a tabela nunca encolhe abaixo da capacidade inicial
+    private int tombstones;
+    private final HashStrategy hashStrategy;
+    private final EscalationPolicy policy;
+    private final int maxQuadraticProbes; // da política: chaves a mais com o mesmo hash toleradas sem semente
+    private final boolean limitSameHash;  // só estratégias sem semente rejeitam chaves com o mesmo hash
+    private final double loadFactor;      // da política, fixo enquanto a tabela existir
+    private final boolean keyFilter;      // da política, fixo enquanto a tabela existir
+    private long adaptiveSwitches;        // trocas de estrutura decididas pela política adaptativa
+    private long transactionBytes;        // memória estimada das transações indexadas e suas strings
+    private long memoryBudget;            // bytes; 0 = sem orçamento
+    private BudgetAction budgetAction;
+    private Consumer<IndexStatistics> budgetListener;
+    private boolean overBudget;           // o aviso é dado uma vez a cada vez que o orçamento é excedido
+    private int writesSinceBudgetCheck;
+    private Duration retention;           // null = sem retenção
+    private String newestTimestamp;       // maior timestamp inserido desde que a retenção foi ligada
+    private String watermark;             // transações anteriores a este instante são descartadas
+    private int evictionCursor;           // próxima posição do índice por origem a varrer
+    private long evicted;
+    private SearchCache searchCache;      // null = sem cache de buscas
+    private ForkJoinPool scanPool = ForkJoinPool.commonPool(); // buscas paralelas nos buckets grandes
     private static final int INITIAL_CAPACITY = 512;
-    private static final double LOAD_FACTOR = 0.75;
-    private static final int MAX_QUADRATIC_PROBES = 3;
-    private static final int MAX_AVL_HEIGHT = 10;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final double MAX_TOMBSTONE_RATIO = 0.25;
+    private static final char PAIR_SEPARATOR = '\u0000';
+    private static final int BUDGET_CHECK_INTERVAL = 1024;
+    private static final int LARGEST_BUCKETS = 10;
+    private static final int EVICTION_SLOTS_PER_WRITE = 16;
+    private static final int EVICTIONS_PER_WRITE = 4;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
-    // Contadores para análise de desempenho
-    private long comparisons;
-    private long assignments;
+    // Contadores para análise de desempenho, legíveis por outras threads e pelo JMX
+    private final IndexMetrics metrics = new IndexMetrics();
     
     /**
      * Construtor padrão
@@ -52,362 +117,1168 @@ public class HybridHashTable {
      * Construtor com capacidade inicial
      */
     public HybridHashTable(int capacity) {
-        this.capacity = capacity;
-        this.table = new TableEntry[capacity];
-        for (int i = 0; i < capacity; i++) {
-            table[i] = new TableEntry();
+        this(capacity, false);
+    }
+    
+    /**
+     * Construtor com capacidade inicial e índice opcional por destino
+     * @param capacity Capacidade inicial da tabela
+     * @param indexDestino true para manter também o índice por destino
+     */
+    public HybridHashTable(int capacity, boolean indexDestino) {
+        this(capacity, indexDestino, false);
+    }
+    
+    /**
+     * Construtor com capacidade inicial e índices opcionais
+     * @param capacity Capacidade inicial da tabela
+     * @param indexDestino true para manter também o índice por destino
+     * @param indexPair true para manter também o índice composto (origem, destino)
+     */
+    public HybridHashTable(int capacity, boolean indexDestino, boolean indexPair) {
+        this(capacity, indexDestino, indexPair, IdIndex.CHAINING);
+    }
+    
+    /**
+     * Construtor com capacidade inicial, índices opcionais e estrutura do índice por id
+     * @param capacity Capacidade inicial da tabela
+     * @param indexDestino true para manter também o índice por destino
+     * @param indexPair true para manter também o índice composto (origem, destino)
+     * @param idIndex Estrutura do índice por id
+     */
+    public HybridHashTable(int capacity, boolean indexDestino, boolean indexPair, IdIndex idIndex) {
+        this(capacity, indexDestino, indexPair, idIndex, HashStrategy.randomSeeded());
+    }
+    
+    /**
+     * Construtor com capacidade inicial, índices opcionais, estrutura do índice por id
+     * e estratégia de hash
+     * @param capacity Capacidade inicial da tabela (arredondada para potência de dois)
+     * @param indexDestino true para manter também o índice por destino
+     * @param indexPair true para manter também o índice composto (origem, destino)
+     * @param idIndex Estrutura do índice por id
+     * @param hashStrategy Função de hash das chaves
+     */
+    public HybridHashTable(int capacity, boolean indexDestino, boolean indexPair, IdIndex idIndex,
+                           HashStrategy hashStrategy) {
+        this(capacity, indexDestino, indexPair, idIndex, hashStrategy, new EscalationPolicy());
+    }
+    
+    /**
+     * Construtor completo
+     * @param capacity Capacidade inicial da tabela (arredondada para potência de dois)
+     * @param indexDestino true para manter também o índice por destino
+     * @param indexPair true para manter também o índice composto (origem, destino)
+     * @param idIndex Estrutura do índice por id
+     * @param hashStrategy Função de hash das chaves
+     * @param policy Limites de escalonamento; as chaves com o mesmo hash e o fator de carga
+     *               são lidos agora, os demais a cada decisão
+     */
+    public HybridHashTable(int capacity, boolean indexDestino, boolean indexPair, IdIndex idIndex,
+                           HashStrategy hashStrategy, EscalationPolicy policy) {
+        if (idIndex == null) {
+            throw new IllegalArgumentException("Estrutura do índice por id não pode ser null");
+        }
+        if (hashStrategy == null) {
+            throw new IllegalArgumentException("Estratégia de hash não pode ser null");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Política de escalonamento não pode ser null");
+        }
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacidade inválida: " + capacity);
         }
+        capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.hashStrategy = hashStrategy;
+        this.policy = policy;
+        this.maxQuadraticProbes = policy.getMaxQuadraticProbes();
+        this.limitSameHash = !hashStrategy.isSeeded();
+        this.loadFactor = policy.getLoadFactor();
+        this.keyFilter = policy.isKeyFilter();
+        this.capacity = capacity;
+        this.minCapacity = capacity;
+        this.table = new BucketTable(capacity, keyFilter, 0);
+        this.idChains = idIndex == IdIndex.CHAINING ? new ChainedIdIndex(capacity) : null;
+        this.idMap = idIndex == IdIndex.ROBIN_HOOD ? new HashLinearTrial<>(capacity, hashStrategy::hash) : null;
+        this.idRows = idIndex == IdIndex.PRIMITIVE ? new RowIdIndex(capacity, hashStrategy) : null;
+        this.destinoTable = indexDestino ? new BucketTable(capacity, keyFilter, 0) : null;
+        this.pairTable = indexPair ? new BucketTable(capacity, keyFilter, 0) : null;
         this.size = 0;
-        this.comparisons = 0;
-        this.assignments = 0;
+        this.tombstones = 0;
     }
     
     /**
-     * Insere uma transação na tabela, indexando por id e origem
+     * Insere uma transação na tabela, indexando por id e origem.
+     * Uma transação já existente com o mesmo id é substituída, qualquer que
+     * seja o índice por id, como em update().
      */
     public void put(Transaction transaction) {
         if (transaction == null) {
             throw new IllegalArgumentException("Transação não pode ser null");
         }
+        long start = metrics.startTimer();
+        advanceWatermark(transaction);
+        putInternal(transaction);
+        evictStep();
+        metrics.recordLatency(IndexMetrics.Operation.PUT, start);
+        checkMemoryBudget();
+    }
+    
+    private void putInternal(Transaction transaction) {
+        // Uma transação por id em todos os índices: a anterior é substituída
+        Transaction replaced = removeInternal(transaction.getId());
         
         // Verificar se precisa redimensionar
-        if (size >= capacity * LOAD_FACTOR) {
+        if (size >= capacity * loadFactor) {
             resize(capacity * 2);
         }
         
-        // Indexar por ID (usando encadeamento)
+        size++;
+        try {
+            insert(transaction);
+        } catch (IllegalStateException e) {
+            // Chave que nenhuma capacidade separa: desfazer a inserção parcial
+            rollback(transaction);
+            if (replaced != null) {
+                putInternal(replaced);
+            }
+            throw e;
+        }
+        transactionBytes += transactionBytes(transaction);
+    }
+    
+    /**
+     * Retira dos índices uma transação cuja inserção falhou
+     */
+    private void rollback(Transaction transaction) {
+        removeFromIdIndex(transaction.getId(), transaction);
+        removeFromKeyIndex(table, transaction, Transaction::getOrigem);
+        if (destinoTable != null) {
+            removeFromKeyIndex(destinoTable, transaction, Transaction::getDestino);
+        }
+        if (pairTable != null) {
+            removeFromKeyIndex(pairTable, transaction, HybridHashTable::pairKey);
+        }
+        size--;
+    }
+    
+    /**
+     * Indexa a transação em todos os índices
+     */
+    private void insert(Transaction transaction) {
+        // Indexar por ID (usando encadeamento ou Robin Hood)
         indexById(transaction);
-        
+        indexByKeys(transaction);
+    }
+    
+    /**
+     * Indexa a transação nos índices por chave (origem, destino e par)
+     */
+    private void indexByKeys(Transaction transaction) {
         // Indexar por origem (usando sondagem quadrática com escalonamento)
         indexByOrigem(transaction);
         
-        size++;
+        // Indexar por destino, se habilitado (mesmo escalonamento da origem)
+        if (destinoTable != null) {
+            indexByKey(destinoTable, transaction, Transaction::getDestino);
+        }
+        
+        // Indexar pelo par (origem, destino), se habilitado
+        if (pairTable != null) {
+            indexByKey(pairTable, transaction, HybridHashTable::pairKey);
+        }
+    }
+    
+    /**
+     * Remove a transação com o id informado de todos os índices.
+     * Árvores que encolhem voltam a estruturas menores e a tabela encolhe
+     * quando a carga cai, para que processos longos não mantenham o pico de memória.
+     * @param id Id da transação
+     * @return A transação removida ou null se não existir
+     */
+    public Transaction removeById(String id) {
+        long start = metrics.startTimer();
+        Transaction removed = removeInternal(id);
+        if (removed != null) {
+            shrinkIfNeeded();
+        }
+        metrics.recordLatency(IndexMetrics.Operation.REMOVE, start);
+        checkMemoryBudget();
+        return removed;
+    }
+    
+    /**
+     * Substitui a transação de mesmo id, mantendo todos os índices consistentes
+     * (a origem, o destino e o timestamp podem mudar). Se não existir, apenas insere.
+     * @param transaction Nova versão da transação
+     * @return A versão anterior ou null se não existia
+     */
+    public Transaction update(Transaction transaction) {
+        if (transaction == null) {
+            throw new IllegalArgumentException("Transação não pode ser null");
+        }
+        long start = metrics.startTimer();
+        advanceWatermark(transaction);
+        Transaction previous = removeInternal(transaction.getId());
+        putInternal(transaction);
+        evictStep();
+        metrics.recordLatency(IndexMetrics.Operation.UPDATE, start);
+        checkMemoryBudget();
+        return previous;
+    }
+    
+    /**
+     * Busca uma transação pelo id
+     * @return A transação ou null se não existir
+     */
+    public Transaction getById(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id não pode ser null");
+        }
+        long start = metrics.startTimer();
+        Transaction found = findById(id);
+        metrics.recordLatency(IndexMetrics.Operation.GET_BY_ID, start);
+        return found;
+    }
+    
+    private Transaction findById(String id) {
+        if (idMap != null) {
+            long probes = idMap.getProbes();
+            Transaction t = idMap.get(id);
+            metrics.addComparisons(idMap.getProbes() - probes);
+            return t;
+        }
+        if (idRows != null) {
+            long probes = idRows.getProbes();
+            Transaction t = idRows.get(id);
+            metrics.addComparisons(idRows.getProbes() - probes + (t != null ? 1 : 0));
+            return t;
+        }
+        long probes = idChains.getProbes();
+        Transaction t = idChains.get(id, hashStrategy.hash(id));
+        metrics.addComparisons(1 + idChains.getProbes() - probes);
+        return t;
+    }
+    
+    /**
+     * Remove dos índices sem verificar se a tabela deve encolher
+     */
+    private Transaction removeInternal(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Id não pode ser null");
+        }
+        
+        Transaction removed = removeFromIdIndex(id, null);
+        if (removed == null) {
+            return null;
+        }
+        
+        removeFromKeyIndex(table, removed, Transaction::getOrigem);
+        if (destinoTable != null) {
+            removeFromKeyIndex(destinoTable, removed, Transaction::getDestino);
+        }
+        if (pairTable != null) {
+            removeFromKeyIndex(pairTable, removed, HybridHashTable::pairKey);
+        }
+        
+        size--;
+        transactionBytes -= transactionBytes(removed);
+        return removed;
+    }
+    
+    /**
+     * Encolhe a tabela quando a carga cai ou, se as lápides acumularem,
+     * reconstrói na mesma capacidade para limpar as sequências de sondagem
+     */
+    private void shrinkIfNeeded() {
+        if (capacity > minCapacity && size < capacity * loadFactor / 4) {
+            resize(Math.max(minCapacity, capacity / 2));
+        } else if (tombstones > capacity * MAX_TOMBSTONE_RATIO) {
+            resize(capacity);
+        }
+    }
+    
+    /**
+     * Chave composta do índice (origem, destino)
+     */
+    private static String pairKey(String origem, String destino) {
+        return origem + PAIR_SEPARATOR + destino;
+    }
+    
+    private static String pairKey(Transaction transaction) {
+        return pairKey(transaction.getOrigem(), transaction.getDestino());
     }
     
     /**
      * Indexa transação por ID usando encadeamento
      */
     private void indexById(Transaction transaction) {
-        int index = hash(transaction.getId());
-        TableEntry entry = table[index];
-        
-        comparisons++;
+        if (idMap != null) {
+            long probes = idMap.getProbes();
+            idMap.put(transaction.getId(), transaction);
+            metrics.addComparisons(idMap.getProbes() - probes);
+            metrics.addAssignments(1);
+            return;
+        }
+        if (idRows != null) {
+            long probes = idRows.getProbes();
+            idRows.put(transaction);
+            metrics.addComparisons(idRows.getProbes() - probes);
+            metrics.addAssignments(2);
+            return;
+        }
         
-        if (entry.type == EntryType.EMPTY || entry.type == EntryType.TRANSACTION) {
-            // Criar nova lista encadeada
-            LinkedList<Transaction> list = new LinkedList<>();
-            if (entry.type == EntryType.TRANSACTION) {
-                // Adicionar transação existente à lista
-                list.add((Transaction) entry.data);
-                assignments++;
+        long probes = idChains.getProbes();
+        idChains.add(transaction, hashStrategy.hash(transaction.getId()));
+        metrics.addComparisons(1 + idChains.getProbes() - probes);
+        metrics.addAssignments(1);
+    }
+    
+    /**
+     * Remove a transação do índice por id
+     * @param target Instância a remover, ou null para a primeira com o id
+     *               (o encadeamento admite ids repetidos)
+     * @return A transação removida ou null se não existir
+     */
+    private Transaction removeFromIdIndex(String id, Transaction target) {
+        if (idMap != null) {
+            long probes = idMap.getProbes();
+            Transaction t = idMap.get(id);
+            if (t != null) {
+                // Remoção por deslocamento para trás: nenhuma lápide no índice por id
+                idMap.delete(id);
+                metrics.addAssignments(1);
             }
-            list.add(transaction);
-            entry.type = EntryType.LINKED_LIST;
-            entry.data = list;
-            assignments += 2;
-        } else if (entry.type == EntryType.LINKED_LIST) {
-            // Adicionar à lista existente
-            @SuppressWarnings("unchecked")
-            LinkedList<Transaction> list = (LinkedList<Transaction>) entry.data;
-            list.add(transaction);
-            assignments++;
+            metrics.addComparisons(idMap.getProbes() - probes);
+            return t;
         }
-        // Nota: Se for AVL ou RB, é porque foi indexado por origem, não id
+        if (idRows != null) {
+            long probes = idRows.getProbes();
+            Transaction t = idRows.remove(id);
+            if (t != null) {
+                metrics.addAssignments(2);
+            }
+            metrics.addComparisons(idRows.getProbes() - probes);
+            return t;
+        }
+        
+        // Encadeamento não precisa de lápide: a entrada volta à lista de livres
+        long probes = idChains.getProbes();
+        Transaction t = idChains.remove(id, hashStrategy.hash(id), target);
+        if (t != null) {
+            metrics.addAssignments(1);
+        }
+        metrics.addComparisons(1 + idChains.getProbes() - probes);
+        return t;
     }
     
     /**
      * Indexa transação por origem usando sondagem quadrática com escalonamento
      */
     private void indexByOrigem(Transaction transaction) {
-        String origem = transaction.getOrigem();
-        int baseIndex = hash(origem);
-        int collisions = 0;
+        invalidateSearches(transaction.getOrigem());
+        indexByKey(table, transaction, Transaction::getOrigem);
+    }
+    
+    /**
+     * Invalida os resultados guardados da origem, se o cache de buscas estiver ligado
+     */
+    private void invalidateSearches(String origem) {
+        if (searchCache != null) {
+            searchCache.invalidate(origem);
+        }
+    }
+    
+    /**
+     * Indexa transação pela chave extraída por keyOf usando sondagem quadrática
+     * com escalonamento (origem na tabela principal, destino na tabela de destinos).
+     * A sondagem segue a sequência de números triangulares, que passa por todas
+     * as posições de uma tabela de tamanho potência de dois, então uma chave
+     * sempre encontra lugar e a tabela só cresce pelo fator de carga.
+     * Lápides não interrompem a sondagem, pois a chave pode estar mais adiante;
+     * a primeira lápide é reaproveitada se a chave não for encontrada.
+     * @throws IllegalStateException se, com uma HashStrategy sem semente, mais
+     *         de maxQuadraticProbes + 1 chaves teriam exatamente o mesmo hash
+     */
+    private void indexByKey(BucketTable table, Transaction transaction,
+                            Function<Transaction, String> keyOf) {
+        String key = keyOf.apply(transaction);
+        int keyHash = hashStrategy.hash(key);
+        int mask = capacity - 1;
+        int slot = keyHash & mask;
+        int firstTombstone = -1;
+        int firstEmpty = -1;
+        int sameHash = 0;
+        int probes = 0;
         
-        // Tentar inserir com sondagem quadrática
-        for (int i = 0; i <= MAX_QUADRATIC_PROBES; i++) {
-            int index = (baseIndex + i * i) % capacity;
-            TableEntry entry = table[index];
+        // Procurar a chave com sondagem quadrática até a primeira posição vazia
+        for (int i = 1; i <= capacity; i++) {
+            byte kind = table.kinds[slot];
             
-            comparisons++;
+            probes++;
             
-            if (entry.type == EntryType.EMPTY) {
-                // Posição vazia, inserir diretamente
-                entry.type = EntryType.TRANSACTION;
-                entry.data = transaction;
-                assignments++;
-                return;
-            } else if (entry.type == EntryType.TRANSACTION) {
-                Transaction existing = (Transaction) entry.data;
-                if (existing.getOrigem().equals(origem)) {
-                    // Mesma origem, converter para lista temporária e depois AVL
-                    migrateToAVL(index, origem);
-                    // Agora é uma AVL, inserir nela
-                    AVLTree<Transaction> avl = (AVLTree<Transaction>) table[index].data;
-                    avl.insert(transaction);
-                    checkAVLHeight(index);
-                    return;
+            if (kind == BucketTable.EMPTY) {
+                // A chave não aparece depois de uma posição vazia
+                firstEmpty = slot;
+                break;
+            } else if (kind == BucketTable.TOMBSTONE) {
+                if (firstTombstone < 0) {
+                    firstTombstone = slot;
                 }
-                // Origem diferente, continuar procurando
-                collisions++;
-            } else if (entry.type == EntryType.AVL_TREE || entry.type == EntryType.RED_BLACK_TREE) {
-                // Verificar se é a origem correta
-                if (isCorrectOrigemTree(entry, origem)) {
-                    insertIntoTree(entry, transaction);
-                    if (entry.type == EntryType.AVL_TREE) {
-                        checkAVLHeight(index);
+            } else if (isKeyAt(table, slot, key, keyHash, keyOf)) {
+                countProbes(probes);
+                if (kind == BucketTable.TRANSACTION) {
+                    // Mesma chave: as duas transações passam a um vetor ordenado
+                    migrateToSortedArray(table, slot);
+                    insertIntoTree(table, slot, transaction);
+                    checkSortedArraySize(table, slot);
+                } else {
+                    insertIntoTree(table, slot, transaction);
+                    if (kind == BucketTable.SORTED_ARRAY) {
+                        checkSortedArraySize(table, slot);
+                    } else if (kind == BucketTable.AVL_TREE) {
+                        checkAVLHeight(table, slot);
+                    } else if (kind == BucketTable.RED_BLACK_TREE) {
+                        checkRBSize(table, slot);
                     }
-                    return;
                 }
-                collisions++;
+                checkPartitionSize(table, slot);
+                recordWrite(table, slot);
+                return;
+            } else if (table.hashes[slot] == keyHash) {
+                sameHash++;
             }
-            // LINKED_LIST só existe para id, não origem
+            // Chave diferente, continuar procurando
+            slot = (slot + i) & mask;
         }
         
-        // Excedeu o limite de colisões, migrar para AVL
-        int finalIndex = (baseIndex + MAX_QUADRATIC_PROBES * MAX_QUADRATIC_PROBES) % capacity;
-        migrateOrigemToAVL(origem, transaction);
+        countProbes(probes);
+        if (limitSameHash && sameHash > maxQuadraticProbes) {
+            // Nenhuma capacidade separa chaves com o mesmo hash: sem semente, aceitá-las
+            // deixaria a sondagem crescer sem limite, que é o objetivo de um ataque de
+            // colisões. Com semente, grupos assim só surgem por acaso em conjuntos
+            // enormes de chaves e continuam na sondagem normal
+            throw new IllegalStateException("Mais de " + (maxQuadraticProbes + 1)
+                + " chaves com o mesmo hash (" + key + "); use uma HashStrategy com semente");
+        }
+        int target = firstEmpty;
+        if (firstTombstone >= 0) {
+            target = firstTombstone;
+            tombstones--;
+        }
+        
+        // Posição livre, inserir diretamente (o fator de carga garante que há uma)
+        table.put(target, transaction, keyHash);
+        metrics.addAssignments(1);
     }
     
     /**
-     * Migra registros de uma origem para uma Árvore AVL
+     * Verifica se a posição ocupada guarda a chave. O hash guardado descarta
+     * quase todas as outras chaves sem ler a transação ou a árvore; só quando
+     * ele coincide a chave é comparada, olhando um elemento qualquer do bucket
+     * (todos têm a mesma chave).
      */
-    private void migrateToAVL(int index, String origem) {
-        AVLTree<Transaction> avl = new AVLTree<>();
-        TableEntry entry = table[index];
-        
-        if (entry.type == EntryType.TRANSACTION) {
-            Transaction existing = (Transaction) entry.data;
-            if (existing.getOrigem().equals(origem)) {
-                avl.insert(existing);
-                assignments++;
-            }
+    private boolean isKeyAt(BucketTable table, int slot, String key, int keyHash,
+                            Function<Transaction, String> keyOf) {
+        return BucketTable.isOccupied(table.kinds[slot]) && table.hashes[slot] == keyHash
+            && keyOf.apply(anyElement(table, slot)).equals(key);
+    }
+    
+    /**
+     * Um elemento de uma posição ocupada (transação única ou árvore não vazia)
+     */
+    @SuppressWarnings("unchecked")
+    private Transaction anyElement(BucketTable table, int slot) {
+        Object bucket = table.data[slot];
+        switch (table.kinds[slot]) {
+            case BucketTable.TRANSACTION: return (Transaction) bucket;
+            case BucketTable.SORTED_ARRAY: return ((SortedArrayBucket<Transaction>) bucket).first();
+            case BucketTable.BPLUS_TREE: return ((BPlusTree<Transaction>) bucket).first();
+            case BucketTable.PARTITIONED: return ((TimePartitionedBucket) bucket).first();
+            case BucketTable.AVL_TREE: return ((AVLTree<Transaction>) bucket).getRoot().getElement();
+            default: return ((RedBlackTree<Transaction>) bucket).getRoot().getElement();
         }
-        
-        entry.type = EntryType.AVL_TREE;
-        entry.data = avl;
-        assignments++;
     }
     
     /**
-     * Migra todos os registros de uma origem para AVL após muitas colisões
+     * Chave de uma posição ocupada
      */
-    private void migrateOrigemToAVL(String origem, Transaction newTransaction) {
-        // Coletar todas as transações dessa origem
-        List<Transaction> transactions = new ArrayList<>();
-        transactions.add(newTransaction);
+    private String bucketKey(BucketTable table, int slot, Function<Transaction, String> keyOf) {
+        return keyOf.apply(anyElement(table, slot));
+    }
+    
+    /**
+     * Remove a transação do índice da chave extraída por keyOf, deixando lápide
+     * quando a posição fica livre e reduzindo árvores que encolheram
+     */
+    private void removeFromKeyIndex(BucketTable table, Transaction transaction,
+                                    Function<Transaction, String> keyOf) {
+        if (table == this.table) {
+            invalidateSearches(transaction.getOrigem());
+        }
+        int slot = findBucket(table, keyOf.apply(transaction), keyOf);
         
-        // Procurar em toda a tabela por transações dessa origem
-        for (int i = 0; i < capacity; i++) {
-            TableEntry entry = table[i];
-            if (entry.type == EntryType.TRANSACTION) {
-                Transaction t = (Transaction) entry.data;
-                if (t.getOrigem().equals(origem)) {
-                    transactions.add(t);
-                    // Limpar entrada
-                    entry.type = EntryType.EMPTY;
-                    entry.data = null;
-                    assignments++;
+        if (slot < 0) {
+            return;
+        } else if (table.kinds[slot] == BucketTable.TRANSACTION) {
+            if (table.data[slot] == transaction) {
+                table.remove(slot);
+                tombstones++;
+                metrics.addAssignments(1);
+            }
+        } else {
+            BalancedTree<Transaction> tree = (BalancedTree<Transaction>) table.data[slot];
+            if (tree.remove(transaction)) {
+                metrics.addAssignments(1);
+                deEscalate(table, slot);
+                if (BucketTable.isTree(table.kinds[slot])) {
+                    recordWrite(table, slot);
                 }
             }
         }
-        
-        // Criar AVL e inserir todas as transações
-        AVLTree<Transaction> avl = new AVLTree<>();
-        for (Transaction t : transactions) {
-            avl.insert(t);
-            assignments++;
+    }
+    
+    /**
+     * Reduz a estrutura de um bucket que encolheu: árvore com um único elemento
+     * volta a ser transação individual, Árvore B+ com menos da metade do limite
+     * volta a ser Rubro-Negra, bucket particionado com até metade do limite de
+     * particionamento volta a uma única árvore, Rubro-Negra pequena volta a ser AVL e AVL com até
+     * metade do limite do vetor ordenado volta a ser vetor ordenado. A margem
+     * evita trocar de estrutura a cada inserção e remoção alternadas no limite.
+     */
+    private void deEscalate(BucketTable table, int slot) {
+        BalancedTree<Transaction> tree = (BalancedTree<Transaction>) table.data[slot];
+        byte kind = table.kinds[slot];
+        if (tree.isEmpty()) {
+            setStructure(table, slot, BucketTable.TOMBSTONE, null);
+            tombstones++;
+            metrics.addAssignments(1);
+        } else if (tree.size() == 1) {
+            setStructure(table, slot, BucketTable.TRANSACTION, tree.iterator().next());
+            metrics.addAssignments(1);
+        } else if (kind == BucketTable.AVL_TREE && tree.size() <= policy.getSmallBucketThreshold() / 2) {
+            SortedArrayBucket<Transaction> array = new SortedArrayBucket<>(policy.getSmallBucketThreshold());
+            tree.inOrderTraversal(array::insert);
+            setStructure(table, slot, BucketTable.SORTED_ARRAY, array);
+            metrics.addAssignments(array.size());
+        } else if (kind == BucketTable.RED_BLACK_TREE && tree.size() <= policy.rbToAvlSize()) {
+            AVLTree<Transaction> avl = new AVLTree<>();
+            tree.inOrderTraversal(avl::insert);
+            setStructure(table, slot, BucketTable.AVL_TREE, avl);
+            metrics.addAssignments(avl.size());
+        } else if (kind == BucketTable.BPLUS_TREE && tree.size() <= policy.getBPlusTreeThreshold() / 2) {
+            RedBlackTree<Transaction> rb = new RedBlackTree<>();
+            tree.inOrderTraversal(rb::insert);
+            setStructure(table, slot, BucketTable.RED_BLACK_TREE, rb);
+            metrics.addAssignments(rb.size());
+        } else if (kind == BucketTable.PARTITIONED && tree.size() <= policy.getPartitionThreshold() / 2) {
+            boolean large = tree.size() > policy.getBPlusTreeThreshold();
+            BalancedTree<Transaction> single = large ? new BPlusTree<>() : new RedBlackTree<>();
+            tree.inOrderTraversal(single::insert);
+            setStructure(table, slot, large ? BucketTable.BPLUS_TREE : BucketTable.RED_BLACK_TREE, single);
+            metrics.addAssignments(single.size());
         }
+    }
+    
+    /**
+     * Troca a estrutura de um bucket, registrando a transição nas métricas
+     */
+    private void setStructure(BucketTable table, int slot, byte kind, Object data) {
+        metrics.recordTransition(BucketTable.name(table.kinds[slot]), BucketTable.name(kind));
+        table.kinds[slot] = kind;
+        table.data[slot] = data;
+    }
+    
+    /**
+     * Migra a transação individual de uma posição para um vetor ordenado
+     */
+    private void migrateToSortedArray(BucketTable table, int slot) {
+        SortedArrayBucket<Transaction> array = new SortedArrayBucket<>();
+        array.insert((Transaction) table.data[slot]);
+        metrics.addAssignments(1);
         
-        // Colocar AVL no índice base
-        int index = hash(origem);
-        table[index].type = EntryType.AVL_TREE;
-        table[index].data = avl;
-        assignments++;
-    }
-    
-    /**
-     * Verifica se uma árvore é da origem correta
-     */
-    private boolean isCorrectOrigemTree(TableEntry entry, String origem) {
-        // Para verificar, precisamos olhar qualquer elemento da árvore
-        if (entry.type == EntryType.AVL_TREE) {
-            AVLTree<Transaction> avl = (AVLTree<Transaction>) entry.data;
-            if (!avl.isEmpty()) {
-                // Usar o primeiro elemento encontrado para verificar
-                final boolean[] found = {false};
-                avl.inOrderTraversal(t -> {
-                    if (!found[0]) {
-                        found[0] = t.getOrigem().equals(origem);
-                    }
-                });
-                return found[0];
-            }
-        } else if (entry.type == EntryType.RED_BLACK_TREE) {
-            RedBlackTree<Transaction> rb = (RedBlackTree<Transaction>) entry.data;
-            if (!rb.isEmpty()) {
-                final boolean[] found = {false};
-                rb.inOrderTraversal(t -> {
-                    if (!found[0]) {
-                        found[0] = t.getOrigem().equals(origem);
-                    }
-                });
-                return found[0];
-            }
+        setStructure(table, slot, BucketTable.SORTED_ARRAY, array);
+        metrics.addAssignments(1);
+    }
+    
+    /**
+     * Verifica o tamanho do vetor ordenado e converte para AVL se necessário
+     */
+    private void checkSortedArraySize(BucketTable table, int slot) {
+        SortedArrayBucket<Transaction> array = (SortedArrayBucket<Transaction>) table.data[slot];
+        if (array.size() > policy.getSmallBucketThreshold()) {
+            AVLTree<Transaction> avl = new AVLTree<>();
+            array.inOrderTraversal(avl::insert);
+            setStructure(table, slot, BucketTable.AVL_TREE, avl);
+            metrics.addAssignments(avl.size());
+            checkAVLHeight(table, slot);
         }
-        return false;
     }
     
     /**
      * Insere uma transação em uma árvore
      */
-    private void insertIntoTree(TableEntry entry, Transaction transaction) {
-        if (entry.type == EntryType.AVL_TREE) {
-            AVLTree<Transaction> avl = (AVLTree<Transaction>) entry.data;
-            avl.insert(transaction);
-            assignments++;
-        } else if (entry.type == EntryType.RED_BLACK_TREE) {
-            RedBlackTree<Transaction> rb = (RedBlackTree<Transaction>) entry.data;
-            rb.insert(transaction);
-            assignments++;
+    private void insertIntoTree(BucketTable table, int slot, Transaction transaction) {
+        if (BucketTable.isTree(table.kinds[slot])) {
+            BalancedTree<Transaction> tree = (BalancedTree<Transaction>) table.data[slot];
+            tree.insert(transaction);
+            metrics.addAssignments(1);
         }
     }
     
     /**
      * Verifica altura da AVL e converte para Rubro-Negra se necessário
      */
-    private void checkAVLHeight(int index) {
-        TableEntry entry = table[index];
-        if (entry.type == EntryType.AVL_TREE) {
-            AVLTree<Transaction> avl = (AVLTree<Transaction>) entry.data;
-            if (avl.getHeight() > MAX_AVL_HEIGHT) {
+    private void checkAVLHeight(BucketTable table, int slot) {
+        if (table.kinds[slot] == BucketTable.AVL_TREE) {
+            AVLTree<Transaction> avl = (AVLTree<Transaction>) table.data[slot];
+            // Buckets dominados por leitura toleram uma AVL mais alta (política adaptativa)
+            if (avl.getHeight() > policy.avlHeightLimit(table.reads(slot), table.writes(slot))) {
                 // Converter para Rubro-Negra
                 RedBlackTree<Transaction> rb = new RedBlackTree<>();
                 avl.inOrderTraversal(rb::insert);
-                entry.type = EntryType.RED_BLACK_TREE;
-                entry.data = rb;
-                assignments++;
+                setStructure(table, slot, BucketTable.RED_BLACK_TREE, rb);
+                metrics.addAssignments(1);
+            }
+        }
+    }
+    
+    /**
+     * Conta uma busca no bucket (apenas com a política adaptativa ligada)
+     */
+    private void recordRead(BucketTable table, int slot) {
+        if (policy.isAdaptive()) {
+            table.countRead(slot);
+            adapt(table, slot);
+        }
+    }
+    
+    /**
+     * Conta uma inserção ou remoção no bucket (apenas com a política adaptativa ligada)
+     */
+    private void recordWrite(BucketTable table, int slot) {
+        if (policy.isAdaptive()) {
+            table.countWrite(slot);
+            adapt(table, slot);
+        }
+    }
+    
+    /**
+     * Reavalia a estrutura do bucket a cada intervalo de operações da política
+     * adaptativa: AVL alta que passou a receber mais escritas vira Rubro-Negra,
+     * e Rubro-Negra que passou a ser dominada por leituras volta a ser AVL se
+     * a AVL reconstruída couber na altura permitida. Os contadores são reduzidos
+     * à metade a cada reavaliação, para que o uso recente pese mais.
+     */
+    private void adapt(BucketTable table, int slot) {
+        int reads = table.reads(slot), writes = table.writes(slot);
+        if (reads + writes < policy.getEvaluationInterval()) {
+            return;
+        }
+        boolean readHeavy = policy.isReadHeavy(reads, writes);
+        table.decayCounters(slot);
+        
+        if (table.kinds[slot] == BucketTable.AVL_TREE && !readHeavy) {
+            AVLTree<Transaction> avl = (AVLTree<Transaction>) table.data[slot];
+            if (avl.getHeight() > policy.getMaxAvlHeight()) {
+                RedBlackTree<Transaction> rb = new RedBlackTree<>();
+                avl.inOrderTraversal(rb::insert);
+                setStructure(table, slot, BucketTable.RED_BLACK_TREE, rb);
+                metrics.addAssignments(rb.size());
+                adaptiveSwitches++;
+            }
+        } else if (table.kinds[slot] == BucketTable.RED_BLACK_TREE && readHeavy) {
+            RedBlackTree<Transaction> rb = (RedBlackTree<Transaction>) table.data[slot];
+            // Inserida em ordem, a AVL fica com altura de cerca de log2(n) + 1
+            if (rb.size() < 1 << (policy.getReadHeavyAvlHeight() - 1)) {
+                AVLTree<Transaction> avl = new AVLTree<>();
+                rb.inOrderTraversal(avl::insert);
+                setStructure(table, slot, BucketTable.AVL_TREE, avl);
+                metrics.addAssignments(avl.size());
+                adaptiveSwitches++;
             }
         }
     }
     
     /**
-     * Busca transações por origem dentro de um intervalo de tempo
+     * Verifica o tamanho da Rubro-Negra e converte para Árvore B+ se necessário.
+     * Buckets muito grandes ficam em folhas largas e contíguas, que as buscas por
+     * intervalo percorrem sem seguir um ponteiro por elemento.
+     */
+    private void checkRBSize(BucketTable table, int slot) {
+        RedBlackTree<Transaction> rb = (RedBlackTree<Transaction>) table.data[slot];
+        if (rb.size() > policy.getBPlusTreeThreshold()) {
+            BPlusTree<Transaction> bplus = new BPlusTree<>();
+            rb.inOrderTraversal(bplus::insert);
+            setStructure(table, slot, BucketTable.BPLUS_TREE, bplus);
+            metrics.addAssignments(bplus.size());
+        }
+    }
+    
+    /**
+     * Divide em partições de tempo o bucket que passou do limite de
+     * particionamento da política, qualquer que seja a estrutura atual
+     */
+    private void checkPartitionSize(BucketTable table, int slot) {
+        byte kind = table.kinds[slot];
+        if (!BucketTable.isTree(kind) || kind == BucketTable.PARTITIONED) {
+            return;
+        }
+        BalancedTree<Transaction> tree = (BalancedTree<Transaction>) table.data[slot];
+        if (tree.size() > policy.getPartitionThreshold()) {
+            TimePartitionedBucket partitioned = new TimePartitionedBucket(policy);
+            tree.inOrderTraversal(partitioned::insert);
+            setStructure(table, slot, BucketTable.PARTITIONED, partitioned);
+            metrics.addAssignments(partitioned.size());
+        }
+    }
+    
+    /**
+     * Busca transações por origem dentro de um intervalo de tempo.
+     * A lista devolvida é imutável; com o cache de buscas ligado, pode ser a
+     * mesma de uma busca anterior com os mesmos argumentos.
      */
     public List<Transaction> search(String origem, String startDate, String endDate) {
+        if (searchCache == null) {
+            return searchByKey(table, origem, Transaction::getOrigem, startDate, endDate);
+        }
+        long start = metrics.startTimer();
+        List<Transaction> cached = searchCache.get(origem, startDate, endDate);
+        if (cached != null) {
+            metrics.recordLatency(IndexMetrics.Operation.SEARCH, start);
+            return cached;
+        }
+        List<Transaction> result = searchByKey(table, origem, Transaction::getOrigem, startDate, endDate);
+        searchCache.put(origem, startDate, endDate, result);
+        return result;
+    }
+    
+    /**
+     * Liga o cache dos resultados de search(). O limite é em transações
+     * referenciadas pelos resultados guardados; os menos usados recentemente
+     * saem primeiro e resultados maiores que 1/4 do limite não são guardados.
+     * Cada escrita (inserção, remoção, atualização ou descarte) invalida só os
+     * resultados da origem afetada. As taxas de acerto aparecem em getStatistics().
+     * @param maxTransactions Limite do cache (0 desliga e descarta o cache)
+     */
+    public void setSearchCache(long maxTransactions) {
+        if (maxTransactions < 0) {
+            throw new IllegalArgumentException("Limite do cache de buscas não pode ser negativo: " + maxTransactions);
+        }
+        searchCache = maxTransactions == 0 ? null : new SearchCache(maxTransactions);
+    }
+    
+    /**
+     * Limite do cache de buscas em transações (0 = desligado)
+     */
+    public long getSearchCacheLimit() {
+        return searchCache == null ? 0 : searchCache.getMaxTransactions();
+    }
+    
+    /**
+     * Pool das buscas paralelas (por padrão o pool comum). Só é usado quando o
+     * intervalo cobre pelo menos parallelScanThreshold transações de um bucket
+     * (ver EscalationPolicy).
+     */
+    public void setScanPool(ForkJoinPool scanPool) {
+        if (scanPool == null) {
+            throw new IllegalArgumentException("Pool das buscas paralelas não pode ser null");
+        }
+        this.scanPool = scanPool;
+    }
+    
+    public ForkJoinPool getScanPool() {
+        return scanPool;
+    }
+    
+    /**
+     * Busca transações recebidas por um destino dentro de um intervalo de tempo
+     * (lista imutável)
+     * @throws IllegalStateException se o índice por destino não foi habilitado
+     */
+    public List<Transaction> searchByDestino(String destino, String startDate, String endDate) {
+        if (destinoTable == null) {
+            throw new IllegalStateException("Índice por destino não está habilitado");
+        }
+        return searchByKey(destinoTable, destino, Transaction::getDestino, startDate, endDate);
+    }
+    
+    /**
+     * Busca transferências de uma origem para um destino dentro de um intervalo
+     * de tempo. Cada par tem seu próprio bucket ordenado por timestamp, então o
+     * custo é O(log n + k) em vez de percorrer todas as transações da origem.
+     * A lista devolvida é imutável.
+     * @throws IllegalStateException se o índice por (origem, destino) não foi habilitado
+     */
+    public List<Transaction> searchByOrigemDestino(String origem, String destino,
+                                                   String startDate, String endDate) {
+        if (pairTable == null) {
+            throw new IllegalStateException("Índice por (origem, destino) não está habilitado");
+        }
+        return searchByKey(pairTable, pairKey(origem, destino), HybridHashTable::pairKey,
+                           startDate, endDate);
+    }
+    
+    /**
+     * Busca transações por origem dentro de um intervalo de tempo, sob demanda.
+     * Nada é copiado: cada next() avança o cursor da árvore do bucket, então
+     * parar de consumir o iterador encerra a busca.
+     * @param startDate Início do intervalo (null = sem limite inferior)
+     * @param endDate Fim do intervalo (null = sem limite superior)
+     * @param newestFirst true para percorrer do mais recente para o mais antigo
+     */
+    public Iterator<Transaction> searchIterator(String origem, String startDate, String endDate,
+                                                boolean newestFirst) {
+        return openCursor(table, origem, Transaction::getOrigem,
+                          startDate, endDate, null, newestFirst);
+    }
+    
+    /**
+     * Busca transações por origem dentro de um intervalo de tempo como Stream
+     * ordenado por timestamp. Operações como limit() e findFirst() encerram a
+     * travessia da árvore assim que satisfeitas.
+     */
+    public Stream<Transaction> searchStream(String origem, String startDate, String endDate) {
+        Iterator<Transaction> cursor = searchIterator(origem, startDate, endDate, false);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor,
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL), false);
+    }
+    
+    /**
+     * Busca uma página de transações por origem (paginação por chave).
+     * A página seguinte começa logo depois de "after", sem reler as anteriores:
+     * o custo de cada página é O(log n + limit), independente da sua posição.
+     * @param after Última transação da página anterior (null para a primeira)
+     * @param limit Número máximo de transações na página
+     * @param newestFirst true para paginar do mais recente para o mais antigo
+     */
+    public SearchPage searchPage(String origem, String startDate, String endDate,
+                                 Transaction after, int limit, boolean newestFirst) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limite da página deve ser positivo: " + limit);
+        }
+        long start = metrics.startTimer();
+        Iterator<Transaction> cursor = openCursor(table, origem, Transaction::getOrigem,
+                                                  startDate, endDate, after, newestFirst);
+        List<Transaction> items = new ArrayList<>(Math.min(limit, 64));
+        while (items.size() < limit && cursor.hasNext()) {
+            items.add(cursor.next());
+        }
+        // hasNext() já leu o elemento seguinte, se existir: basta ele para saber se há mais
+        Transaction nextAfter = cursor.hasNext() ? items.get(items.size() - 1) : null;
+        metrics.recordLatency(IndexMetrics.Operation.SEARCH, start);
+        return new SearchPage(items, nextAfter);
+    }
+    
+    /**
+     * As transações mais recentes de uma origem, da mais nova para a mais antiga.
+     * Visita apenas o caminho até o maior elemento e os limit elementos seguintes.
+     */
+    public List<Transaction> latest(String origem, int limit) {
+        return searchPage(origem, null, null, null, limit, true).getItems();
+    }
+    
+    /**
+     * Busca transações de uma chave dentro de um intervalo de tempo.
+     * Buckets com pelo menos parallelScanThreshold transações contam os
+     * elementos do intervalo e, se ainda forem pelo menos o limite, são
+     * coletados em paralelo (ver collectParallel).
+     * @return Lista imutável, nos dois caminhos, para que o resultado possa
+     *         ser guardado pelo cache de buscas sem cópia
+     */
+    @SuppressWarnings("unchecked")
+    private List<Transaction> searchByKey(BucketTable table, String key,
+                                          Function<Transaction, String> keyOf,
+                                          String startDate, String endDate) {
+        long start = metrics.startTimer();
+        int slot = findBucket(table, key, keyOf);
+        if (slot >= 0 && table.kinds[slot] != BucketTable.TRANSACTION
+                && ((BalancedTree<Transaction>) table.data[slot]).size() >= policy.getParallelScanThreshold()) {
+            List<Transaction> result = collectParallel(table, slot,
+                startDate == null ? null : Transaction.lowerBound(startDate),
+                endDate == null ? null : Transaction.upperBound(endDate));
+            if (result != null) {
+                recordRead(table, slot);
+                metrics.recordLatency(IndexMetrics.Operation.SEARCH, start);
+                return Collections.unmodifiableList(result);
+            }
+        }
         List<Transaction> result = new ArrayList<>();
-        int baseIndex = hash(origem);
+        Iterator<Transaction> cursor = openCursorAt(table, slot, startDate, endDate, null, false);
+        while (cursor.hasNext()) {
+            result.add(cursor.next());
+        }
+        metrics.recordLatency(IndexMetrics.Operation.SEARCH, start);
+        return Collections.unmodifiableList(result);
+    }
+    
+    /**
+     * Coleta paralela de um bucket grande. A Rubro-Negra conta os nós do
+     * intervalo pelas contagens das subárvores e divide a própria árvore; a
+     * Árvore B+ e o bucket particionado descrevem o intervalo como trechos
+     * contíguos (sequências de folhas, uma ou mais por partição), copiados por
+     * tarefas do scanPool para um único vetor. Intervalos abaixo do limite são
+     * copiados dos mesmos trechos na própria thread.
+     * @return Resultado, ou null se o tipo do bucket não tem coleta paralela
+     */
+    @SuppressWarnings("unchecked")
+    private List<Transaction> collectParallel(BucketTable table, int slot, Transaction from, Transaction to) {
+        int threshold = policy.getParallelScanThreshold();
+        RangeCollector<Transaction> collector = new RangeCollector<>(threshold);
+        switch (table.kinds[slot]) {
+            case BucketTable.RED_BLACK_TREE:
+                return ((RedBlackTree<Transaction>) table.data[slot]).rangeCollect(
+                    from, to, threshold, scanPool, metrics::addComparisons);
+            case BucketTable.BPLUS_TREE:
+                ((BPlusTree<Transaction>) table.data[slot]).addRangeChunks(from, to, collector);
+                break;
+            case BucketTable.PARTITIONED:
+                ((TimePartitionedBucket) table.data[slot]).addRangeChunks(from, to, collector);
+                break;
+            default:
+                return null;
+        }
+        List<Transaction> items = collector.collect(collector.total() >= threshold ? scanPool : null);
+        metrics.addComparisons(collector.comparisons());
+        return items;
+    }
+    
+    /**
+     * Localiza a posição que guarda a chave (transação única ou árvore)
+     * @return A posição da chave, ou -1 se ela não estiver na tabela
+     */
+    private int findBucket(BucketTable table, String key, Function<Transaction, String> keyOf) {
+        int keyHash = hashStrategy.hash(key);
+        if (!table.mightContain(keyHash)) {
+            // Chave ausente segundo o filtro: nenhuma posição é visitada
+            metrics.countFilterRejection();
+            return -1;
+        }
+        int mask = capacity - 1;
+        int slot = keyHash & mask;
         
         // Procurar com sondagem quadrática
-        for (int i = 0; i <= MAX_QUADRATIC_PROBES; i++) {
-            int index = (baseIndex + i * i) % capacity;
-            TableEntry entry = table[index];
-            
-            comparisons++;
-            
-            if (entry.type == EntryType.EMPTY) {
-                continue;
-            } else if (entry.type == EntryType.TRANSACTION) {
-                Transaction t = (Transaction) entry.data;
-                if (t.getOrigem().equals(origem) && 
-                    isInTimeRange(t.getTimestamp(), startDate, endDate)) {
-                    result.add(t);
-                }
-            } else if (entry.type == EntryType.AVL_TREE || entry.type == EntryType.RED_BLACK_TREE) {
-                if (isCorrectOrigemTree(entry, origem)) {
-                    collectFromTree(entry, result, startDate, endDate);
-                }
+        for (int i = 1; i <= capacity; i++) {
+            if (table.kinds[slot] == BucketTable.EMPTY) {
+                // A chave nunca é inserida depois de uma posição vazia
+                countProbes(i);
+                return -1;
+            } else if (isKeyAt(table, slot, key, keyHash, keyOf)) {
+                countProbes(i);
+                return slot;
             }
+            slot = (slot + i) & mask;
         }
-        
-        return result;
+        countProbes(capacity);
+        return -1;
     }
     
     /**
-     * Coleta transações de uma árvore dentro do intervalo de tempo
+     * Conta as posições visitadas por uma sondagem nos índices por chave
      */
-    private void collectFromTree(TableEntry entry, List<Transaction> result, 
-                                String startDate, String endDate) {
-        if (entry.type == EntryType.AVL_TREE) {
-            AVLTree<Transaction> avl = (AVLTree<Transaction>) entry.data;
-            avl.inOrderTraversal(t -> {
-                if (isInTimeRange(t.getTimestamp(), startDate, endDate)) {
-                    result.add(t);
-                    comparisons++;
-                }
-            });
-        } else if (entry.type == EntryType.RED_BLACK_TREE) {
-            RedBlackTree<Transaction> rb = (RedBlackTree<Transaction>) entry.data;
-            rb.inOrderTraversal(t -> {
-                if (isInTimeRange(t.getTimestamp(), startDate, endDate)) {
-                    result.add(t);
-                    comparisons++;
-                }
-            });
-        }
+    private void countProbes(int probes) {
+        metrics.addComparisons(probes);
+        metrics.recordProbeLength(probes);
     }
     
     /**
-     * Verifica se um timestamp está dentro do intervalo
+     * Abre um cursor sobre as transações de uma chave dentro do intervalo.
+     * O cursor da árvore é posicionado no início do intervalo (ou logo depois
+     * de "after") e o percurso para no primeiro elemento fora do intervalo.
      */
-    private boolean isInTimeRange(String timestamp, String startDate, String endDate) {
-        comparisons += 2;
-        return timestamp.compareTo(startDate) >= 0 && timestamp.compareTo(endDate) <= 0;
+    private Iterator<Transaction> openCursor(BucketTable table, String key,
+                                             Function<Transaction, String> keyOf,
+                                             String startDate, String endDate,
+                                             Transaction after, boolean descending) {
+        return openCursorAt(table, findBucket(table, key, keyOf), startDate, endDate, after, descending);
+    }
+    
+    /**
+     * Abre o cursor sobre o bucket de uma posição já localizada por findBucket
+     * @param slot Posição do bucket, ou -1 para um cursor vazio
+     */
+    @SuppressWarnings("unchecked")
+    private Iterator<Transaction> openCursorAt(BucketTable table, int slot,
+                                               String startDate, String endDate,
+                                               Transaction after, boolean descending) {
+        if (slot < 0) {
+            return Collections.emptyIterator();
+        }
+        if (BucketTable.isTree(table.kinds[slot])) {
+            recordRead(table, slot);
+        }
+        
+        // As árvores são ordenadas por timestamp (Transaction.compareTo)
+        Transaction lower = startDate == null ? null : Transaction.lowerBound(startDate);
+        Transaction upper = endDate == null ? null : Transaction.upperBound(endDate);
+        Transaction from = descending ? upper : lower;
+        Transaction to = descending ? lower : upper;
+        if (after != null && (from == null || (descending ? after.compareTo(from) < 0
+                                                          : after.compareTo(from) > 0))) {
+            from = after;
+        }
+        
+        Iterator<Transaction> source;
+        if (table.kinds[slot] == BucketTable.TRANSACTION) {
+            Transaction t = (Transaction) table.data[slot];
+            metrics.addComparisons(1);
+            boolean started = from == null || (descending ? t.compareTo(from) <= 0
+                                                          : t.compareTo(from) >= 0);
+            source = started ? Collections.singletonList(t).iterator()
+                             : Collections.<Transaction>emptyIterator();
+        } else {
+            BalancedTree<Transaction> tree = (BalancedTree<Transaction>) table.data[slot];
+            if (descending) {
+                source = from == null ? tree.descendingIterator() : tree.descendingIterator(from);
+            } else {
+                source = from == null ? tree.iterator() : tree.iterator(from);
+            }
+        }
+        return new RangeCursor(source, to, after, descending);
     }
     
     /**
-     * Função hash simples
+     * Iterador que consome o cursor de um bucket até o fim do intervalo.
+     * Lê um elemento à frente para que hasNext() saiba se ele ainda está no
+     * intervalo; o elemento igual a "after" (a última transação da página
+     * anterior) é pulado.
      */
-    private int hash(String key) {
-        return Math.abs(key.hashCode()) % capacity;
+    private class RangeCursor implements Iterator<Transaction> {
+        private final Iterator<Transaction> source;
+        private final Transaction bound;      // null = até o fim do bucket
+        private final boolean descending;
+        private Transaction nextItem;
+        
+        RangeCursor(Iterator<Transaction> source, Transaction bound,
+                    Transaction after, boolean descending) {
+            this.source = source;
+            this.bound = bound;
+            this.descending = descending;
+            advance();
+            if (after != null && nextItem != null && nextItem.compareTo(after) == 0) {
+                advance();
+            }
+        }
+        
+        private void advance() {
+            nextItem = null;
+            if (source.hasNext()) {
+                Transaction t = source.next();
+                metrics.addComparisons(1);
+                int cmp = bound == null ? 0 : t.compareTo(bound);
+                if (descending ? cmp >= 0 : cmp <= 0) {
+                    nextItem = t;
+                }
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return nextItem != null;
+        }
+        
+        @Override
+        public Transaction next() {
+            if (nextItem == null) {
+                throw new NoSuchElementException();
+            }
+            Transaction t = nextItem;
+            advance();
+            return t;
+        }
     }
     
     /**
-     * Redimensiona a tabela
+     * Redimensiona a tabela.
+     * Os buckets dos índices por chave são movidos inteiros, com a estrutura e os
+     * contadores da política adaptativa, sem re-inserir transações; só o
+     * encadeamento por id é redistribuído.
      */
     private void resize(int newCapacity) {
-        TableEntry[] oldTable = table;
-        table = new TableEntry[newCapacity];
-        for (int i = 0; i < newCapacity; i++) {
-            table[i] = new TableEntry();
+        if (newCapacity <= 0 || newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Capacidade máxima da tabela atingida");
         }
+        long start = System.nanoTime();
+        BucketTable oldTable = table;
+        BucketTable oldDestinoTable = destinoTable;
+        BucketTable oldPairTable = pairTable;
         
-        int oldCapacity = capacity;
         capacity = newCapacity;
-        size = 0;
+        table = newKeyTable(oldTable, newCapacity);
+        destinoTable = newKeyTable(oldDestinoTable, newCapacity);
+        pairTable = newKeyTable(oldPairTable, newCapacity);
+        moveBuckets(oldTable, table);
+        if (oldDestinoTable != null) {
+            moveBuckets(oldDestinoTable, destinoTable);
+        }
+        if (oldPairTable != null) {
+            moveBuckets(oldPairTable, pairTable);
+        }
+        tombstones = 0;
         
-        // Re-inserir todos os elementos
-        for (int i = 0; i < oldCapacity; i++) {
-            TableEntry entry = oldTable[i];
-            if (entry.type == EntryType.TRANSACTION) {
-                put((Transaction) entry.data);
-            } else if (entry.type == EntryType.LINKED_LIST) {
-                @SuppressWarnings("unchecked")
-                LinkedList<Transaction> list = (LinkedList<Transaction>) entry.data;
-                for (Transaction t : list) {
-                    put(t);
-                }
-            } else if (entry.type == EntryType.AVL_TREE) {
-                AVLTree<Transaction> avl = (AVLTree<Transaction>) entry.data;
-                avl.inOrderTraversal(this::put);
-            } else if (entry.type == EntryType.RED_BLACK_TREE) {
-                RedBlackTree<Transaction> rb = (RedBlackTree<Transaction>) entry.data;
-                rb.inOrderTraversal(this::put);
+        // Os índices por id em HashLinearTrial e RowIdIndex se redimensionam sozinhos
+        if (idChains != null) {
+            idChains.resize(capacity);
+            metrics.addAssignments(idChains.size());
+        }
+        metrics.recordResize(System.nanoTime() - start);
+    }
+    
+    /**
+     * Índice por chave vazio para receber os buckets de outro no redimensionamento.
+     * O filtro de chaves nasce dimensionado pelas chaves do filtro anterior (um
+     * limite superior das chaves movidas), então não é reconstruído durante a cópia.
+     * @return A nova tabela, ou null se o índice estiver desabilitado
+     */
+    private BucketTable newKeyTable(BucketTable old, int newCapacity) {
+        return old == null ? null : new BucketTable(newCapacity, old.isFiltered(), old.filterKeys());
+    }
+    
+    /**
+     * Move cada bucket ocupado para a primeira posição vazia da sua sequência
+     * de sondagem na nova tabela. As chaves são distintas, então não há o que
+     * procurar além dela, e a nova capacidade comporta todas pelo fator de carga.
+     * A posição vem do hash guardado com o bucket, sem recalcular o da chave.
+     */
+    private void moveBuckets(BucketTable from, BucketTable to) {
+        int mask = capacity - 1;
+        for (int slot = 0; slot < from.capacity(); slot++) {
+            if (!BucketTable.isOccupied(from.kinds[slot])) {
+                continue;
+            }
+            int target = from.hashes[slot] & mask;
+            for (int i = 1; to.kinds[target] != BucketTable.EMPTY; i++) {
+                metrics.addComparisons(1);
+                target = (target + i) & mask;
             }
+            metrics.addComparisons(1);
+            to.copy(from, slot, target);
+            metrics.addAssignments(1);
         }
     }
     
     // Métodos para análise de desempenho
     public long getComparisons() {
-        return comparisons;
+        return metrics.getComparisons();
     }
     
     public long getAssignments() {
-        return assignments;
+        return metrics.getAssignments();
     }
     
+    /**
+     * Zera comparações e atribuições (as demais métricas continuam acumulando)
+     */
     public void resetCounters() {
-        comparisons = 0;
-        assignments = 0;
+        metrics.resetCounters();
+    }
+    
+    /**
+     * Registro de métricas da tabela: sondagens, trocas de estrutura,
+     * redimensionamentos e latências; registerMBean() o expõe por JMX
+     */
+    public IndexMetrics getMetrics() {
+        return metrics;
     }
     
     public int getSize() {
@@ -418,32 +1289,529 @@ public class HybridHashTable {
         return capacity;
     }
     
+    public int getTombstones() {
+        return tombstones;
+    }
+    
+    public int getBPlusTreeThreshold() {
+        return policy.getBPlusTreeThreshold();
+    }
+    
+    /**
+     * Define a partir de quantos elementos um bucket Rubro-Negra vira Árvore B+.
+     * Buckets existentes são ajustados na próxima inserção ou remoção.
+     * @param bPlusTreeThreshold Limite de tamanho (Integer.MAX_VALUE desabilita o nível B+)
+     */
+    public void setBPlusTreeThreshold(int bPlusTreeThreshold) {
+        policy.setBPlusTreeThreshold(bPlusTreeThreshold);
+    }
+    
+    /**
+     * Política de escalonamento em uso. Alterações nos limites de altura,
+     * tamanho e adaptação valem para as próximas decisões.
+     */
+    public EscalationPolicy getEscalationPolicy() {
+        return policy;
+    }
+    
+    public long getAdaptiveSwitches() {
+        return adaptiveSwitches;
+    }
+    
+    public boolean isDestinoIndexed() {
+        return destinoTable != null;
+    }
+    
+    public boolean isPairIndexed() {
+        return pairTable != null;
+    }
+    
+    public HashStrategy getHashStrategy() {
+        return hashStrategy;
+    }
+    
+    public IdIndex getIdIndex() {
+        if (idMap != null) {
+            return IdIndex.ROBIN_HOOD;
+        }
+        return idRows != null ? IdIndex.PRIMITIVE : IdIndex.CHAINING;
+    }
+    
     /**
      * Imprime estatísticas da tabela para debug
      */
     public void printStatistics() {
-        int empty = 0, transactions = 0, lists = 0, avls = 0, rbs = 0;
+        System.out.println(getStatistics());
+    }
+    
+    /**
+     * Retrato da estrutura da tabela com os 10 maiores buckets de cada índice
+     */
+    public IndexStatistics getStatistics() {
+        return getStatistics(LARGEST_BUCKETS);
+    }
+    
+    /**
+     * Retrato da estrutura da tabela: estruturas, tamanhos, alturas e sondagens
+     * dos buckets de cada índice por chave e a memória estimada por estrutura.
+     * Percorre todas as posições e calcula a altura de cada árvore, então é
+     * O(capacidade + buckets), mais O(n) para as alturas das Rubro-Negras.
+     * @param largestBuckets Quantos dos maiores buckets listar por índice
+     */
+    public IndexStatistics getStatistics(int largestBuckets) {
+        if (largestBuckets < 0) {
+            throw new IllegalArgumentException("Número de buckets não pode ser negativo: " + largestBuckets);
+        }
+        int idCapacity, idMaxProbeLength = 0;
+        if (idMap != null) {
+            idCapacity = idMap.capacity();
+            idMaxProbeLength = idMap.maxProbeLength();
+        } else if (idRows != null) {
+            idCapacity = idRows.capacity();
+            idMaxProbeLength = idRows.maxProbeLength();
+        } else {
+            idCapacity = idChains.capacity();
+            idMaxProbeLength = idChains.maxChainLength();
+        }
         
-        for (TableEntry entry : table) {
-            switch (entry.type) {
-                case EMPTY: empty++; break;
-                case TRANSACTION: transactions++; break;
-                case LINKED_LIST: lists++; break;
-                case AVL_TREE: avls++; break;
-                case RED_BLACK_TREE: rbs++; break;
+        IndexStatistics stats = new IndexStatistics(capacity, size, tombstones, getIdIndex().name(),
+                                                    idCapacity, idMaxProbeLength);
+        stats.addKeyIndex(keyIndexStatistics("origem", table, Transaction::getOrigem, largestBuckets));
+        if (destinoTable != null) {
+            stats.addKeyIndex(keyIndexStatistics("destino", destinoTable, Transaction::getDestino, largestBuckets));
+        }
+        if (pairTable != null) {
+            stats.addKeyIndex(keyIndexStatistics("(origem, destino)", pairTable, HybridHashTable::pairKey,
+                                                 largestBuckets));
+        }
+        estimateBytes(stats::addBytes);
+        stats.setCounters(getComparisons(), getAssignments(), metrics.getResizeCount(),
+                          metrics.getResizeTotalMillis(), adaptiveSwitches, memoryBudget);
+        stats.setRetention(watermark, evicted);
+        if (searchCache != null) {
+            stats.setSearchCache(searchCache.getMaxTransactions(), searchCache.size(),
+                                 searchCache.cachedTransactions(), searchCache.getHits(),
+                                 searchCache.getMisses(), searchCache.getInvalidations(),
+                                 searchCache.getEvictions());
+        }
+        return stats;
+    }
+    
+    private IndexStatistics.KeyIndexStatistics keyIndexStatistics(String name, BucketTable table,
+                                                                  Function<Transaction, String> keyOf,
+                                                                  int largestBuckets) {
+        IndexStatistics.KeyIndexStatistics stats = new IndexStatistics.KeyIndexStatistics(name, largestBuckets);
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            byte kind = table.kinds[slot];
+            if (!BucketTable.isOccupied(kind)) {
+                stats.addSlot(BucketTable.name(kind));
+                continue;
             }
+            String key = bucketKey(table, slot, keyOf);
+            int bucketSize = 1, height = 0;
+            if (BucketTable.isTree(kind)) {
+                BalancedTree<Transaction> tree = (BalancedTree<Transaction>) table.data[slot];
+                bucketSize = tree.size();
+                height = tree.getHeight();
+                if (kind == BucketTable.PARTITIONED) {
+                    TimePartitionedBucket partitioned = (TimePartitionedBucket) tree;
+                    stats.addPartitions(partitioned.partitionCount(), partitioned.frozenCount());
+                }
+            }
+            stats.addBucket(key.replace(PAIR_SEPARATOR, '→'), BucketTable.name(kind), bucketSize, height,
+                            probeLength(slot, table.hashes[slot]));
         }
-        
-        System.out.println("=== Estatísticas da Tabela Hash Híbrida ===");
-        System.out.println("Capacidade: " + capacity);
-        System.out.println("Tamanho: " + size);
-        System.out.println("Fator de carga: " + String.format("%.2f", (double)size/capacity));
-        System.out.println("Posições vazias: " + empty);
-        System.out.println("Transações individuais: " + transactions);
-        System.out.println("Listas encadeadas: " + lists);
-        System.out.println("Árvores AVL: " + avls);
-        System.out.println("Árvores Rubro-Negras: " + rbs);
-        System.out.println("Comparações totais: " + comparisons);
-        System.out.println("Atribuições totais: " + assignments);
+        return stats;
+    }
+    
+    /**
+     * Posições visitadas pela sondagem quadrática do hash até a posição index
+     */
+    private int probeLength(int index, int keyHash) {
+        int mask = capacity - 1;
+        int slot = keyHash & mask;
+        for (int i = 1; i < capacity; i++) {
+            if (slot == index) {
+                return i;
+            }
+            slot = (slot + i) & mask;
+        }
+        return capacity;
+    }
+    
+    /**
+     * Memória estimada de uma transação com suas strings
+     */
+    private static long transactionBytes(Transaction t) {
+        return HeapEstimate.object(4 * HeapEstimate.REFERENCE + 4)
+            + HeapEstimate.string(t.getId()) + HeapEstimate.string(t.getOrigem())
+            + HeapEstimate.string(t.getDestino()) + HeapEstimate.string(t.getTimestamp());
+    }
+    
+    /**
+     * Informa a memória estimada de cada estrutura: posições das tabelas,
+     * índice por id, buckets por tipo e transações.
+     * Percorre as posições sem visitar as transações (O(capacidade), mais os
+     * nós das Árvores B+)
+     */
+    private void estimateBytes(BiConsumer<String, Long> sink) {
+        for (BucketTable keyTable : new BucketTable[] {table, destinoTable, pairTable}) {
+            if (keyTable == null) {
+                continue;
+            }
+            sink.accept("TABLE_SLOTS", keyTable.estimatedBytes());
+            for (int slot = 0; slot < keyTable.capacity(); slot++) {
+                byte kind = keyTable.kinds[slot];
+                if (BucketTable.isTree(kind)) {
+                    sink.accept(BucketTable.name(kind), ((BalancedTree<Transaction>) keyTable.data[slot]).estimatedBytes());
+                }
+            }
+        }
+        if (idMap != null) {
+            sink.accept("ID_INDEX", idMap.estimatedBytes());
+        } else if (idRows != null) {
+            sink.accept("ID_INDEX", idRows.estimatedBytes());
+        } else {
+            sink.accept("ID_INDEX", idChains.estimatedBytes());
+        }
+        if (searchCache != null) {
+            sink.accept("SEARCH_CACHE", searchCache.estimatedBytes());
+        }
+        sink.accept("TRANSACTIONS", transactionBytes);
+    }
+    
+    /**
+     * Memória estimada da tabela inteira, transações incluídas (ver getStatistics()
+     * para o detalhamento por estrutura)
+     */
+    public long estimatedBytes() {
+        long[] total = new long[1];
+        estimateBytes((structure, bytes) -> total[0] += bytes);
+        return total[0];
+    }
+    
+    /**
+     * Define um orçamento de memória. A memória estimada é conferida a cada
+     * 1024 escritas (ou 1/8 do tamanho, o que for maior); ao passar do
+     * orçamento, ALERT chama o listener e COMPACT compacta a tabela antes,
+     * chamando o listener só se ela continuar acima. O listener é chamado uma
+     * vez a cada vez que o orçamento é excedido, não a cada conferência.
+     * @param maxBytes Orçamento em bytes (0 remove o orçamento)
+     * @param action Ação ao exceder
+     * @param listener Recebe as estatísticas da tabela; null para avisar em System.err
+     */
+    public void setMemoryBudget(long maxBytes, BudgetAction action, Consumer<IndexStatistics> listener) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Orçamento de memória não pode ser negativo: " + maxBytes);
+        }
+        if (action == null) {
+            throw new IllegalArgumentException("Ação do orçamento de memória não pode ser null");
+        }
+        this.memoryBudget = maxBytes;
+        this.budgetAction = action;
+        this.budgetListener = listener != null ? listener : stats -> System.err.println(
+            "Aviso: memória estimada da tabela (" + stats.getTotalEstimatedBytes()
+            + " bytes) excede o orçamento de " + stats.getMemoryBudget() + " bytes");
+        this.overBudget = false;
+        this.writesSinceBudgetCheck = 0;
+    }
+    
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+    
+    /**
+     * Confere o orçamento de memória a cada intervalo de escritas
+     */
+    private void checkMemoryBudget() {
+        if (memoryBudget == 0 || ++writesSinceBudgetCheck < Math.max(BUDGET_CHECK_INTERVAL, size >> 3)) {
+            return;
+        }
+        writesSinceBudgetCheck = 0;
+        long bytes = estimatedBytes();
+        if (bytes > memoryBudget && budgetAction == BudgetAction.COMPACT) {
+            bytes -= compact();
+        }
+        if (bytes <= memoryBudget) {
+            overBudget = false;
+        } else if (!overBudget) {
+            overBudget = true;
+            budgetListener.accept(getStatistics());
+        }
+    }
+    
+    /**
+     * Compacta a tabela: reconstrói na menor capacidade (não abaixo da inicial)
+     * em que o tamanho atual fica abaixo do fator de carga, o que também descarta
+     * as lápides, e libera as posições reservadas e livres dos vetores ordenados
+     * e das entradas do encadeamento por id.
+     * @return Bytes estimados liberados
+     */
+    public long compact() {
+        long before = estimatedBytes();
+        int target = minCapacity;
+        while (target < MAX_CAPACITY && size >= target * loadFactor) {
+            target *= 2;
+        }
+        if (target < capacity || tombstones > 0) {
+            resize(Math.min(target, capacity));
+        }
+        for (BucketTable keyTable : new BucketTable[] {table, destinoTable, pairTable}) {
+            if (keyTable == null) {
+                continue;
+            }
+            for (int slot = 0; slot < keyTable.capacity(); slot++) {
+                if (keyTable.kinds[slot] == BucketTable.SORTED_ARRAY) {
+                    ((SortedArrayBucket<Transaction>) keyTable.data[slot]).trimToSize();
+                }
+            }
+        }
+        if (idChains != null) {
+            idChains.trimToSize();
+        }
+        return before - estimatedBytes();
+    }
+    
+    /**
+     * Congela, em todos os índices por chave, as partições de tempo de período
+     * anterior ao do timestamp: cada uma vira um vetor ordenado sem folga, que
+     * continua pesquisável e volta a escalar se receber uma nova escrita.
+     * Buckets não particionados não são afetados.
+     * @param timestamp Partições de períodos anteriores ao deste instante são congeladas
+     * @return Partições congeladas agora
+     */
+    public int freezePartitionsBefore(String timestamp) {
+        if (timestamp == null) {
+            throw new IllegalArgumentException("Timestamp não pode ser null");
+        }
+        int frozen = 0;
+        for (BucketTable keyTable : new BucketTable[] {table, destinoTable, pairTable}) {
+            if (keyTable == null) {
+                continue;
+            }
+            for (int slot = 0; slot < keyTable.capacity(); slot++) {
+                if (keyTable.kinds[slot] == BucketTable.PARTITIONED) {
+                    frozen += ((TimePartitionedBucket) keyTable.data[slot]).freezeBefore(timestamp);
+                }
+            }
+        }
+        return frozen;
+    }
+    
+    /**
+     * Descarta as partições de tempo de período anterior ao do timestamp nos
+     * buckets particionados por origem. Cada partição sai do bucket de uma vez,
+     * sem remover transação por transação da árvore; as transações descartadas
+     * são retiradas também do índice por id e dos índices por destino e par.
+     * Buckets não particionados não são afetados.
+     * @param timestamp Partições de períodos anteriores ao deste instante são descartadas
+     * @return Transações descartadas
+     */
+    public int dropPartitionsBefore(String timestamp) {
+        if (timestamp == null) {
+            throw new IllegalArgumentException("Timestamp não pode ser null");
+        }
+        long start = metrics.startTimer();
+        List<Transaction> dropped = new ArrayList<>();
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            if (table.kinds[slot] == BucketTable.PARTITIONED) {
+                int before = dropped.size();
+                ((TimePartitionedBucket) table.data[slot]).dropBefore(timestamp, dropped::add);
+                if (dropped.size() > before) {
+                    metrics.addAssignments(1);
+                    deEscalate(table, slot);
+                }
+            }
+        }
+        for (Transaction t : dropped) {
+            discard(t, false);
+        }
+        if (!dropped.isEmpty()) {
+            shrinkIfNeeded();
+        }
+        metrics.recordLatency(IndexMetrics.Operation.REMOVE, start);
+        return dropped.size();
+    }
+    
+    /**
+     * Retira uma transação de todos os índices pela instância
+     * @param fromOrigem false se ela já saiu do bucket da origem
+     */
+    private void discard(Transaction t, boolean fromOrigem) {
+        removeFromIdIndex(t.getId(), t);
+        if (fromOrigem) {
+            removeFromKeyIndex(table, t, Transaction::getOrigem);
+        } else {
+            invalidateSearches(t.getOrigem());
+        }
+        if (destinoTable != null) {
+            removeFromKeyIndex(destinoTable, t, Transaction::getDestino);
+        }
+        if (pairTable != null) {
+            removeFromKeyIndex(pairTable, t, HybridHashTable::pairKey);
+        }
+        size--;
+        transactionBytes -= transactionBytes(t);
+    }
+    
+    /**
+     * Liga a retenção por janela deslizante: a tabela guarda só as transações
+     * a partir do limite, que é o maior timestamp inserido menos a janela.
+     * O descarte é incremental: cada escrita varre ao menos 16 posições do índice
+     * por origem e descarta até 4 transações vencidas, começando pelas mais
+     * antigas de cada bucket; partições de tempo inteiramente vencidas saem de
+     * uma vez. Como cada escrita acrescenta uma transação e descarta até quatro,
+     * um processo alimentado continuamente mantém cerca de uma janela de
+     * transações na memória. Os timestamps precisam estar no formato
+     * YYYY-MM-DD HH:MM:SS, e o limite avança a cada minuto do mais recente.
+     * @param window Janela de retenção; null desliga a retenção
+     */
+    public void setRetention(Duration window) {
+        if (window != null && (window.isZero() || window.isNegative())) {
+            throw new IllegalArgumentException("Janela de retenção deve ser positiva: " + window);
+        }
+        this.retention = window;
+        this.newestTimestamp = null;
+        this.watermark = null;
+    }
+    
+    public Duration getRetention() {
+        return retention;
+    }
+    
+    /**
+     * Limite atual da retenção, ou null se ela estiver desligada ou nada foi inserido
+     */
+    public String getWatermark() {
+        return watermark;
+    }
+    
+    /**
+     * Transações descartadas pela retenção
+     */
+    public long getEvictedCount() {
+        return evicted;
+    }
+    
+    /**
+     * Avança o limite da retenção se a transação é a mais recente.
+     * O limite só é recalculado quando muda o minuto do timestamp mais recente.
+     */
+    private void advanceWatermark(Transaction transaction) {
+        if (retention == null) {
+            return;
+        }
+        String timestamp = transaction.getTimestamp();
+        if (newestTimestamp != null && timestamp.compareTo(newestTimestamp) <= 0) {
+            return;
+        }
+        boolean sameMinute = newestTimestamp != null && watermark != null
+            && timestamp.regionMatches(0, newestTimestamp, 0, 16);
+        if (!sameMinute) {
+            try {
+                LocalDateTime newest = LocalDateTime.parse(timestamp, TIMESTAMP_FORMAT);
+                watermark = newest.truncatedTo(ChronoUnit.MINUTES).minus(retention).format(TIMESTAMP_FORMAT);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Timestamp inválido para a retenção: " + timestamp);
+            }
+        }
+        newestTimestamp = timestamp;
+    }
+    
+    /**
+     * Um passo do descarte incremental, a partir da posição onde o anterior parou
+     */
+    private void evictStep() {
+        if (watermark == null) {
+            return;
+        }
+        // Tabelas esparsas (muitas chaves distintas nos outros índices) varrem mais
+        // posições por escrita, para que a varredura completa dure cerca de size/16 escritas
+        int slots = EVICTION_SLOTS_PER_WRITE * Math.max(1, capacity / Math.max(1, size));
+        int budget = EVICTIONS_PER_WRITE;
+        int removed = 0;
+        for (int visited = 0; visited < slots && budget > 0; visited++) {
+            int slot = evictionCursor & (capacity - 1);
+            int count = evictBucket(slot, budget);
+            removed += count;
+            budget -= count;
+            if (budget > 0) {
+                // O bucket não tem mais transações vencidas
+                evictionCursor = slot + 1;
+            }
+        }
+        if (removed > 0) {
+            shrinkIfNeeded();
+        }
+    }
+    
+    /**
+     * Descarta as transações vencidas do bucket de origem de uma posição:
+     * primeiro as partições de tempo inteiramente anteriores ao limite, depois
+     * até limit transações, das mais antigas para as mais novas
+     * @return Transações descartadas
+     */
+    private int evictBucket(int slot, int limit) {
+        byte kind = table.kinds[slot];
+        if (!BucketTable.isOccupied(kind)) {
+            return 0;
+        }
+        List<Transaction> expired = new ArrayList<>();
+        if (kind == BucketTable.PARTITIONED) {
+            ((TimePartitionedBucket) table.data[slot]).dropBefore(watermark, expired::add);
+            if (!expired.isEmpty()) {
+                for (Transaction t : expired) {
+                    discard(t, false);
+                }
+                deEscalate(table, slot);
+                evicted += expired.size();
+                return expired.size();
+            }
+        }
+        if (kind == BucketTable.TRANSACTION) {
+            Transaction t = (Transaction) table.data[slot];
+            if (t.getTimestamp().compareTo(watermark) < 0) {
+                expired.add(t);
+            }
+        } else if (table.kinds[slot] != BucketTable.TOMBSTONE) {
+            Iterator<Transaction> oldest = ((BalancedTree<Transaction>) table.data[slot]).iterator();
+            while (expired.size() < limit && oldest.hasNext()) {
+                Transaction t = oldest.next();
+                if (t.getTimestamp().compareTo(watermark) >= 0) {
+                    break;
+                }
+                expired.add(t);
+            }
+        }
+        for (Transaction t : expired) {
+            discard(t, true);
+        }
+        evicted += expired.size();
+        return expired.size();
+    }
+    
+    /**
+     * Descarta de uma vez todas as transações anteriores ao limite da retenção,
+     * sem esperar o descarte incremental
+     * @return Transações descartadas
+     */
+    public int evictExpired() {
+        if (watermark == null) {
+            return 0;
+        }
+        long start = metrics.startTimer();
+        int removed = 0;
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            int count;
+            do {
+                count = evictBucket(slot, Integer.MAX_VALUE);
+                removed += count;
+            } while (count > 0 && BucketTable.isOccupied(table.kinds[slot]));
+        }
+        if (removed > 0) {
+            shrinkIfNeeded();
+        }
+        metrics.recordLatency(IndexMetrics.Operation.REMOVE, start);
+        return removed;
     }
 }
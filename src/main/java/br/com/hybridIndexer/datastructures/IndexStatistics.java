@@ -0,0 +1,518 @@
+package br.com.hybridIndexer.datastructures;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Retrato da estrutura de uma HybridHashTable em um instante.
+ * Para cada índice por chave (origem e, se habilitados, destino e par):
+ * quantas posições têm cada estrutura, a distribuição de tamanhos e de
+ * alturas dos buckets, os maiores buckets e o comprimento das sondagens
+ * até cada bucket. Também traz a memória estimada por tipo de estrutura
+ * (ver HeapEstimate), usada pelo orçamento de memória da tabela.
+ * Os valores não mudam depois de criado; gerado por HybridHashTable.getStatistics().
+ */
+public class IndexStatistics {
+    
+    /**
+     * Um bucket: chave, estrutura, número de transações e altura
+     */
+    public static class BucketInfo {
+        private final String key;
+        private final String structure;
+        private final int size;
+        private final int height;
+        
+        BucketInfo(String key, String structure, int size, int height) {
+            this.key = key;
+            this.structure = structure;
+            this.size = size;
+            this.height = height;
+        }
+        
+        public String getKey() {
+            return key;
+        }
+        
+        public String getStructure() {
+            return structure;
+        }
+        
+        public int getSize() {
+            return size;
+        }
+        
+        public int getHeight() {
+            return height;
+        }
+        
+        @Override
+        public String toString() {
+            return key + " (" + label(structure) + ", " + size + " transações, altura " + height + ")";
+        }
+    }
+    
+    /**
+     * Estatísticas de um índice por chave
+     */
+    public static class KeyIndexStatistics {
+        private final String name;
+        private final Map<String, Integer> structures = new LinkedHashMap<>();
+        private final SortedMap<Integer, Integer> sizeDistribution = new TreeMap<>();
+        private final SortedMap<Integer, Integer> heightDistribution = new TreeMap<>();
+        private final PriorityQueue<BucketInfo> largest =
+            new PriorityQueue<>(Comparator.comparingInt(BucketInfo::getSize));
+        private final int largestLimit;
+        private long probeTotal;
+        private int maxProbeLength;
+        private int buckets;
+        private int partitions;
+        private int frozenPartitions;
+        private List<BucketInfo> largestBuckets;
+        
+        KeyIndexStatistics(String name, int largestLimit) {
+            this.name = name;
+            this.largestLimit = largestLimit;
+        }
+        
+        /**
+         * Conta uma posição sem bucket (vazia ou lápide)
+         */
+        void addSlot(String structure) {
+            structures.merge(structure, 1, Integer::sum);
+        }
+        
+        /**
+         * Conta um bucket
+         * @param probeLength Posições visitadas pela sondagem até o bucket
+         */
+        void addBucket(String key, String structure, int size, int height, int probeLength) {
+            structures.merge(structure, 1, Integer::sum);
+            sizeDistribution.merge(size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1, 1, Integer::sum);
+            if (size > 1) {
+                heightDistribution.merge(height, 1, Integer::sum);
+            }
+            largest.add(new BucketInfo(key, structure, size, height));
+            if (largest.size() > largestLimit) {
+                largest.poll();
+            }
+            probeTotal += probeLength;
+            maxProbeLength = Math.max(maxProbeLength, probeLength);
+            buckets++;
+        }
+        
+        /**
+         * Conta as partições de tempo de um bucket particionado
+         */
+        void addPartitions(int partitions, int frozen) {
+            this.partitions += partitions;
+            this.frozenPartitions += frozen;
+        }
+        
+        void finish() {
+            List<BucketInfo> sorted = new ArrayList<>(largest);
+            sorted.sort(Comparator.comparingInt(BucketInfo::getSize).reversed());
+            largestBuckets = Collections.unmodifiableList(sorted);
+            largest.clear();
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Posições por estrutura (EMPTY, TOMBSTONE, TRANSACTION, SORTED_ARRAY, ...)
+         */
+        public Map<String, Integer> getStructures() {
+            return Collections.unmodifiableMap(structures);
+        }
+        
+        public int getCount(String structure) {
+            return structures.getOrDefault(structure, 0);
+        }
+        
+        /**
+         * Buckets por tamanho, agrupados em potências de dois: a chave é o
+         * limite superior da faixa (1, 2, 4, 8, ...)
+         */
+        public SortedMap<Integer, Integer> getSizeDistribution() {
+            return Collections.unmodifiableSortedMap(sizeDistribution);
+        }
+        
+        /**
+         * Buckets com mais de uma transação por altura da estrutura
+         */
+        public SortedMap<Integer, Integer> getHeightDistribution() {
+            return Collections.unmodifiableSortedMap(heightDistribution);
+        }
+        
+        /**
+         * Os maiores buckets, do maior para o menor
+         */
+        public List<BucketInfo> getLargestBuckets() {
+            return largestBuckets;
+        }
+        
+        public int getBuckets() {
+            return buckets;
+        }
+        
+        /**
+         * Média de posições visitadas até cada bucket (1 = na posição ideal)
+         */
+        public double getMeanProbeLength() {
+            return buckets == 0 ? 0.0 : (double) probeTotal / buckets;
+        }
+        
+        public int getMaxProbeLength() {
+            return maxProbeLength;
+        }
+        
+        /**
+         * Partições de tempo somadas de todos os buckets particionados
+         */
+        public int getPartitions() {
+            return partitions;
+        }
+        
+        public int getFrozenPartitions() {
+            return frozenPartitions;
+        }
+    }
+    
+    private final int capacity;
+    private final int size;
+    private final int tombstones;
+    private final String idIndex;
+    private final int idCapacity;
+    private final int idMaxProbeLength;
+    private final List<KeyIndexStatistics> keyIndexes = new ArrayList<>();
+    private final Map<String, Long> estimatedBytes = new LinkedHashMap<>();
+    private long memoryBudget;
+    private long comparisons;
+    private long assignments;
+    private long resizes;
+    private double resizeMillis;
+    private long adaptiveSwitches;
+    private String watermark;
+    private long evicted;
+    private long cacheLimit;              // 0 = cache de buscas desligado
+    private int cacheEntries;
+    private long cachedTransactions;
+    private long cacheHits;
+    private long cacheMisses;
+    private long cacheInvalidations;
+    private long cacheEvictions;
+    
+    IndexStatistics(int capacity, int size, int tombstones,
+                    String idIndex, int idCapacity, int idMaxProbeLength) {
+        this.capacity = capacity;
+        this.size = size;
+        this.tombstones = tombstones;
+        this.idIndex = idIndex;
+        this.idCapacity = idCapacity;
+        this.idMaxProbeLength = idMaxProbeLength;
+    }
+    
+    void addKeyIndex(KeyIndexStatistics index) {
+        index.finish();
+        keyIndexes.add(index);
+    }
+    
+    void addBytes(String structure, long bytes) {
+        estimatedBytes.merge(structure, bytes, Long::sum);
+    }
+    
+    void setCounters(long comparisons, long assignments, long resizes, double resizeMillis,
+                     long adaptiveSwitches, long memoryBudget) {
+        this.comparisons = comparisons;
+        this.assignments = assignments;
+        this.resizes = resizes;
+        this.resizeMillis = resizeMillis;
+        this.adaptiveSwitches = adaptiveSwitches;
+        this.memoryBudget = memoryBudget;
+    }
+    
+    void setRetention(String watermark, long evicted) {
+        this.watermark = watermark;
+        this.evicted = evicted;
+    }
+    
+    void setSearchCache(long limit, int entries, long transactions, long hits, long misses,
+                        long invalidations, long evictions) {
+        this.cacheLimit = limit;
+        this.cacheEntries = entries;
+        this.cachedTransactions = transactions;
+        this.cacheHits = hits;
+        this.cacheMisses = misses;
+        this.cacheInvalidations = invalidations;
+        this.cacheEvictions = evictions;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public double getLoadFactor() {
+        return (double) size / capacity;
+    }
+    
+    /**
+     * Lápides nos índices por chave
+     */
+    public int getTombstones() {
+        return tombstones;
+    }
+    
+    public String getIdIndex() {
+        return idIndex;
+    }
+    
+    /**
+     * Posições do índice por id
+     */
+    public int getIdCapacity() {
+        return idCapacity;
+    }
+    
+    /**
+     * Maior encadeamento (CHAINING) ou maior sondagem (ROBIN_HOOD, PRIMITIVE) no índice por id
+     */
+    public int getIdMaxProbeLength() {
+        return idMaxProbeLength;
+    }
+    
+    /**
+     * Índices por chave, começando pela origem
+     */
+    public List<KeyIndexStatistics> getKeyIndexes() {
+        return Collections.unmodifiableList(keyIndexes);
+    }
+    
+    /**
+     * Memória estimada por estrutura: posições das tabelas (TABLE_SLOTS),
+     * transações com suas strings (TRANSACTIONS), índice por id (ID_INDEX)
+     * e cada tipo de bucket (SORTED_ARRAY, AVL_TREE, ...)
+     */
+    public Map<String, Long> getEstimatedBytes() {
+        return Collections.unmodifiableMap(estimatedBytes);
+    }
+    
+    public long getTotalEstimatedBytes() {
+        long total = 0;
+        for (long bytes : estimatedBytes.values()) {
+            total += bytes;
+        }
+        return total;
+    }
+    
+    /**
+     * Orçamento de memória da tabela em bytes (0 = sem orçamento)
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+    
+    public boolean isOverBudget() {
+        return memoryBudget > 0 && getTotalEstimatedBytes() > memoryBudget;
+    }
+    
+    public long getComparisons() {
+        return comparisons;
+    }
+    
+    public long getAssignments() {
+        return assignments;
+    }
+    
+    public long getResizes() {
+        return resizes;
+    }
+    
+    public double getResizeMillis() {
+        return resizeMillis;
+    }
+    
+    public long getAdaptiveSwitches() {
+        return adaptiveSwitches;
+    }
+    
+    /**
+     * Limite da retenção por janela deslizante (null se ela estiver desligada)
+     */
+    public String getWatermark() {
+        return watermark;
+    }
+    
+    /**
+     * Transações descartadas pela retenção
+     */
+    public long getEvicted() {
+        return evicted;
+    }
+    
+    /**
+     * Limite do cache de buscas em transações (0 = desligado)
+     */
+    public long getSearchCacheLimit() {
+        return cacheLimit;
+    }
+    
+    /**
+     * Resultados guardados no cache de buscas
+     */
+    public int getSearchCacheEntries() {
+        return cacheEntries;
+    }
+    
+    /**
+     * Transações referenciadas pelos resultados guardados
+     */
+    public long getSearchCacheTransactions() {
+        return cachedTransactions;
+    }
+    
+    public long getSearchCacheHits() {
+        return cacheHits;
+    }
+    
+    public long getSearchCacheMisses() {
+        return cacheMisses;
+    }
+    
+    /**
+     * Fração das buscas respondidas pelo cache (0 se nenhuma busca passou por ele)
+     */
+    public double getSearchCacheHitRatio() {
+        long lookups = cacheHits + cacheMisses;
+        return lookups == 0 ? 0.0 : (double) cacheHits / lookups;
+    }
+    
+    /**
+     * Resultados descartados por uma escrita na origem depois de guardados
+     */
+    public long getSearchCacheInvalidations() {
+        return cacheInvalidations;
+    }
+    
+    /**
+     * Resultados descartados para caber no limite
+     */
+    public long getSearchCacheEvictions() {
+        return cacheEvictions;
+    }
+    
+    /**
+     * Nome da estrutura para o relatório
+     */
+    private static String label(String structure) {
+        switch (structure) {
+            case "EMPTY": return "Posições vazias";
+            case "TOMBSTONE": return "Lápides";
+            case "TRANSACTION": return "Transações individuais";
+            case "SORTED_ARRAY": return "Vetores ordenados";
+            case "AVL_TREE": return "Árvores AVL";
+            case "RED_BLACK_TREE": return "Árvores Rubro-Negras";
+            case "BPLUS_TREE": return "Árvores B+";
+            case "PARTITIONED": return "Buckets particionados por tempo";
+            case "TABLE_SLOTS": return "Posições das tabelas";
+            case "TRANSACTIONS": return "Transações";
+            case "ID_INDEX": return "Índice por id";
+            case "SEARCH_CACHE": return "Cache de buscas";
+            default: return structure;
+        }
+    }
+    
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+    
+    /**
+     * Relatório em texto, no formato do menu de estatísticas
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Estatísticas da Tabela Hash Híbrida ===\n");
+        sb.append("Capacidade: ").append(capacity).append('\n');
+        sb.append("Tamanho: ").append(size).append('\n');
+        sb.append("Fator de carga: ").append(String.format("%.2f", getLoadFactor())).append('\n');
+        sb.append("Índice por id (").append(idIndex).append("): ").append(idCapacity)
+          .append(" posições, maior sondagem ").append(idMaxProbeLength).append('\n');
+        for (KeyIndexStatistics index : keyIndexes) {
+            sb.append("--- Índice por ").append(index.getName()).append(" ---\n");
+            index.getStructures().forEach((structure, count) ->
+                sb.append(label(structure)).append(": ").append(count).append('\n'));
+            sb.append("Sondagem até o bucket: média ").append(String.format("%.2f", index.getMeanProbeLength()))
+              .append(", máximo ").append(index.getMaxProbeLength()).append('\n');
+            if (index.getPartitions() > 0) {
+                sb.append("Partições de tempo: ").append(index.getPartitions())
+                  .append(" (").append(index.getFrozenPartitions()).append(" congeladas)\n");
+            }
+            sb.append("Tamanho dos buckets (até N transações):");
+            index.getSizeDistribution().forEach((bound, count) ->
+                sb.append(' ').append(bound).append('=').append(count));
+            sb.append('\n');
+            if (!index.getHeightDistribution().isEmpty()) {
+                sb.append("Altura dos buckets:");
+                index.getHeightDistribution().forEach((height, count) ->
+                    sb.append(' ').append(height).append('=').append(count));
+                sb.append('\n');
+            }
+            if (!index.getLargestBuckets().isEmpty()) {
+                sb.append("Maiores buckets:\n");
+                for (BucketInfo bucket : index.getLargestBuckets()) {
+                    sb.append("  ").append(bucket).append('\n');
+                }
+            }
+        }
+        sb.append("--- Memória estimada ---\n");
+        estimatedBytes.forEach((structure, bytes) ->
+            sb.append(label(structure)).append(": ").append(formatBytes(bytes)).append('\n'));
+        sb.append("Total: ").append(formatBytes(getTotalEstimatedBytes()));
+        if (memoryBudget > 0) {
+            sb.append(" de ").append(formatBytes(memoryBudget)).append(" do orçamento")
+              .append(isOverBudget() ? " (EXCEDIDO)" : "");
+        }
+        sb.append('\n');
+        if (watermark != null) {
+            sb.append("Retenção: a partir de ").append(watermark).append(", ")
+              .append(evicted).append(" transações descartadas\n");
+        }
+        if (cacheLimit > 0) {
+            sb.append("Cache de buscas: ").append(cacheEntries).append(" resultados, ")
+              .append(cachedTransactions).append(" de ").append(cacheLimit).append(" transações; acertos ")
+              .append(String.format("%.1f%%", 100 * getSearchCacheHitRatio()))
+              .append(" (").append(cacheHits).append(" de ").append(cacheHits + cacheMisses).append("), ")
+              .append(cacheInvalidations).append(" invalidados, ").append(cacheEvictions).append(" expulsos\n");
+        }
+        if (adaptiveSwitches > 0) {
+            sb.append("Trocas adaptativas de estrutura: ").append(adaptiveSwitches).append('\n');
+        }
+        sb.append("Comparações totais: ").append(comparisons).append('\n');
+        sb.append("Atribuições totais: ").append(assignments).append('\n');
+        sb.append("Redimensionamentos: ").append(resizes)
+          .append(" (").append(String.format("%.1f", resizeMillis)).append(" ms)");
+        return sb.toString();
+    }
+    
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.hybridIndexer.datastructures;
+
+import br.com.hybridIndexer.util.HeapEstimate;
+
+/**
+ * Filtro de Bloom em blocos sobre os hashes das chaves de um índice por chave.
+ * Cada chave escolhe um bloco de 512 bits (8 longs, uma linha de cache) e marca
+ * um bit em cada long do bloco, então uma consulta lê uma única linha de cache,
+ * contra as posições de kinds e hashes espalhadas pela sequência de sondagem.
+ * Com 10 bits por chave a taxa de falsos positivos fica perto de 1%.
+ * Não há remoção: os bits de chaves removidas continuam marcados até o filtro
+ * ser reconstruído, o que só aumenta os falsos positivos, nunca dá falso negativo.
+ */
+final class KeyFilter {
+    static final int BITS_PER_KEY = 10;
+    private static final int BLOCK_LONGS = 8;
+    private static final int MAX_BLOCKS = 1 << 24;  // 1 GiB de filtro, acima da capacidade máxima da tabela
+    
+    // Multiplicadores ímpares, um por long do bloco (os do filtro em blocos do Parquet)
+    private static final int[] SALT = {
+        0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d, 0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31
+    };
+    
+    private final long[] bits;
+    private final int blockMask;
+    private final int maxKeys;
+    private int keys;
+    
+    /**
+     * @param expectedKeys Chaves que o filtro comporta mantendo BITS_PER_KEY bits por chave
+     */
+    KeyFilter(int expectedKeys) {
+        long wanted = ((long) Math.max(1, expectedKeys) * BITS_PER_KEY + 511) / 512;
+        int blocks = 1;
+        while (blocks < wanted && blocks < MAX_BLOCKS) {
+            blocks <<= 1;
+        }
+        this.bits = new long[blocks * BLOCK_LONGS];
+        this.blockMask = blocks - 1;
+        this.maxKeys = (int) ((long) blocks * 512 / BITS_PER_KEY);
+    }
+    
+    /**
+     * Espalha o hash da chave: os bits altos escolhem o bloco e os baixos os
+     * bits dentro dele, independentes dos bits usados para a posição na tabela
+     */
+    private static long mix(int hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+    
+    void add(int hash) {
+        long h = mix(hash);
+        int block = ((int) (h >>> 32) & blockMask) * BLOCK_LONGS;
+        int low = (int) h;
+        for (int i = 0; i < BLOCK_LONGS; i++) {
+            bits[block + i] |= 1L << ((low * SALT[i]) >>> 26);
+        }
+        keys++;
+    }
+    
+    /**
+     * @return false se a chave certamente não foi adicionada
+     */
+    boolean mightContain(int hash) {
+        long h = mix(hash);
+        int block = ((int) (h >>> 32) & blockMask) * BLOCK_LONGS;
+        int low = (int) h;
+        for (int i = 0; i < BLOCK_LONGS; i++) {
+            if ((bits[block + i] & (1L << ((low * SALT[i]) >>> 26))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Chaves adicionadas, incluindo as que já foram removidas da tabela
+     */
+    int keys() {
+        return keys;
+    }
+    
+    /**
+     * Passou das chaves previstas: os falsos positivos começam a crescer
+     */
+    boolean isSaturated() {
+        return keys > maxKeys;
+    }
+    
+    long estimatedBytes() {
+        return HeapEstimate.object(HeapEstimate.REFERENCE + 3 * 4) + HeapEstimate.array(bits.length, 8);
+    }
+}
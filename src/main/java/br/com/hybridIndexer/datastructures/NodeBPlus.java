@@ -0,0 +1,170 @@
+package br.com.hybridIndexer.datastructures;
+
+/**
+ * Classe que representa um nó de uma Árvore B+
+ * Folhas guardam os elementos em um vetor ordenado e são ligadas às folhas
+ * irmãs; nós internos guardam apenas separadores e filhos.
+ *
+ * @param <T> Tipo de dados armazenado no nó (deve ser comparável)
+ */
+public class NodeBPlus<T extends Comparable<T>> {
+    private final boolean leaf;
+    private final Object[] keys;          // elementos (folha) ou separadores (nó interno)
+    private final NodeBPlus<T>[] children; // null em folhas
+    private int count;                    // número de posições ocupadas em keys
+    private NodeBPlus<T> next;            // folha irmã à direita (apenas folhas)
+    private NodeBPlus<T> prev;            // folha irmã à esquerda (apenas folhas)
+    
+    /**
+     * Cria um nó vazio
+     * @param leaf true para folha, false para nó interno
+     * @param order Número máximo de chaves por nó
+     */
+    public NodeBPlus(boolean leaf, int order) {
+        this.leaf = leaf;
+        // Uma posição extra acomoda o estouro temporário antes da divisão
+        this.keys = new Object[order + 1];
+        this.children = leaf ? null : newChildren(order + 2);
+        this.count = 0;
+        this.next = null;
+        this.prev = null;
+    }
+    
+    /**
+     * Vetor de filhos: o Java não cria vetores de tipo genérico, então o vetor
+     * de NodeBPlus<?> é convertido; só recebe nós da mesma árvore
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<T>> NodeBPlus<T>[] newChildren(int length) {
+        return (NodeBPlus<T>[]) new NodeBPlus<?>[length];
+    }
+    
+    /**
+     * Busca binária pela posição do valor entre as chaves ocupadas
+     * @return Índice do valor, ou (-(ponto de inserção) - 1) se não existir
+     */
+    public int search(T value) {
+        int low = 0, high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = getKey(mid).compareTo(value);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    /**
+     * Índice do filho que pode conter o valor (nós internos).
+     * O separador keys[i] é o menor elemento da subárvore children[i + 1].
+     */
+    public int childIndex(T value) {
+        int pos = search(value);
+        return pos >= 0 ? pos + 1 : -(pos + 1);
+    }
+    
+    /**
+     * Insere uma chave na posição informada, deslocando as seguintes
+     */
+    public void insertKey(int index, T key) {
+        System.arraycopy(keys, index, keys, index + 1, count - index);
+        keys[index] = key;
+        count++;
+    }
+    
+    /**
+     * Remove a chave da posição informada, deslocando as seguintes
+     */
+    public void removeKey(int index) {
+        System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+        count--;
+        keys[count] = null;
+    }
+    
+    /**
+     * Insere um filho na posição informada, deslocando os seguintes
+     * (deve ser chamado antes de insertKey, que altera count)
+     */
+    public void insertChild(int index, NodeBPlus<T> child) {
+        System.arraycopy(children, index, children, index + 1, count + 1 - index);
+        children[index] = child;
+    }
+    
+    /**
+     * Remove o filho da posição informada, deslocando os seguintes
+     * (deve ser chamado antes de removeKey, que altera count)
+     */
+    public void removeChild(int index) {
+        System.arraycopy(children, index + 1, children, index, count - index);
+        children[count] = null;
+    }
+    
+    // Getters e Setters
+    public boolean isLeaf() {
+        return leaf;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public T getKey(int index) {
+        return (T) keys[index];
+    }
+    
+    public void setKey(int index, T key) {
+        keys[index] = key;
+    }
+    
+    Object[] getKeys() {
+        return keys;
+    }
+    
+    public NodeBPlus<T> getChild(int index) {
+        return children[index];
+    }
+    
+    public void setChild(int index, NodeBPlus<T> child) {
+        children[index] = child;
+    }
+    
+    NodeBPlus<T>[] getChildren() {
+        return children;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public void setCount(int count) {
+        this.count = count;
+    }
+    
+    public NodeBPlus<T> getNext() {
+        return next;
+    }
+    
+    public void setNext(NodeBPlus<T> next) {
+        this.next = next;
+    }
+    
+    public NodeBPlus<T> getPrev() {
+        return prev;
+    }
+    
+    public void setPrev(NodeBPlus<T> prev) {
+        this.prev = prev;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(keys[i]);
+        }
+        return sb.append("]").toString();
+    }
+}
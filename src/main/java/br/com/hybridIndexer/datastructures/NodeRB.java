@@ -16,6 +16,7 @@ public class NodeRB<T extends Comparable<T>> {
     private NodeRB<T> left;
     private NodeRB<T> right;
     private Color color;
+    private int count;      // nós da subárvore, incluindo este (0 no sentinela)
     
     /**
      * Construtor que cria um nó vermelho com um elemento
@@ -27,6 +28,7 @@ public class NodeRB<T extends Comparable<T>> {
         this.left = null;
         this.right = null;
         this.color = Color.RED; // Novos nós sempre começam vermelhos
+        this.count = element == null ? 0 : 1;
     }
     
     /**
@@ -40,6 +42,7 @@ public class NodeRB<T extends Comparable<T>> {
         this.left = null;
         this.right = null;
         this.color = color;
+        this.count = element == null ? 0 : 1;
     }
     
     /**
@@ -154,6 +157,17 @@ public class NodeRB<T extends Comparable<T>> {
         this.color = color;
     }
     
+    /**
+     * Quantidade de nós da subárvore enraizada neste nó
+     */
+    public int getCount() {
+        return count;
+    }
+    
+    public void setCount(int count) {
+        this.count = count;
+    }
+    
     @Override
     public String toString() {
         return element.toString() + "(" + (isRed() ? "R" : "B") + ")";
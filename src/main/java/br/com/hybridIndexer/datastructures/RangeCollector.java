@@ -0,0 +1,133 @@
+package br.com.hybridIndexer.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Coleta de uma busca por intervalo em trechos contíguos, em paralelo.
+ * O bucket descreve o intervalo como uma sequência de trechos (sequências de
+ * folhas da Árvore B+, fatias de um vetor ordenado, uma ou mais por partição
+ * de tempo), cada um com o tamanho conhecido antes da cópia. O total define o
+ * vetor do resultado e a posição de cada trecho nele, então as tarefas
+ * escrevem em faixas disjuntas e não há concatenação no final.
+ *
+ * @param <T> Tipo dos elementos coletados
+ */
+final class RangeCollector<T> {
+    // Trechos por limite da busca paralela: cada um fica com cerca de threshold / 4 elementos
+    private static final int TASKS_PER_THRESHOLD = 4;
+    
+    /**
+     * Trecho do intervalo com tamanho conhecido
+     */
+    interface Chunk {
+        int length();
+        
+        /**
+         * Copia os elementos do trecho, em ordem, para out a partir de offset
+         */
+        void copyTo(Object[] out, int offset);
+    }
+    
+    private final int grain;
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int total;
+    private long visited;       // nós e folhas visitados para descrever o intervalo
+    
+    /**
+     * @param threshold Limite da busca paralela (ver EscalationPolicy)
+     */
+    RangeCollector(int threshold) {
+        this.grain = grain(threshold);
+    }
+    
+    /**
+     * Elementos por trecho (ou por tarefa) para um limite da busca paralela
+     */
+    static int grain(int threshold) {
+        return Math.max(1, threshold / TASKS_PER_THRESHOLD);
+    }
+    
+    int grain() {
+        return grain;
+    }
+    
+    void add(Chunk chunk) {
+        if (chunk.length() > 0) {
+            chunks.add(chunk);
+            total += chunk.length();
+        }
+    }
+    
+    void addVisited(long count) {
+        visited += count;
+    }
+    
+    /**
+     * Elementos do intervalo
+     */
+    int total() {
+        return total;
+    }
+    
+    /**
+     * Nós e folhas visitados mais um por elemento copiado, como no cursor
+     */
+    long comparisons() {
+        return visited + total;
+    }
+    
+    /**
+     * Copia os trechos para um único vetor
+     * @param pool Pool das tarefas, ou null para copiar na thread que chama
+     * @return Lista de tamanho fixo sobre o vetor, em ordem crescente
+     */
+    @SuppressWarnings("unchecked")
+    List<T> collect(ForkJoinPool pool) {
+        Object[] out = new Object[total];
+        int[] offsets = new int[chunks.size()];
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] = offsets[i - 1] + chunks.get(i - 1).length();
+        }
+        if (pool == null || chunks.size() < 2) {
+            for (int i = 0; i < offsets.length; i++) {
+                chunks.get(i).copyTo(out, offsets[i]);
+            }
+        } else {
+            pool.invoke(new CopyTask(out, offsets, 0, offsets.length));
+        }
+        return (List<T>) Arrays.asList(out);
+    }
+    
+    /**
+     * Copia os trechos [from, to), dividindo ao meio até sobrar um trecho
+     */
+    private final class CopyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final Object[] out;
+        private final int[] offsets;
+        private final int from;
+        private final int to;
+        
+        CopyTask(Object[] out, int[] offsets, int from, int to) {
+            this.out = out;
+            this.offsets = offsets;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                chunks.get(from).copyTo(out, offsets[from]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CopyTask(out, offsets, from, mid), new CopyTask(out, offsets, mid, to));
+        }
+    }
+}
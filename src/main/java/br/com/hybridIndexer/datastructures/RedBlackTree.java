@@ -1,5 +1,15 @@
 package br.com.hybridIndexer.datastructures;
 
+import br.com.hybridIndexer.util.HeapEstimate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongConsumer;
+
 /**
  * Implementação de uma Árvore Rubro-Negra (Red-Black Tree)
  * 
@@ -56,6 +66,10 @@ public class RedBlackTree<T extends Comparable<T>> implements BalancedTree<T> {
         } else {
             y.setRight(newNode);
         }
+        // Os ancestrais ganham um nó na subárvore
+        for (NodeRB<T> p = y; p != null; p = p.getParent()) {
+            p.setCount(p.getCount() + 1);
+        }
         
         // Se o novo nó é a raiz, pintar de preto e retornar
         if (newNode.getParent() == null) {
@@ -150,6 +164,8 @@ public class RedBlackTree<T extends Comparable<T>> implements BalancedTree<T> {
         }
         y.setLeft(x);
         x.setParent(y);
+        y.setCount(x.getCount());
+        x.setCount(x.getLeft().getCount() + x.getRight().getCount() + 1);
     }
     
     /**
@@ -171,6 +187,8 @@ public class RedBlackTree<T extends Comparable<T>> implements BalancedTree<T> {
         }
         y.setRight(x);
         x.setParent(y);
+        y.setCount(x.getCount());
+        x.setCount(x.getLeft().getCount() + x.getRight().getCount() + 1);
     }
     
     @Override
@@ -185,104 +203,120 @@ public class RedBlackTree<T extends Comparable<T>> implements BalancedTree<T> {
     }
     
     /**
-     * Remove um nó da árvore
+     * Remove um nó da árvore.
+     * O pai de x é acompanhado explicitamente porque x pode ser o sentinela TNULL,
+     * cujo ponteiro de pai é compartilhado por todas as folhas.
+     * As contagens são descontadas antes da mudança, a partir do pai do nó que
+     * sai de fato da sua posição (o sucessor, quando há dois filhos).
      */
     private void deleteNode(NodeRB<T> node) {
-        NodeRB<T> x, y;
+        NodeRB<T> x, xParent, y;
         y = node;
         NodeRB.Color yOriginalColor = y.getColor();
         
+        NodeRB<T> removed = node.getLeft() == TNULL || node.getRight() == TNULL
+            ? node : minimum(node.getRight());
+        for (NodeRB<T> p = removed.getParent(); p != null; p = p.getParent()) {
+            p.setCount(p.getCount() - 1);
+        }
+        
         if (node.getLeft() == TNULL) {
             x = node.getRight();
+            xParent = node.getParent();
             transplant(node, node.getRight());
         } else if (node.getRight() == TNULL) {
             x = node.getLeft();
+            xParent = node.getParent();
             transplant(node, node.getLeft());
         } else {
             y = minimum(node.getRight());
             yOriginalColor = y.getColor();
             x = y.getRight();
             if (y.getParent() == node) {
-                if (x != null) x.setParent(y);
+                xParent = y;
             } else {
+                xParent = y.getParent();
                 transplant(y, y.getRight());
                 y.setRight(node.getRight());
-                y.getRight().setParent(y);
             }
             transplant(node, y);
             y.setLeft(node.getLeft());
-            y.getLeft().setParent(y);
             y.setColor(node.getColor());
+            y.setCount(node.getCount());
         }
         
         if (yOriginalColor == NodeRB.Color.BLACK) {
-            fixDelete(x);
+            fixDelete(x, xParent);
         }
     }
     
     /**
      * Corrige violações após remoção
      */
-    private void fixDelete(NodeRB<T> x) {
+    private void fixDelete(NodeRB<T> x, NodeRB<T> parent) {
         NodeRB<T> s;
-        while (x != root && x != null && x.isBlack()) {
-            if (x == x.getParent().getLeft()) {
-                s = x.getParent().getRight();
+        while (x != root && x.isBlack()) {
+            if (x == parent.getLeft()) {
+                s = parent.getRight();
                 if (s.isRed()) {
+                    // Caso 1: irmão vermelho
                     s.setColor(NodeRB.Color.BLACK);
-                    x.getParent().setColor(NodeRB.Color.RED);
-                    leftRotate(x.getParent());
-                    s = x.getParent().getRight();
+                    parent.setColor(NodeRB.Color.RED);
+                    leftRotate(parent);
+                    s = parent.getRight();
                 }
                 
-                if ((s.getLeft() == null || s.getLeft().isBlack()) && 
-                    (s.getRight() == null || s.getRight().isBlack())) {
+                if (s.getLeft().isBlack() && s.getRight().isBlack()) {
+                    // Caso 2: irmão preto com filhos pretos
                     s.setColor(NodeRB.Color.RED);
-                    x = x.getParent();
+                    x = parent;
+                    parent = x.getParent();
                 } else {
-                    if (s.getRight() == null || s.getRight().isBlack()) {
-                        if (s.getLeft() != null) s.getLeft().setColor(NodeRB.Color.BLACK);
+                    if (s.getRight().isBlack()) {
+                        // Caso 3: filho direito do irmão preto
+                        s.getLeft().setColor(NodeRB.Color.BLACK);
                         s.setColor(NodeRB.Color.RED);
                         rightRotate(s);
-                        s = x.getParent().getRight();
+                        s = parent.getRight();
                     }
                     
-                    s.setColor(x.getParent().getColor());
-                    x.getParent().setColor(NodeRB.Color.BLACK);
-                    if (s.getRight() != null) s.getRight().setColor(NodeRB.Color.BLACK);
-                    leftRotate(x.getParent());
+                    // Caso 4: filho direito do irmão vermelho
+                    s.setColor(parent.getColor());
+                    parent.setColor(NodeRB.Color.BLACK);
+                    s.getRight().setColor(NodeRB.Color.BLACK);
+                    leftRotate(parent);
                     x = root;
                 }
             } else {
-                s = x.getParent().getLeft();
+                s = parent.getLeft();
                 if (s.isRed()) {
                     s.setColor(NodeRB.Color.BLACK);
-                    x.getParent().setColor(NodeRB.Color.RED);
-                    rightRotate(x.getParent());
-                    s = x.getParent().getLeft();
+                    parent.setColor(NodeRB.Color.RED);
+                    rightRotate(parent);
+                    s = parent.getLeft();
                 }
                 
-                if ((s.getRight() == null || s.getRight().isBlack()) && 
-                    (s.getLeft() == null || s.getLeft().isBlack())) {
+                if (s.getRight().isBlack() && s.getLeft().isBlack()) {
                     s.setColor(NodeRB.Color.RED);
-                    x = x.getParent();
+                    x = parent;
+                    parent = x.getParent();
                 } else {
-                    if (s.getLeft() == null || s.getLeft().isBlack()) {
-                        if (s.getRight() != null) s.getRight().setColor(NodeRB.Color.BLACK);
+                    if (s.getLeft().isBlack()) {
+                        s.getRight().setColor(NodeRB.Color.BLACK);
                         s.setColor(NodeRB.Color.RED);
                         leftRotate(s);
-                        s = x.getParent().getLeft();
+                        s = parent.getLeft();
                     }
                     
-                    s.setColor(x.getParent().getColor());
-                    x.getParent().setColor(NodeRB.Color.BLACK);
-                    if (s.getLeft() != null) s.getLeft().setColor(NodeRB.Color.BLACK);
-                    rightRotate(x.getParent());
+                    s.setColor(parent.getColor());
+                    parent.setColor(NodeRB.Color.BLACK);
+                    s.getLeft().setColor(NodeRB.Color.BLACK);
+                    rightRotate(parent);
                     x = root;
                 }
             }
         }
-        if (x != null) x.setColor(NodeRB.Color.BLACK);
+        x.setColor(NodeRB.Color.BLACK);
     }
     
     /**
@@ -291,14 +325,14 @@ public class RedBlackTree<T extends Comparable<T>> implements BalancedTree<T> {
     private void transplant(NodeRB<T> u, NodeRB<T> v) {
         if (u.getParent() == null) {
             root = v;
+            if (v != TNULL) {
+                v.setParent(null);
+            }
         } else if (u == u.getParent().getLeft()) {
             u.getParent().setLeft(v);
         } else {
             u.getParent().setRight(v);
         }
-        if (v != null && v != TNULL) {
-            v.setParent(u.getParent());
-        }
     }
     
     /**
@@ -340,6 +374,16 @@ public class RedBlackTree<T extends Comparable<T>> implements BalancedTree<T> {
         return getHeightRecursive(root);
     }
     
+    /**
+     * Um nó por elemento mais o sentinela: elemento, pai, dois filhos, cor e
+     * contagem da subárvore
+     */
+    @Override
+    public long estimatedBytes() {
+        return HeapEstimate.object(2 * HeapEstimate.REFERENCE + 4)
+            + (size + 1L) * HeapEstimate.object(5 * HeapEstimate.REFERENCE + 4);
+    }
+    
     /**
      * Calcula a altura da árvore recursivamente
      */
@@ -388,9 +432,7 @@ public class RedBlackTree<T extends Comparable<T>> implements BalancedTree<T> {
         return root;
     }
     
-    /**
-     * Percorre a árvore em ordem e aplica uma ação a cada elemento
-     */
+    @Override
     public void inOrderTraversal(java.util.function.Consumer<T> action) {
         inOrderTraversalRecursive(root, action);
     }
@@ -402,4 +444,268 @@ public class RedBlackTree<T extends Comparable<T>> implements BalancedTree<T> {
             inOrderTraversalRecursive(node.getRight(), action);
         }
     }
+    
+    @Override
+    public void rangeTraversal(T from, T to, java.util.function.Consumer<T> action) {
+        rangeTraversalRecursive(root, from, to, action);
+    }
+    
+    private void rangeTraversalRecursive(NodeRB<T> node, T from, T to,
+                                         java.util.function.Consumer<T> action) {
+        if (node != TNULL && node != null) {
+            int cmpFrom = node.getElement().compareTo(from);
+            int cmpTo = node.getElement().compareTo(to);
+            // Subárvore esquerda só tem elementos menores que o nó
+            if (cmpFrom > 0) {
+                rangeTraversalRecursive(node.getLeft(), from, to, action);
+            }
+            if (cmpFrom >= 0 && cmpTo <= 0) {
+                action.accept(node.getElement());
+            }
+            // Subárvore direita só tem elementos maiores que o nó
+            if (cmpTo < 0) {
+                rangeTraversalRecursive(node.getRight(), from, to, action);
+            }
+        }
+    }
+    
+    /**
+     * Coleta em ordem os elementos no intervalo [from, to], dividindo o
+     * percurso entre as subárvores quando o intervalo é grande.
+     * Desce primeiro, na thread que chama, até o nó em que o intervalo se divide
+     * e conta os elementos do intervalo pelas contagens das subárvores, descendo
+     * em direção a cada limite (O(log n), sem percorrer o intervalo). Abaixo de
+     * threshold o percurso é sequencial e o pool não é usado; acima, cada tarefa
+     * separa as duas subárvores até sobrarem cerca de RangeCollector.grain(threshold)
+     * elementos, e os resultados são concatenados em ordem uma única vez no final.
+     * A árvore não deve ser modificada durante a coleta.
+     * @param from Limite inferior (inclusivo); null para começar do menor elemento
+     * @param to Limite superior (inclusivo); null para ir até o maior elemento
+     * @param threshold Elementos no intervalo a partir dos quais a coleta é paralela
+     * @param pool Pool que executa as tarefas
+     * @param comparisons Recebe, uma vez ao final, os nós comparados com os limites
+     * @return Lista com os elementos do intervalo em ordem crescente
+     */
+    public List<T> rangeCollect(T from, T to, int threshold, ForkJoinPool pool,
+                                LongConsumer comparisons) {
+        NodeRB<T> node = root;
+        long compared = 0;
+        while (node != TNULL && node != null) {
+            compared++;
+            if (from != null && node.getElement().compareTo(from) < 0) {
+                node = node.getRight();
+            } else if (to != null && node.getElement().compareTo(to) > 0) {
+                node = node.getLeft();
+            } else {
+                break;
+            }
+        }
+        ArrayList<T> result = new ArrayList<>();
+        if (node == TNULL || node == null) {
+            comparisons.accept(compared);
+            return result;
+        }
+        
+        // O nó da divisão, os da esquerda a partir de from e os da direita até to
+        int inRange = 1;
+        NodeRB<T> x = node.getLeft();
+        if (from == null) {
+            inRange += x.getCount();
+        }
+        while (from != null && x != TNULL) {
+            compared++;
+            if (x.getElement().compareTo(from) >= 0) {
+                inRange += 1 + x.getRight().getCount();
+                x = x.getLeft();
+            } else {
+                x = x.getRight();
+            }
+        }
+        x = node.getRight();
+        if (to == null) {
+            inRange += x.getCount();
+        }
+        while (to != null && x != TNULL) {
+            compared++;
+            if (x.getElement().compareTo(to) <= 0) {
+                inRange += 1 + x.getLeft().getCount();
+                x = x.getRight();
+            } else {
+                x = x.getLeft();
+            }
+        }
+        
+        result.ensureCapacity(inRange);
+        if (inRange < threshold) {
+            compared += collectRange(node, from, to, result);
+        } else {
+            // Profundidade de divisão para que cada tarefa fique com cerca de grain elementos
+            int grain = RangeCollector.grain(threshold);
+            int splits = 31 - Integer.numberOfLeadingZeros(Math.max(1, inRange / grain));
+            RangeTask task = new RangeTask(node, from, to, splits);
+            pool.invoke(task);
+            task.gather(result);
+            compared += task.compared;
+        }
+        comparisons.accept(compared);
+        return result;
+    }
+    
+    /**
+     * Percurso sequencial do intervalo a partir de node
+     * @return Nós visitados
+     */
+    private long collectRange(NodeRB<T> node, T from, T to, List<T> result) {
+        if (node == TNULL || node == null) {
+            return 0;
+        }
+        long visited = 1;
+        boolean afterFrom = from == null || node.getElement().compareTo(from) > 0;
+        boolean beforeTo = to == null || node.getElement().compareTo(to) < 0;
+        if (afterFrom) {
+            visited += collectRange(node.getLeft(), from, to, result);
+        }
+        if (inRange(node.getElement(), from, to)) {
+            result.add(node.getElement());
+        }
+        if (beforeTo) {
+            visited += collectRange(node.getRight(), from, to, result);
+        }
+        return visited;
+    }
+    
+    private boolean inRange(T element, T from, T to) {
+        return (from == null || element.compareTo(from) >= 0)
+            && (to == null || element.compareTo(to) <= 0);
+    }
+    
+    /**
+     * Coleta de uma subárvore. Com divisões restantes, o elemento do nó fica na
+     * própria tarefa e as subárvores que podem ter elementos do intervalo viram
+     * tarefas filhas; sem divisões, a subárvore é percorrida sequencialmente.
+     * As listas ficam nas tarefas até gather(), que as concatena em ordem.
+     */
+    private final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        private final NodeRB<T> node;
+        private final T from;
+        private final T to;
+        private final int splits;
+        private RangeTask left;
+        private RangeTask right;
+        private List<T> items;      // apenas nas folhas da divisão
+        private long compared;      // nós visitados por esta tarefa e suas filhas
+        
+        RangeTask(NodeRB<T> node, T from, T to, int splits) {
+            this.node = node;
+            this.from = from;
+            this.to = to;
+            this.splits = splits;
+        }
+        
+        @Override
+        protected void compute() {
+            if (splits == 0) {
+                items = new ArrayList<>();
+                compared = collectRange(node, from, to, items);
+                return;
+            }
+            T element = node.getElement();
+            if ((from == null || element.compareTo(from) > 0) && node.getLeft() != TNULL) {
+                left = new RangeTask(node.getLeft(), from, to, splits - 1);
+            }
+            if ((to == null || element.compareTo(to) < 0) && node.getRight() != TNULL) {
+                right = new RangeTask(node.getRight(), from, to, splits - 1);
+            }
+            if (left != null && right != null) {
+                invokeAll(left, right);
+            } else if (left != null) {
+                left.compute();
+            } else if (right != null) {
+                right.compute();
+            }
+            compared = 1 + (left == null ? 0 : left.compared) + (right == null ? 0 : right.compared);
+        }
+        
+        void gather(List<T> result) {
+            if (items != null) {
+                result.addAll(items);
+                return;
+            }
+            if (left != null) {
+                left.gather(result);
+            }
+            if (inRange(node.getElement(), from, to)) {
+                result.add(node.getElement());
+            }
+            if (right != null) {
+                right.gather(result);
+            }
+        }
+    }
+    
+    @Override
+    public Iterator<T> iterator() {
+        return new TreeIterator(null, false);
+    }
+    
+    @Override
+    public Iterator<T> iterator(T from) {
+        return new TreeIterator(from, false);
+    }
+    
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new TreeIterator(null, true);
+    }
+    
+    @Override
+    public Iterator<T> descendingIterator(T from) {
+        return new TreeIterator(from, true);
+    }
+    
+    /**
+     * Iterador em ordem com pilha explícita. A pilha guarda os ancestrais ainda
+     * não visitados, então cada next() custa O(1) amortizado e o posicionamento
+     * inicial custa O(log n).
+     */
+    private class TreeIterator implements Iterator<T> {
+        private final ArrayDeque<NodeRB<T>> stack = new ArrayDeque<>();
+        private final boolean descending;
+        
+        TreeIterator(T from, boolean descending) {
+            this.descending = descending;
+            NodeRB<T> node = root;
+            while (node != TNULL && node != null) {
+                int cmp = (from == null) ? 0 : node.getElement().compareTo(from);
+                if (descending ? cmp <= 0 : cmp >= 0) {
+                    // Nó está no intervalo: visitar depois da subárvore mais próxima de from
+                    stack.push(node);
+                    node = descending ? node.getRight() : node.getLeft();
+                } else {
+                    node = descending ? node.getLeft() : node.getRight();
+                }
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+        
+        @Override
+        public T next() {
+            if (stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            NodeRB<T> node = stack.pop();
+            NodeRB<T> next = descending ? node.getLeft() : node.getRight();
+            while (next != TNULL && next != null) {
+                stack.push(next);
+                next = descending ? next.getRight() : next.getLeft();
+            }
+            return node.getElement();
+        }
+    }
 }
@@ -0,0 +1,173 @@
+package br.com.hybridIndexer.datastructures;
+
+import br.com.hybridIndexer.model.Transaction;
+import br.com.hybridIndexer.util.HashLinearTrial;
+import br.com.hybridIndexer.util.HeapEstimate;
+import br.com.hybridIndexer.util.LongIntHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice por id sobre vetores primitivos.
+ * As transações ficam em um vetor de linhas e um LongIntHashMap leva o hash
+ * de 64 bits do id (HashStrategy.hash64, com a semente da tabela) à linha, sem objetos intermediários nem equals durante a
+ * sondagem: apenas a linha encontrada tem o id conferido. Ids distintos com
+ * o mesmo hash de 64 bits (muito raros) ficam em um mapa de transbordo por id.
+ */
+class RowIdIndex {
+    private Transaction[] rows;
+    private int rowCount;              // linhas já usadas alguma vez (as livres estão em freeRows)
+    private int[] freeRows;
+    private int freeCount;
+    private final LongIntHashMap rowByHash;
+    private final HashLinearTrial<String, Transaction> overflow;
+    private int size;
+    private final HashStrategy hashStrategy;
+    
+    RowIdIndex(int capacity, HashStrategy hashStrategy) {
+        this.rows = new Transaction[Math.max(16, capacity)];
+        this.freeRows = new int[16];
+        this.rowByHash = new LongIntHashMap(capacity, -1);
+        this.overflow = new HashLinearTrial<>(16, hashStrategy::hash);
+        this.hashStrategy = hashStrategy;
+    }
+    
+    private long hash64(String id) {
+        return hashStrategy.hash64(id);
+    }
+    
+    /**
+     * Busca a transação pelo id
+     * @return A transação ou null se não existir
+     */
+    Transaction get(String id) {
+        int row = rowByHash.get(hash64(id));
+        if (row >= 0 && rows[row].getId().equals(id)) {
+            return rows[row];
+        }
+        return overflow.isEmpty() ? null : overflow.get(id);
+    }
+    
+    /**
+     * Insere a transação, substituindo a de mesmo id
+     * @return A transação substituída ou null
+     */
+    Transaction put(Transaction transaction) {
+        String id = transaction.getId();
+        long h = hash64(id);
+        int row = rowByHash.get(h);
+        
+        if (row < 0) {
+            row = allocateRow();
+            rows[row] = transaction;
+            rowByHash.put(h, row);
+            size++;
+            return null;
+        }
+        if (rows[row].getId().equals(id)) {
+            Transaction previous = rows[row];
+            rows[row] = transaction;
+            return previous;
+        }
+        
+        // Colisão de 64 bits entre ids distintos
+        Transaction previous = overflow.get(id);
+        overflow.put(id, transaction);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+    
+    /**
+     * Remove a transação pelo id
+     * @return A transação removida ou null se não existir
+     */
+    Transaction remove(String id) {
+        long h = hash64(id);
+        int row = rowByHash.get(h);
+        
+        if (row >= 0 && rows[row].getId().equals(id)) {
+            Transaction removed = rows[row];
+            rows[row] = null;
+            rowByHash.remove(h);
+            releaseRow(row);
+            size--;
+            return removed;
+        }
+        
+        if (overflow.isEmpty()) {
+            return null;
+        }
+        Transaction removed = overflow.get(id);
+        if (removed != null) {
+            overflow.delete(id);
+            size--;
+        }
+        return removed;
+    }
+    
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (rowCount == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+        }
+        return rowCount++;
+    }
+    
+    private void releaseRow(int row) {
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeRows.length * 2);
+        }
+        freeRows[freeCount++] = row;
+    }
+    
+    /**
+     * Todas as transações indexadas
+     */
+    List<Transaction> values() {
+        List<Transaction> all = new ArrayList<>(size);
+        for (int i = 0; i < rowCount; i++) {
+            if (rows[i] != null) {
+                all.add(rows[i]);
+            }
+        }
+        all.addAll(overflow.values());
+        return all;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Posições visitadas nos mapas, para a contagem de comparações
+     */
+    long getProbes() {
+        return rowByHash.getProbes() + overflow.getProbes();
+    }
+    
+    int capacity() {
+        return rowByHash.capacity();
+    }
+    
+    int maxProbeLength() {
+        return rowByHash.maxProbeLength();
+    }
+    
+    int overflowSize() {
+        return overflow.size();
+    }
+    
+    /**
+     * Memória estimada do índice (vetores e mapas), sem as transações
+     */
+    long estimatedBytes() {
+        return HeapEstimate.object(2 * HeapEstimate.REFERENCE + 4 * 3 + 2 * HeapEstimate.REFERENCE)
+            + HeapEstimate.referenceArray(rows.length) + HeapEstimate.array(freeRows.length, 4)
+            + rowByHash.estimatedBytes() + overflow.estimatedBytes();
+    }
+}
@@ -0,0 +1,228 @@
+package br.com.hybridIndexer.datastructures;
+
+import br.com.hybridIndexer.model.Transaction;
+import br.com.hybridIndexer.util.HeapEstimate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cache dos resultados de busca por (origem, início, fim) da HybridHashTable.
+ * O limite é em transações referenciadas, não em entradas: cada resultado
+ * pesa o seu tamanho mais um, e os menos usados recentemente (LRU) saem até
+ * o total caber no limite. Resultados maiores que 1/4 do limite não são
+ * guardados, para que uma busca larga não expulse muitas pequenas.
+ * Cada origem com resultados guardados tem um contador de versão, que a
+ * tabela incrementa a cada escrita na origem; um resultado guardado com
+ * versão anterior está vencido e é descartado na próxima consulta. Assim
+ * uma escrita custa uma consulta ao mapa de versões e invalida apenas os
+ * resultados da sua origem.
+ */
+final class SearchCache {
+    
+    /**
+     * Versão de uma origem e quantos resultados guardados a referenciam
+     */
+    private static final class Version {
+        long value;
+        int entries;
+    }
+    
+    private static final class Key {
+        final String origem;
+        final String startDate;
+        final String endDate;
+        final int hash;
+        
+        Key(String origem, String startDate, String endDate) {
+            this.origem = origem;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.hash = Objects.hash(origem, startDate, endDate);
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hash == other.hash && origem.equals(other.origem)
+                && Objects.equals(startDate, other.startDate) && Objects.equals(endDate, other.endDate);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+    
+    private static final class Entry {
+        final List<Transaction> result;
+        final Version version;
+        final long versionValue;
+        
+        Entry(List<Transaction> result, Version version) {
+            this.result = result;
+            this.version = version;
+            this.versionValue = version.value;
+        }
+        
+        int weight() {
+            return result.size() + 1;
+        }
+    }
+    
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Version> versions = new HashMap<>();
+    private final long maxWeight;
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    
+    /**
+     * @param maxTransactions Limite de transações referenciadas pelos resultados guardados
+     */
+    SearchCache(long maxTransactions) {
+        this.maxWeight = maxTransactions;
+    }
+    
+    /**
+     * Resultado guardado da busca, se ainda estiver válido
+     * @return O resultado ou null (ausente ou vencido)
+     */
+    List<Transaction> get(String origem, String startDate, String endDate) {
+        Key key = new Key(origem, startDate, endDate);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.versionValue != entry.version.value) {
+            remove(key, entry);
+            invalidations++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.result;
+    }
+    
+    /**
+     * Guarda o resultado de uma busca, descartando os menos usados se preciso
+     */
+    void put(String origem, String startDate, String endDate, List<Transaction> result) {
+        if (result.size() + 1 > maxWeight / 4) {
+            return;
+        }
+        Version version = versions.computeIfAbsent(origem, k -> new Version());
+        Entry entry = new Entry(result, version);
+        Key key = new Key(origem, startDate, endDate);
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            weight -= previous.weight();
+            previous.version.entries--;
+        }
+        version.entries++;
+        weight += entry.weight();
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            Map.Entry<Key, Entry> e = eldest.next();
+            eldest.remove();
+            release(e.getKey(), e.getValue());
+            evictions++;
+        }
+    }
+    
+    /**
+     * Invalida os resultados guardados de uma origem (escrita na origem)
+     */
+    void invalidate(String origem) {
+        Version version = versions.get(origem);
+        if (version != null) {
+            version.value++;
+        }
+    }
+    
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+        release(key, entry);
+    }
+    
+    private void release(Key key, Entry entry) {
+        weight -= entry.weight();
+        if (--entry.version.entries == 0) {
+            versions.remove(key.origem);
+        }
+    }
+    
+    /**
+     * Descarta todos os resultados guardados
+     */
+    void clear() {
+        entries.clear();
+        versions.clear();
+        weight = 0;
+    }
+    
+    long getMaxTransactions() {
+        return maxWeight;
+    }
+    
+    int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Transações referenciadas pelos resultados guardados
+     */
+    long cachedTransactions() {
+        return weight - entries.size();
+    }
+    
+    long getHits() {
+        return hits;
+    }
+    
+    long getMisses() {
+        return misses;
+    }
+    
+    long getEvictions() {
+        return evictions;
+    }
+    
+    /**
+     * Resultados descartados por estarem vencidos
+     */
+    long getInvalidations() {
+        return invalidations;
+    }
+    
+    /**
+     * Memória estimada: entradas dos mapas, chaves, versões e as listas dos
+     * resultados (as transações são compartilhadas com a tabela)
+     */
+    long estimatedBytes() {
+        long mapEntry = HeapEstimate.object(5 * HeapEstimate.REFERENCE + 4);    // nó do LinkedHashMap
+        long key = HeapEstimate.object(3 * HeapEstimate.REFERENCE + 4);
+        long entry = HeapEstimate.object(2 * HeapEstimate.REFERENCE + 8);
+        long list = HeapEstimate.object(2 * HeapEstimate.REFERENCE)            // lista imutável
+            + HeapEstimate.object(HeapEstimate.REFERENCE + 8);                 // ArrayList
+        long bytes = HeapEstimate.object(3 * HeapEstimate.REFERENCE + 6 * 8)
+            + HeapEstimate.referenceArray(tableLength(entries.size()))
+            + HeapEstimate.referenceArray(tableLength(versions.size()));
+        bytes += entries.size() * (mapEntry + key + entry + list + HeapEstimate.referenceArray(0))
+            + (long) HeapEstimate.REFERENCE * cachedTransactions();
+        bytes += versions.size() * (HeapEstimate.object(3 * HeapEstimate.REFERENCE + 4)
+            + HeapEstimate.object(8 + 4));
+        return bytes;
+    }
+    
+    private static int tableLength(int size) {
+        return Math.max(16, Integer.highestOneBit(Math.max(1, size * 4 / 3)) << 1);
+    }
+}
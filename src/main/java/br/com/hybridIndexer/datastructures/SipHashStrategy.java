@@ -0,0 +1,102 @@
+package br.com.hybridIndexer.datastructures;
+
+import java.security.SecureRandom;
+
+/**
+ * SipHash-1-3 sobre os caracteres da chave, com chave de 128 bits derivada
+ * de uma semente. Cada quatro caracteres formam uma palavra de 64 bits.
+ */
+public class SipHashStrategy implements HashStrategy {
+    private static final SecureRandom SEEDS = new SecureRandom();
+    
+    private final long k0;
+    private final long k1;
+    
+    /**
+     * Cria a estratégia com semente aleatória
+     */
+    public SipHashStrategy() {
+        this(SEEDS.nextLong(), SEEDS.nextLong());
+    }
+    
+    /**
+     * Cria a estratégia com semente fixa
+     */
+    public SipHashStrategy(long seed) {
+        this(mix(seed), mix(seed + 0x9e3779b97f4a7c15L));
+    }
+    
+    private SipHashStrategy(long k0, long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+    
+    @Override
+    public boolean isSeeded() {
+        return true;
+    }
+    
+    /**
+     * Finalizador do SplitMix64, para derivar as duas metades da chave
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+    
+    @Override
+    public int hash(String key) {
+        long h = hash64(key);
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    /**
+     * Saída completa de 64 bits do SipHash
+     */
+    @Override
+    public long hash64(String key) {
+        long v0 = k0 ^ 0x736f6d6570736575L;
+        long v1 = k1 ^ 0x646f72616e646f6dL;
+        long v2 = k0 ^ 0x6c7967656e657261L;
+        long v3 = k1 ^ 0x7465646279746573L;
+        
+        int length = key.length();
+        int blocks = length >>> 2;
+        for (int i = 0; i <= blocks; i++) {
+            long m;
+            if (i < blocks) {
+                int c = i << 2;
+                m = key.charAt(c)
+                    | (long) key.charAt(c + 1) << 16
+                    | (long) key.charAt(c + 2) << 32
+                    | (long) key.charAt(c + 3) << 48;
+            } else {
+                // Último bloco: caracteres restantes e o tamanho em bytes no byte mais alto
+                m = (long) (length << 1) << 56;
+                for (int c = blocks << 2, shift = 0; c < length; c++, shift += 16) {
+                    m |= (long) key.charAt(c) << shift;
+                }
+            }
+            
+            v3 ^= m;
+            // Uma rodada de compressão
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+            v0 ^= m;
+        }
+        
+        v2 ^= 0xff;
+        // Três rodadas de finalização
+        for (int r = 0; r < 3; r++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+}
@@ -0,0 +1,284 @@
+package br.com.hybridIndexer.datastructures;
+
+import br.com.hybridIndexer.util.HeapEstimate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Bucket compacto para chaves com poucos elementos: um único vetor ordenado.
+ * Busca por posição é binária e percursos leem elementos vizinhos na memória,
+ * sem um nó e dois ponteiros por elemento como na AVL. Inserções e remoções
+ * deslocam o final do vetor, o que é barato enquanto o bucket é pequeno; a
+ * HybridHashTable o troca por uma AVL quando passa do limite da política.
+ *
+ * @param <T> Tipo de dados armazenado (deve ser comparável)
+ */
+public class SortedArrayBucket<T extends Comparable<T>> implements BalancedTree<T> {
+    private static final int INITIAL_CAPACITY = 4;
+    
+    private Object[] elements;
+    private int size;
+    
+    /**
+     * Construtor padrão
+     */
+    public SortedArrayBucket() {
+        this(INITIAL_CAPACITY);
+    }
+    
+    /**
+     * Construtor com a capacidade inicial do vetor
+     * @param capacity Número de elementos reservados (mínimo 1)
+     */
+    public SortedArrayBucket(int capacity) {
+        this.elements = new Object[Math.max(1, capacity)];
+        this.size = 0;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private T get(int index) {
+        return (T) elements[index];
+    }
+    
+    /**
+     * Busca binária
+     * @return Posição do valor, ou -(ponto de inserção + 1) se não existir
+     */
+    private int search(T value) {
+        int low = 0, high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = get(mid).compareTo(value);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    /**
+     * Insere mantendo a ordem; valores duplicados não são inseridos
+     */
+    @Override
+    public void insert(T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Valor não pode ser null");
+        }
+        int pos = search(value);
+        if (pos >= 0) {
+            return;
+        }
+        int index = -(pos + 1);
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, elements.length * 2);
+        }
+        System.arraycopy(elements, index, elements, index + 1, size - index);
+        elements[index] = value;
+        size++;
+    }
+    
+    @Override
+    public boolean remove(T value) {
+        if (value == null) {
+            return false;
+        }
+        int index = search(value);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        elements[--size] = null;
+        return true;
+    }
+    
+    @Override
+    public boolean find(T value) {
+        return value != null && search(value) >= 0;
+    }
+    
+    /**
+     * Um vetor não tem níveis: a altura é 1 se houver elementos
+     */
+    @Override
+    public int getHeight() {
+        return size == 0 ? 0 : 1;
+    }
+    
+    /**
+     * O vetor inteiro, inclusive as posições reservadas e ainda livres
+     */
+    @Override
+    public long estimatedBytes() {
+        return HeapEstimate.object(HeapEstimate.REFERENCE + 4) + HeapEstimate.referenceArray(elements.length);
+    }
+    
+    /**
+     * Libera as posições reservadas além do tamanho atual
+     * @return Bytes estimados liberados
+     */
+    public long trimToSize() {
+        int length = Math.max(1, size);
+        if (elements.length == length) {
+            return 0;
+        }
+        long before = estimatedBytes();
+        elements = Arrays.copyOf(elements, length);
+        return before - estimatedBytes();
+    }
+    
+    @Override
+    public void printInOrder() {
+        inOrderTraversal(value -> System.out.print(value + " "));
+        System.out.println();
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Menor elemento
+     * @return O menor elemento ou null se o bucket estiver vazio
+     */
+    public T first() {
+        return size == 0 ? null : get(0);
+    }
+    
+    @Override
+    public void inOrderTraversal(Consumer<T> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(get(i));
+        }
+    }
+    
+    /**
+     * Localiza o limite inferior por busca binária e segue pelo vetor
+     */
+    @Override
+    public void rangeTraversal(T from, T to, Consumer<T> action) {
+        int pos = search(from);
+        for (int i = pos >= 0 ? pos : -(pos + 1); i < size; i++) {
+            T value = get(i);
+            if (value.compareTo(to) > 0) {
+                return;
+            }
+            action.accept(value);
+        }
+    }
+    
+    /**
+     * Descreve [from, to] como fatias do vetor com cerca de grain elementos
+     * cada, para a coleta paralela; os dois limites saem de buscas binárias
+     * @param from Limite inferior (inclusivo); null para começar do menor elemento
+     * @param to Limite superior (inclusivo); null para ir até o maior elemento
+     */
+    void addRangeChunks(T from, T to, RangeCollector<T> collector) {
+        int start = 0;
+        int end = size;
+        if (from != null) {
+            int pos = search(from);
+            start = pos >= 0 ? pos : -(pos + 1);
+        }
+        if (to != null) {
+            int pos = search(to);
+            end = pos >= 0 ? pos + 1 : -(pos + 1);
+        }
+        collector.addVisited(2L * (32 - Integer.numberOfLeadingZeros(size)));
+        for (int i = start; i < end; i += collector.grain()) {
+            collector.add(new Slice(elements, i, Math.min(collector.grain(), end - i)));
+        }
+    }
+    
+    /**
+     * Fatia contígua do vetor
+     */
+    private static final class Slice implements RangeCollector.Chunk {
+        private final Object[] elements;
+        private final int index;
+        private final int length;
+        
+        Slice(Object[] elements, int index, int length) {
+            this.elements = elements;
+            this.index = index;
+            this.length = length;
+        }
+        
+        @Override
+        public int length() {
+            return length;
+        }
+        
+        @Override
+        public void copyTo(Object[] out, int offset) {
+            System.arraycopy(elements, index, out, offset, length);
+        }
+    }
+    
+    @Override
+    public Iterator<T> iterator() {
+        return new ArrayIterator(0, false);
+    }
+    
+    @Override
+    public Iterator<T> iterator(T from) {
+        if (from == null) {
+            return iterator();
+        }
+        int pos = search(from);
+        return new ArrayIterator(pos >= 0 ? pos : -(pos + 1), false);
+    }
+    
+    @Override
+    public Iterator<T> descendingIterator() {
+        return new ArrayIterator(size - 1, true);
+    }
+    
+    @Override
+    public Iterator<T> descendingIterator(T from) {
+        if (from == null) {
+            return descendingIterator();
+        }
+        int pos = search(from);
+        return new ArrayIterator(pos >= 0 ? pos : -(pos + 1) - 1, true);
+    }
+    
+    /**
+     * Iterador que apenas avança (ou recua) um índice no vetor
+     */
+    private class ArrayIterator implements Iterator<T> {
+        private int index;
+        private final boolean descending;
+        
+        ArrayIterator(int index, boolean descending) {
+            this.index = index;
+            this.descending = descending;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return index >= 0 && index < size;
+        }
+        
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T value = get(index);
+            index += descending ? -1 : 1;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package br.com.hybridIndexer.datastructures;
+
+import br.com.hybridIndexer.model.Transaction;
+import br.com.hybridIndexer.util.HeapEstimate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Bucket dividido em partições de tempo: um diretório ordenado com o período
+ * de cada partição (prefixo do timestamp, por exemplo "2023-05" para meses)
+ * e uma estrutura por partição. Buscas por intervalo localizam a primeira
+ * partição por busca binária no diretório e só abrem as seguintes enquanto o
+ * intervalo continua, então períodos fora de [início, fim] não são visitados.
+ * Cada partição escala sozinha, de vetor ordenado direto para Árvore B+, cujas
+ * folhas contíguas são as mais rápidas de percorrer por intervalo; como a
+ * partição tem o tamanho de um período, e não de toda a história da chave,
+ * as inserções na B+ continuam baratas. Partições antigas podem ser congeladas (compactadas em
+ * um vetor ordenado sem folga) ou descartadas inteiras.
+ */
+public class TimePartitionedBucket implements BalancedTree<Transaction> {
+    private static final int INITIAL_PARTITIONS = 4;
+    
+    private final EscalationPolicy policy;
+    private final int prefixLength;
+    private String[] periods;       // período de cada partição, em ordem crescente
+    private Object[] partitions;    // BalancedTree<Transaction> de cada partição
+    private boolean[] frozen;
+    private int count;
+    private int size;
+    
+    /**
+     * @param policy Limites de escalonamento das partições; o período é lido agora
+     */
+    public TimePartitionedBucket(EscalationPolicy policy) {
+        this.policy = policy;
+        this.prefixLength = policy.getPartitionPeriod().getPrefixLength();
+        this.periods = new String[INITIAL_PARTITIONS];
+        this.partitions = new Object[INITIAL_PARTITIONS];
+        this.frozen = new boolean[INITIAL_PARTITIONS];
+    }
+    
+    /**
+     * Estrutura da partição na posição index do diretório
+     */
+    @SuppressWarnings("unchecked")
+    BalancedTree<Transaction> partition(int index) {
+        return (BalancedTree<Transaction>) partitions[index];
+    }
+    
+    /**
+     * Compara o período do timestamp com o de uma partição sem criar a substring
+     */
+    private int comparePeriod(String timestamp, String period) {
+        int length = Math.min(timestamp.length(), prefixLength);
+        for (int i = 0; i < length && i < period.length(); i++) {
+            int diff = timestamp.charAt(i) - period.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - period.length();
+    }
+    
+    /**
+     * Busca binária no diretório
+     * @return Posição da partição do timestamp, ou -(ponto de inserção + 1) se não existir
+     */
+    private int indexOf(String timestamp) {
+        int low = 0, high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = comparePeriod(timestamp, periods[mid]);
+            if (cmp > 0) {
+                low = mid + 1;
+            } else if (cmp < 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    
+    /**
+     * Partições com período anterior ao do timestamp (elas ficam no início do diretório)
+     */
+    private int countBefore(String timestamp) {
+        int pos = indexOf(timestamp);
+        return pos >= 0 ? pos : -(pos + 1);
+    }
+    
+    @Override
+    public void insert(Transaction value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Valor não pode ser null");
+        }
+        int index = indexOf(value.getTimestamp());
+        if (index < 0) {
+            index = -(index + 1);
+            addPartition(index, value.getTimestamp());
+        }
+        BalancedTree<Transaction> tree = partition(index);
+        int before = tree.size();
+        // Escrita em partição congelada: ela volta a escalar normalmente
+        frozen[index] = false;
+        tree.insert(value);
+        size += tree.size() - before;
+        escalate(index);
+    }
+    
+    private void addPartition(int index, String timestamp) {
+        if (count == periods.length) {
+            periods = Arrays.copyOf(periods, count * 2);
+            partitions = Arrays.copyOf(partitions, count * 2);
+            frozen = Arrays.copyOf(frozen, count * 2);
+        }
+        System.arraycopy(periods, index, periods, index + 1, count - index);
+        System.arraycopy(partitions, index, partitions, index + 1, count - index);
+        System.arraycopy(frozen, index, frozen, index + 1, count - index);
+        periods[index] = timestamp.substring(0, Math.min(timestamp.length(), prefixLength));
+        partitions[index] = new SortedArrayBucket<Transaction>();
+        frozen[index] = false;
+        count++;
+    }
+    
+    private void removePartitions(int from, int to) {
+        System.arraycopy(periods, to, periods, from, count - to);
+        System.arraycopy(partitions, to, partitions, from, count - to);
+        System.arraycopy(frozen, to, frozen, from, count - to);
+        int newCount = count - (to - from);
+        Arrays.fill(periods, newCount, count, null);
+        Arrays.fill(partitions, newCount, count, null);
+        count = newCount;
+    }
+    
+    /**
+     * Vetor ordenado que passou do limite do vetor vira Árvore B+
+     */
+    private void escalate(int index) {
+        BalancedTree<Transaction> tree = partition(index);
+        if (tree instanceof SortedArrayBucket && tree.size() > policy.getSmallBucketThreshold()) {
+            BPlusTree<Transaction> bplus = new BPlusTree<>();
+            tree.inOrderTraversal(bplus::insert);
+            partitions[index] = bplus;
+        }
+    }
+    
+    /**
+     * Árvore B+ com até metade do limite do vetor ordenado volta a ser vetor,
+     * com a mesma margem usada pela HybridHashTable
+     */
+    private void deEscalate(int index) {
+        BalancedTree<Transaction> tree = partition(index);
+        if (tree instanceof BPlusTree && tree.size() <= policy.getSmallBucketThreshold() / 2) {
+            SortedArrayBucket<Transaction> array = new SortedArrayBucket<>(policy.getSmallBucketThreshold());
+            tree.inOrderTraversal(array::insert);
+            partitions[index] = array;
+        }
+    }
+    
+    @Override
+    public boolean remove(Transaction value) {
+        if (value == null) {
+            return false;
+        }
+        int index = indexOf(value.getTimestamp());
+        if (index < 0 || !partition(index).remove(value)) {
+            return false;
+        }
+        size--;
+        if (partition(index).isEmpty()) {
+            removePartitions(index, index + 1);
+        } else if (!frozen[index]) {
+            deEscalate(index);
+        }
+        return true;
+    }
+    
+    @Override
+    public boolean find(Transaction value) {
+        if (value == null) {
+            return false;
+        }
+        int index = indexOf(value.getTimestamp());
+        return index >= 0 && partition(index).find(value);
+    }
+    
+    /**
+     * Compacta as partições de período anterior ao do timestamp em vetores
+     * ordenados sem folga. A busca continua binária e cada transação passa a
+     * custar uma referência, em vez de um nó da árvore; uma nova escrita na
+     * partição a faz escalar de novo.
+     * @return Partições congeladas agora
+     */
+    public int freezeBefore(String timestamp) {
+        int frozenNow = 0;
+        for (int i = 0, end = countBefore(timestamp); i < end; i++) {
+            if (frozen[i]) {
+                continue;
+            }
+            BalancedTree<Transaction> tree = partition(i);
+            SortedArrayBucket<Transaction> array = new SortedArrayBucket<>(tree.size());
+            tree.inOrderTraversal(array::insert);
+            partitions[i] = array;
+            frozen[i] = true;
+            frozenNow++;
+        }
+        return frozenNow;
+    }
+    
+    /**
+     * Descarta inteiras as partições de período anterior ao do timestamp
+     * @param dropped Recebe cada transação descartada, para os outros índices
+     * @return Partições descartadas
+     */
+    public int dropBefore(String timestamp, Consumer<Transaction> dropped) {
+        int end = countBefore(timestamp);
+        for (int i = 0; i < end; i++) {
+            BalancedTree<Transaction> tree = partition(i);
+            tree.inOrderTraversal(dropped);
+            size -= tree.size();
+        }
+        removePartitions(0, end);
+        return end;
+    }
+    
+    public int partitionCount() {
+        return count;
+    }
+    
+    public int frozenCount() {
+        int frozenPartitions = 0;
+        for (int i = 0; i < count; i++) {
+            if (frozen[i]) {
+                frozenPartitions++;
+            }
+        }
+        return frozenPartitions;
+    }
+    
+    /**
+     * Período da partição mais antiga, ou null se o bucket estiver vazio
+     */
+    public String oldestPeriod() {
+        return count == 0 ? null : periods[0];
+    }
+    
+    /**
+     * O diretório conta como um nível acima da partição mais alta
+     */
+    @Override
+    public int getHeight() {
+        int height = 0;
+        for (int i = 0; i < count; i++) {
+            height = Math.max(height, partition(i).getHeight());
+        }
+        return count == 0 ? 0 : height + 1;
+    }
+    
+    @Override
+    public void printInOrder() {
+        inOrderTraversal(value -> System.out.print(value + " "));
+        System.out.println();
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Diretório com os períodos e as estruturas de todas as partições
+     */
+    @Override
+    public long estimatedBytes() {
+        long bytes = HeapEstimate.object(4 * HeapEstimate.REFERENCE + 3 * 4)
+            + HeapEstimate.referenceArray(periods.length) + HeapEstimate.referenceArray(partitions.length)
+            + HeapEstimate.array(frozen.length, 1);
+        for (int i = 0; i < count; i++) {
+            bytes += HeapEstimate.string(periods[i]) + partition(i).estimatedBytes();
+        }
+        return bytes;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Menor elemento
+     * @return O menor elemento ou null se o bucket estiver vazio
+     */
+    public Transaction first() {
+        return count == 0 ? null : partition(0).iterator().next();
+    }
+    
+    @Override
+    public void inOrderTraversal(Consumer<Transaction> action) {
+        for (int i = 0; i < count; i++) {
+            partition(i).inOrderTraversal(action);
+        }
+    }
+    
+    /**
+     * Percorre apenas as partições cujo período cruza [from, to]
+     */
+    @Override
+    public void rangeTraversal(Transaction from, Transaction to, Consumer<Transaction> action) {
+        for (int i = countBefore(from.getTimestamp());
+             i < count && comparePeriod(to.getTimestamp(), periods[i]) >= 0; i++) {
+            partition(i).rangeTraversal(from, to, action);
+        }
+    }
+    
+    /**
+     * Descreve [from, to] para a coleta paralela: cada partição que cruza o
+     * intervalo contribui com os seus trechos, então uma busca larga se
+     * divide entre as partições e, dentro das grandes, entre as folhas
+     * @param from Limite inferior (inclusivo); null para começar do menor elemento
+     * @param to Limite superior (inclusivo); null para ir até o maior elemento
+     */
+    @SuppressWarnings("unchecked")
+    void addRangeChunks(Transaction from, Transaction to, RangeCollector<Transaction> collector) {
+        int i = from == null ? 0 : countBefore(from.getTimestamp());
+        for (; i < count && (to == null || comparePeriod(to.getTimestamp(), periods[i]) >= 0); i++) {
+            collector.addVisited(1);
+            if (partitions[i] instanceof BPlusTree) {
+                ((BPlusTree<Transaction>) partitions[i]).addRangeChunks(from, to, collector);
+            } else {
+                ((SortedArrayBucket<Transaction>) partitions[i]).addRangeChunks(from, to, collector);
+            }
+        }
+    }
+    
+    @Override
+    public Iterator<Transaction> iterator() {
+        return new PartitionIterator(0, null, false);
+    }
+    
+    @Override
+    public Iterator<Transaction> iterator(Transaction from) {
+        if (from == null) {
+            return iterator();
+        }
+        return new PartitionIterator(countBefore(from.getTimestamp()), from, false);
+    }
+    
+    @Override
+    public Iterator<Transaction> descendingIterator() {
+        return new PartitionIterator(count - 1, null, true);
+    }
+    
+    @Override
+    public Iterator<Transaction> descendingIterator(Transaction from) {
+        if (from == null) {
+            return descendingIterator();
+        }
+        int pos = indexOf(from.getTimestamp());
+        return new PartitionIterator(pos >= 0 ? pos : -(pos + 1) - 1, from, true);
+    }
+    
+    /**
+     * Iterador que encadeia os cursores das partições, abrindo a próxima só
+     * quando a atual termina: quem para de consumir (fim do intervalo da
+     * busca) nunca toca as partições seguintes.
+     */
+    private class PartitionIterator implements Iterator<Transaction> {
+        private int index;
+        private Iterator<Transaction> current;
+        private final boolean descending;
+        
+        PartitionIterator(int index, Transaction from, boolean descending) {
+            this.index = index;
+            this.descending = descending;
+            if (index >= 0 && index < count) {
+                BalancedTree<Transaction> tree = partition(index);
+                current = descending ? tree.descendingIterator(from) : tree.iterator(from);
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            while (current != null && !current.hasNext()) {
+                index += descending ? -1 : 1;
+                if (index < 0 || index >= count) {
+                    current = null;
+                } else {
+                    current = descending ? partition(index).descendingIterator() : partition(index).iterator();
+                }
+            }
+            return current != null;
+        }
+        
+        @Override
+        public Transaction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
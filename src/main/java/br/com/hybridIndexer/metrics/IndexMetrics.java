@@ -0,0 +1,273 @@
+package br.com.hybridIndexer.metrics;
+
+import br.com.hybridIndexer.util.StripedHistogram;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registro de métricas de uma HybridHashTable.
+ * Todos os contadores são LongAdder (ou histogramas sobre LongAdder), então
+ * podem ser lidos de outra thread, por exemplo pelo JMX, enquanto a tabela é
+ * usada, e somam corretamente mesmo com várias tabelas ou threads gravando.
+ * Registra comparações e atribuições, comprimentos de sondagem, trocas de
+ * estrutura dos buckets, redimensionamentos, buscas descartadas pelo filtro
+ * de chaves e a latência de cada operação.
+ */
+public class IndexMetrics implements IndexMetricsMXBean {
+    public static final String JMX_DOMAIN = "br.com.hybridIndexer";
+    
+    /**
+     * Operações cronometradas
+     */
+    public enum Operation {
+        PUT,
+        GET_BY_ID,
+        REMOVE,
+        UPDATE,
+        SEARCH
+    }
+    
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder assignments = new LongAdder();
+    private final StripedHistogram probeLengths = new StripedHistogram();
+    private final LongAdder filterRejections = new LongAdder();
+    private final Map<String, LongAdder> transitions = new ConcurrentHashMap<>();
+    private final StripedHistogram resizeNanos = new StripedHistogram();
+    private final Map<Operation, StripedHistogram> latencies = new EnumMap<>(Operation.class);
+    private volatile boolean timingEnabled = true;
+    private ObjectName objectName;
+    
+    public IndexMetrics() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new StripedHistogram());
+        }
+    }
+    
+    public void addComparisons(long count) {
+        comparisons.add(count);
+    }
+    
+    public void addAssignments(long count) {
+        assignments.add(count);
+    }
+    
+    /**
+     * Zera apenas comparações e atribuições, para medir um trecho isolado
+     */
+    public void resetCounters() {
+        comparisons.reset();
+        assignments.reset();
+    }
+    
+    /**
+     * Registra uma sondagem (posições visitadas até encontrar a chave ou desistir)
+     */
+    public void recordProbeLength(int slots) {
+        probeLengths.record(slots);
+    }
+    
+    /**
+     * Registra uma busca respondida pelo filtro de chaves, sem sondagem
+     */
+    public void countFilterRejection() {
+        filterRejections.increment();
+    }
+    
+    /**
+     * Registra a troca de estrutura de um bucket
+     */
+    public void recordTransition(String from, String to) {
+        transitions.computeIfAbsent(from + "->" + to, k -> new LongAdder()).increment();
+    }
+    
+    public void recordResize(long nanos) {
+        resizeNanos.record(nanos);
+    }
+    
+    /**
+     * Início da cronometragem de uma operação
+     * @return Instante em nanossegundos, ou 0 com a cronometragem desligada
+     */
+    public long startTimer() {
+        return timingEnabled ? System.nanoTime() : 0;
+    }
+    
+    /**
+     * Registra a latência de uma operação iniciada por startTimer()
+     */
+    public void recordLatency(Operation operation, long start) {
+        if (start != 0) {
+            latencies.get(operation).record(System.nanoTime() - start);
+        }
+    }
+    
+    public StripedHistogram getLatencyHistogram(Operation operation) {
+        return latencies.get(operation);
+    }
+    
+    public StripedHistogram getProbeLengths() {
+        return probeLengths;
+    }
+    
+    /**
+     * Registra este objeto no servidor de MBeans da plataforma como
+     * br.com.hybridIndexer:type=HybridHashTable,name=nome, substituindo um
+     * registro anterior com o mesmo nome
+     * @return Nome JMX registrado
+     * @throws IllegalStateException se o registro falhar
+     */
+    public synchronized ObjectName registerMBean(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName newName = new ObjectName(JMX_DOMAIN + ":type=HybridHashTable,name=" + ObjectName.quote(name));
+            unregisterMBean();
+            if (server.isRegistered(newName)) {
+                server.unregisterMBean(newName);
+            }
+            server.registerMBean(this, newName);
+            objectName = newName;
+            return newName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Falha ao registrar métricas no JMX: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Remove o registro JMX, se houver
+     */
+    public synchronized void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Falha ao remover métricas do JMX: " + e.getMessage(), e);
+        } finally {
+            objectName = null;
+        }
+    }
+    
+    @Override
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+    
+    @Override
+    public long getAssignments() {
+        return assignments.sum();
+    }
+    
+    @Override
+    public Map<String, Long> getProbeLengthHistogram() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        probeLengths.buckets().forEach((bound, count) -> histogram.put(String.valueOf(bound), count));
+        return histogram;
+    }
+    
+    @Override
+    public double getProbeLengthMean() {
+        return probeLengths.getMean();
+    }
+    
+    @Override
+    public long getProbeLengthP99() {
+        return probeLengths.percentile(99);
+    }
+    
+    @Override
+    public long getProbeLengthMax() {
+        return probeLengths.getMax();
+    }
+    
+    @Override
+    public long getFilterRejections() {
+        return filterRejections.sum();
+    }
+    
+    @Override
+    public Map<String, Long> getTransitions() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        transitions.forEach((key, count) -> snapshot.put(key, count.sum()));
+        return snapshot;
+    }
+    
+    @Override
+    public long getResizeCount() {
+        return resizeNanos.getCount();
+    }
+    
+    @Override
+    public double getResizeTotalMillis() {
+        return resizeNanos.getTotal() / 1e6;
+    }
+    
+    @Override
+    public double getResizeMaxMillis() {
+        return resizeNanos.getMax() / 1e6;
+    }
+    
+    private Map<String, Long> perOperation(ToLongFunction<StripedHistogram> value) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        latencies.forEach((operation, histogram) -> result.put(operation.name(), value.applyAsLong(histogram)));
+        return result;
+    }
+    
+    @Override
+    public Map<String, Long> getOperationCounts() {
+        return perOperation(StripedHistogram::getCount);
+    }
+    
+    @Override
+    public Map<String, Long> getLatencyP50Nanos() {
+        return perOperation(h -> h.percentile(50));
+    }
+    
+    @Override
+    public Map<String, Long> getLatencyP99Nanos() {
+        return perOperation(h -> h.percentile(99));
+    }
+    
+    @Override
+    public Map<String, Long> getLatencyP999Nanos() {
+        return perOperation(h -> h.percentile(99.9));
+    }
+    
+    @Override
+    public Map<String, Long> getLatencyMaxNanos() {
+        return perOperation(StripedHistogram::getMax);
+    }
+    
+    @Override
+    public boolean isTimingEnabled() {
+        return timingEnabled;
+    }
+    
+    @Override
+    public void setTimingEnabled(boolean timingEnabled) {
+        this.timingEnabled = timingEnabled;
+    }
+    
+    @Override
+    public void reset() {
+        comparisons.reset();
+        assignments.reset();
+        probeLengths.reset();
+        filterRejections.reset();
+        transitions.clear();
+        resizeNanos.reset();
+        latencies.values().forEach(StripedHistogram::reset);
+    }
+}
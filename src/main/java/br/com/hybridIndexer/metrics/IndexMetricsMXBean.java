@@ -0,0 +1,69 @@
+package br.com.hybridIndexer.metrics;
+
+import java.util.Map;
+
+/**
+ * Métricas de uma HybridHashTable expostas por JMX (jconsole, VisualVM ou
+ * qualquer coletor JMX). Os contadores são cumulativos desde a criação da
+ * tabela ou da última chamada a reset(); latências em nanossegundos.
+ */
+public interface IndexMetricsMXBean {
+    
+    long getComparisons();
+    
+    long getAssignments();
+    
+    /**
+     * Posições visitadas por sondagem nos índices por chave, por faixa
+     * (chave = maior comprimento da faixa)
+     */
+    Map<String, Long> getProbeLengthHistogram();
+    
+    double getProbeLengthMean();
+    
+    long getProbeLengthP99();
+    
+    long getProbeLengthMax();
+    
+    /**
+     * Buscas de chaves ausentes respondidas pelo filtro de chaves, sem sondagem
+     */
+    long getFilterRejections();
+    
+    /**
+     * Trocas de estrutura dos buckets, por "ORIGEM->DESTINO"
+     * (por exemplo "SORTED_ARRAY->AVL_TREE" ou "AVL_TREE->RED_BLACK_TREE")
+     */
+    Map<String, Long> getTransitions();
+    
+    long getResizeCount();
+    
+    double getResizeTotalMillis();
+    
+    double getResizeMaxMillis();
+    
+    /**
+     * Operações cronometradas, por tipo de operação
+     */
+    Map<String, Long> getOperationCounts();
+    
+    Map<String, Long> getLatencyP50Nanos();
+    
+    Map<String, Long> getLatencyP99Nanos();
+    
+    Map<String, Long> getLatencyP999Nanos();
+    
+    Map<String, Long> getLatencyMaxNanos();
+    
+    boolean isTimingEnabled();
+    
+    /**
+     * Liga ou desliga a cronometragem por operação (duas chamadas a nanoTime por operação)
+     */
+    void setTimingEnabled(boolean timingEnabled);
+    
+    /**
+     * Zera todas as métricas
+     */
+    void reset();
+}
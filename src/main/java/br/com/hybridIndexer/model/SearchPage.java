@@ -0,0 +1,57 @@
+package br.com.hybridIndexer.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados de uma busca paginada por chave (keyset).
+ * A próxima página é pedida passando getNextAfter() como parâmetro "after",
+ * o que continua do ponto exato em que esta parou (timestamp e id), mesmo
+ * que transações tenham sido inseridas ou removidas entre as chamadas.
+ *
+ * @author Sistema de Indexação Híbrida
+ */
+public class SearchPage {
+    private final List<Transaction> items;
+    private final Transaction nextAfter;
+    
+    /**
+     * @param items Transações desta página, na ordem da busca
+     * @param nextAfter Última transação da página quando há mais resultados, ou null
+     */
+    public SearchPage(List<Transaction> items, Transaction nextAfter) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextAfter = nextAfter;
+    }
+    
+    public List<Transaction> getItems() {
+        return items;
+    }
+    
+    /**
+     * Cursor da próxima página (null quando esta é a última)
+     */
+    public Transaction getNextAfter() {
+        return nextAfter;
+    }
+    
+    public boolean hasMore() {
+        return nextAfter != null;
+    }
+    
+    public int size() {
+        return items.size();
+    }
+    
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+    
+    @Override
+    public String toString() {
+        return "SearchPage{" +
+                "items=" + items.size() +
+                ", hasMore=" + hasMore() +
+                '}';
+    }
+}
@@ -8,6 +8,9 @@ import java.util.Objects;
  * @author Sistema de Indexação Híbrida
  */
 public class Transaction implements Comparable<Transaction> {
+    // Id usado apenas pelo limite superior: maior que qualquer id real
+    private static final String MAX_ID = String.valueOf(Character.MAX_VALUE);
+    
     private String id;
     private float valor;
     private String origem;
@@ -101,7 +104,9 @@ public class Transaction implements Comparable<Transaction> {
     }
     
     /**
-     * Compara transações pelo timestamp para ordenação nas árvores
+     * Compara transações pelo timestamp para ordenação nas árvores.
+     * Empates são desfeitos pelo id, para que transações distintas com o mesmo
+     * timestamp não sejam tratadas como duplicatas e a remoção atinja a transação certa.
      */
     @Override
     public int compareTo(Transaction other) {
@@ -109,6 +114,29 @@ public class Transaction implements Comparable<Transaction> {
             return 1;
         }
         // Comparação por timestamp para uso nas árvores balanceadas
-        return this.timestamp.compareTo(other.timestamp);
+        int cmp = this.timestamp.compareTo(other.timestamp);
+        if (cmp != 0) {
+            return cmp;
+        }
+        if (this.id == null || other.id == null) {
+            return (this.id == null ? 0 : 1) - (other.id == null ? 0 : 1);
+        }
+        return this.id.compareTo(other.id);
+    }
+    
+    /**
+     * Cria uma transação sentinela que ordena antes de qualquer transação
+     * com o timestamp informado (limite inferior de buscas por intervalo)
+     */
+    public static Transaction lowerBound(String timestamp) {
+        return new Transaction(null, 0, null, null, timestamp);
+    }
+    
+    /**
+     * Cria uma transação sentinela que ordena depois de qualquer transação
+     * com o timestamp informado (limite superior de buscas por intervalo)
+     */
+    public static Transaction upperBound(String timestamp) {
+        return new Transaction(MAX_ID, 0, null, null, timestamp);
     }
 }
@@ -0,0 +1,140 @@
+package br.com.hybridIndexer.util;
+
+import br.com.hybridIndexer.datastructures.HashStrategy;
+import br.com.hybridIndexer.datastructures.HybridHashTable;
+import br.com.hybridIndexer.model.Transaction;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark de ataque de colisões: gera origens com o mesmo String.hashCode
+ * (combinações dos blocos "Aa" e "BB") e mede inserção e busca na tabela
+ * híbrida com cada estratégia de hash, além da HashLinearTrial com hashCode
+ * e com SipHash. Também usa as mesmas chaves como ids nos índices por id
+ * Robin Hood e em vetores primitivos, que recebem a HashStrategy da tabela.
+ */
+public class CollisionAttackBenchmark {
+    
+    private static final String[] BLOCKS = {"Aa", "BB"}; // "Aa".hashCode() == "BB".hashCode()
+    
+    /**
+     * Gera 2^blocks chaves distintas com o mesmo String.hashCode
+     */
+    public static List<String> collidingKeys(int blocks) {
+        List<String> keys = new ArrayList<>(1 << blocks);
+        for (int mask = 0; mask < (1 << blocks); mask++) {
+            StringBuilder sb = new StringBuilder(blocks * 2);
+            for (int b = 0; b < blocks; b++) {
+                sb.append(BLOCKS[(mask >>> b) & 1]);
+            }
+            keys.add(sb.toString());
+        }
+        return keys;
+    }
+    
+    /**
+     * Insere uma transação por origem e busca cada origem aceita uma vez
+     */
+    private static void runHybrid(String label, HashStrategy strategy, List<String> origens) {
+        HybridHashTable table = new HybridHashTable(512, false, false,
+                                                    HybridHashTable.IdIndex.CHAINING, strategy);
+        List<String> accepted = new ArrayList<>(origens.size());
+        int rejected = 0;
+        
+        long start = System.nanoTime();
+        for (int i = 0; i < origens.size(); i++) {
+            String origem = origens.get(i);
+            try {
+                table.put(new Transaction(String.format("TRX%08d", i), 1.0f, origem, "Destino",
+                                          "2024-01-01 00:00:00"));
+                accepted.add(origem);
+            } catch (IllegalStateException e) {
+                rejected++;
+            }
+        }
+        long insertNanos = System.nanoTime() - start;
+        
+        long maxComparisons = 0, totalComparisons = 0;
+        start = System.nanoTime();
+        for (String origem : accepted) {
+            table.resetCounters();
+            table.search(origem, "2024-01-01", "2024-12-31");
+            maxComparisons = Math.max(maxComparisons, table.getComparisons());
+            totalComparisons += table.getComparisons();
+        }
+        long searchNanos = System.nanoTime() - start;
+        
+        System.out.printf("%-28s aceitas=%-6d rejeitadas=%-6d capacidade=%-8d inserção=%6.1f ms "
+                + "busca=%6.1f ms comparações/busca: média=%.2f máx=%d%n",
+            label, accepted.size(), rejected, table.getCapacity(), insertNanos / 1e6,
+            searchNanos / 1e6, accepted.isEmpty() ? 0.0 : (double) totalComparisons / accepted.size(),
+            maxComparisons);
+    }
+    
+    /**
+     * Uma transação por id, com os ids de ataque, e busca de cada id
+     */
+    private static void runIds(String label, HybridHashTable.IdIndex idIndex, HashStrategy strategy,
+                               List<String> ids) {
+        HybridHashTable table = new HybridHashTable(512, false, false, idIndex, strategy);
+        long start = System.nanoTime();
+        for (int i = 0; i < ids.size(); i++) {
+            table.put(new Transaction(ids.get(i), 1.0f, "Origem" + (i & 1023), "Destino",
+                                      "2024-01-01 00:00:00"));
+        }
+        long insertNanos = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        for (String id : ids) {
+            table.getById(id);
+        }
+        long searchNanos = System.nanoTime() - start;
+        System.out.printf("%-28s ids=%-6d inserção=%6.1f ms busca=%6.1f ms%n",
+            label, table.getSize(), insertNanos / 1e6, searchNanos / 1e6);
+    }
+    
+    /**
+     * Mesma carga na HashLinearTrial, com hashCode (hasher null) ou com uma HashStrategy
+     */
+    private static void runLinear(String label, HashStrategy strategy, List<String> keys) {
+        HashLinearTrial<String, Integer> map = new HashLinearTrial<>(512, strategy == null ? null : strategy::hash);
+        long start = System.nanoTime();
+        for (int i = 0; i < keys.size(); i++) {
+            map.put(keys.get(i), i);
+        }
+        long insertNanos = System.nanoTime() - start;
+        
+        map.resetProbes();
+        for (String key : keys) {
+            map.get(key);
+        }
+        System.out.printf("%-28s chaves=%-6d inserção=%6.1f ms sondagens/busca: média=%.1f máx=%d%n",
+            label, map.size(), insertNanos / 1e6, (double) map.getProbes() / keys.size(),
+            map.maxProbeLength());
+    }
+    
+    public static void main(String[] args) {
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : 14;
+        List<String> attack = collidingKeys(blocks);
+        List<String> random = new ArrayList<>(attack.size());
+        for (int i = 0; i < attack.size(); i++) {
+            random.add("Origem" + i);
+        }
+        
+        System.out.println("=== Ataque de colisões: " + attack.size() + " origens com o mesmo hashCode ===");
+        runHybrid("hashCode, chaves normais", HashStrategy.javaHashCode(), random);
+        runHybrid("hashCode, chaves de ataque", HashStrategy.javaHashCode(), attack);
+        runHybrid("SipHash, chaves normais", HashStrategy.randomSeeded(), random);
+        runHybrid("SipHash, chaves de ataque", HashStrategy.randomSeeded(), attack);
+        
+        // Com hashCode a HashLinearTrial degrada para O(n) por operação: limitar o tamanho
+        List<String> linearAttack = attack.subList(0, Math.min(attack.size(), 4096));
+        runLinear("HashLinearTrial, normais", null, random.subList(0, linearAttack.size()));
+        runLinear("HashLinearTrial, ataque", null, linearAttack);
+        runLinear("HashLinearTrial+Sip, ataque", HashStrategy.randomSeeded(), attack);
+        
+        // Ids de ataque nos índices por id, com a estratégia padrão (SipHash com semente)
+        runIds("Ids Robin Hood, ataque", HybridHashTable.IdIndex.ROBIN_HOOD, HashStrategy.randomSeeded(), attack);
+        runIds("Ids primitivos, ataque", HybridHashTable.IdIndex.PRIMITIVE, HashStrategy.randomSeeded(), attack);
+    }
+}
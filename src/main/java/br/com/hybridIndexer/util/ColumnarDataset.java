@@ -0,0 +1,516 @@
+package br.com.hybridIndexer.util;
+
+import br.com.hybridIndexer.model.Transaction;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Formato binário colunar para datasets de transações, lido por mapeamento
+ * em memória (mmap) e entregue direto à tabela, sem passar por texto.
+ * Cada coluna fica em uma seção própria, com uma codificação escolhida na
+ * escrita:
+ * - id: prefixo comum e a diferença entre os números em varint (ids como
+ *   TRX00000042), ou os textos em UTF-8 quando não seguem esse padrão;
+ * - valor: centavos em varint (ponto fixo com duas casas, como no CSV);
+ * - origem e destino: dicionário das chaves distintas e o código de cada
+ *   linha em varint; as transações lidas compartilham a String da chave;
+ * - timestamp: segundos desde 1970 (yyyy-MM-dd HH:mm:ss em UTC) como
+ *   diferença para a linha anterior em varint, que com instantes quase
+ *   ordenados ocupa um ou dois bytes, ou os textos quando há outro formato.
+ * Inteiros com sinal usam zigzag. Cada seção é mapeada separadamente e
+ * precisa ter menos de 2 GB.
+ *
+ * Layout: "HIXC", versão (1 byte), número de linhas (long) e, para cada
+ * coluna na ordem id, valor, origem, destino, timestamp: codificação
+ * (1 byte), tamanho em bytes (long) e conteúdo.
+ */
+public class ColumnarDataset {
+    public static final String EXTENSION = ".hixc";
+    
+    private static final byte[] MAGIC = {'H', 'I', 'X', 'C'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = MAGIC.length + 1 + 8;
+    
+    // Codificações das colunas
+    private static final byte RAW = 0;           // textos em UTF-8 com o tamanho em varint
+    private static final byte PREFIXED_NUMBER = 1; // prefixo comum e diferenças dos números
+    private static final byte FIXED_POINT = 2;   // centavos
+    private static final byte DICTIONARY = 3;    // chaves distintas e códigos
+    private static final byte EPOCH_DELTA = 4;   // segundos desde 1970, diferença para a linha anterior
+    
+    private ColumnarDataset() {
+    }
+    
+    /**
+     * Grava as transações no formato colunar
+     * @param transactions Transações na ordem em que serão lidas
+     * @param filePath Caminho do arquivo de saída
+     * @throws IOException Se houver erro na escrita
+     */
+    public static void writeTransactions(List<Transaction> transactions, String filePath) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filePath), 1 << 16))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(transactions.size());
+            // Uma coluna de cada vez: só o conteúdo de uma delas fica em memória
+            writeColumn(out, encodeIds(transactions));
+            writeColumn(out, encodeValores(transactions));
+            writeColumn(out, encodeDictionary(transactions, true));
+            writeColumn(out, encodeDictionary(transactions, false));
+            writeColumn(out, encodeTimestamps(transactions));
+        }
+    }
+    
+    private static void writeColumn(DataOutputStream out, ByteSink column) throws IOException {
+        out.writeByte(column.encoding);
+        out.writeLong(column.size());
+        out.write(column.bytes, 0, column.size());
+    }
+    
+    private static ByteSink encodeIds(List<Transaction> transactions) {
+        String prefix = transactions.isEmpty() ? "" : idPrefix(transactions.get(0).getId());
+        boolean prefixed = prefix != null;
+        int width = prefixed && !transactions.isEmpty() ? transactions.get(0).getId().length() - prefix.length() : 0;
+        for (int i = 0; i < transactions.size() && prefixed; i++) {
+            String id = transactions.get(i).getId();
+            prefixed = id.startsWith(prefix) && idNumber(id, prefix, width) >= 0;
+        }
+        
+        ByteSink sink = new ByteSink(prefixed ? PREFIXED_NUMBER : RAW, transactions.size() * 2);
+        if (!prefixed) {
+            for (Transaction t : transactions) {
+                sink.writeString(t.getId());
+            }
+            return sink;
+        }
+        sink.writeString(prefix);
+        sink.writeVarLong(width);
+        long previous = 0;
+        for (Transaction t : transactions) {
+            long number = idNumber(t.getId(), prefix, width);
+            sink.writeVarLong(zigzag(number - previous));
+            previous = number;
+        }
+        return sink;
+    }
+    
+    /**
+     * Prefixo não numérico do id (TRX em TRX00000042), ou null se o id não
+     * terminar em dígitos
+     */
+    private static String idPrefix(String id) {
+        int end = id.length();
+        while (end > 0 && Character.isDigit(id.charAt(end - 1)) && id.charAt(end - 1) < 128) {
+            end--;
+        }
+        return end == id.length() ? null : id.substring(0, end);
+    }
+    
+    /**
+     * Número do id se ele for exatamente o prefixo seguido do número com zeros
+     * à esquerda até width dígitos (a forma que a leitura reconstrói), ou -1
+     */
+    private static long idNumber(String id, String prefix, int width) {
+        int digits = id.length() - prefix.length();
+        if (digits < width || digits > 18 || (digits > width && id.charAt(prefix.length()) == '0')) {
+            return -1;
+        }
+        long number = 0;
+        for (int i = prefix.length(); i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+    
+    private static ByteSink encodeValores(List<Transaction> transactions) {
+        ByteSink sink = new ByteSink(FIXED_POINT, transactions.size() * 3);
+        for (Transaction t : transactions) {
+            sink.writeVarLong(zigzag(Math.round(t.getValor() * 100.0)));
+        }
+        return sink;
+    }
+    
+    private static ByteSink encodeDictionary(List<Transaction> transactions, boolean origem) {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        ByteSink rows = new ByteSink(DICTIONARY, transactions.size() * 2);
+        for (Transaction t : transactions) {
+            String key = origem ? t.getOrigem() : t.getDestino();
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = keys.size();
+                codes.put(key, code);
+                keys.add(key);
+            }
+            rows.writeVarLong(code);
+        }
+        
+        ByteSink sink = new ByteSink(DICTIONARY, rows.size() + keys.size() * 16 + 8);
+        sink.writeVarLong(keys.size());
+        for (String key : keys) {
+            sink.writeString(key);
+        }
+        sink.write(rows.bytes, 0, rows.size());
+        return sink;
+    }
+    
+    private static ByteSink encodeTimestamps(List<Transaction> transactions) {
+        boolean epoch = true;
+        for (int i = 0; i < transactions.size() && epoch; i++) {
+            epoch = epochSecond(transactions.get(i).getTimestamp()) != Long.MIN_VALUE;
+        }
+        
+        ByteSink sink = new ByteSink(epoch ? EPOCH_DELTA : RAW, transactions.size() * 2);
+        long previous = 0;
+        for (Transaction t : transactions) {
+            if (epoch) {
+                long seconds = epochSecond(t.getTimestamp());
+                sink.writeVarLong(zigzag(seconds - previous));
+                previous = seconds;
+            } else {
+                sink.writeString(t.getTimestamp());
+            }
+        }
+        return sink;
+    }
+    
+    /**
+     * Segundos desde 1970 de um timestamp yyyy-MM-dd HH:mm:ss (UTC), ou
+     * Long.MIN_VALUE se ele não estiver exatamente nesse formato
+     */
+    private static long epochSecond(String timestamp) {
+        if (timestamp == null || timestamp.length() != 19 || timestamp.charAt(4) != '-' || timestamp.charAt(7) != '-'
+            || timestamp.charAt(10) != ' ' || timestamp.charAt(13) != ':' || timestamp.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(timestamp, 0, 4), month = digits(timestamp, 5, 2), day = digits(timestamp, 8, 2);
+        int hour = digits(timestamp, 11, 2), minute = digits(timestamp, 14, 2), second = digits(timestamp, 17, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second).toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+    
+    private static int digits(String s, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+    
+    /**
+     * Verifica pelo cabeçalho se o arquivo está no formato colunar
+     */
+    public static boolean isColumnar(String filePath) {
+        Path path = Paths.get(filePath);
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(MAGIC.length);
+            channel.read(header, 0);
+            return Arrays.equals(header.array(), MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Lê o arquivo colunar para uma lista
+     * @param filePath Caminho do arquivo
+     * @return Transações na ordem em que foram gravadas
+     * @throws IOException Se houver erro na leitura ou o arquivo for inválido
+     */
+    public static List<Transaction> readTransactions(String filePath) throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        read(filePath, transactions::add);
+        return transactions;
+    }
+    
+    /**
+     * Lê o arquivo colunar entregando cada transação ao consumidor, por exemplo
+     * table::put, sem montar uma lista intermediária
+     * @param filePath Caminho do arquivo
+     * @param sink Recebe cada transação, na ordem em que foram gravadas
+     * @return Número de transações lidas
+     * @throws IOException Se houver erro na leitura ou o arquivo for inválido
+     */
+    public static long read(String filePath, Consumer<Transaction> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Arquivo colunar inválido: " + filePath);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Arquivo colunar inválido: " + filePath);
+            }
+            if (header.get() != VERSION) {
+                throw new IOException("Versão do arquivo colunar não suportada: " + filePath);
+            }
+            long rows = header.getLong();
+            
+            long[] offset = {HEADER_BYTES};
+            StringColumn ids = stringColumn(map(channel, offset));
+            ByteBuffer valores = map(channel, offset).buffer;
+            StringColumn origens = stringColumn(map(channel, offset));
+            StringColumn destinos = stringColumn(map(channel, offset));
+            StringColumn timestamps = stringColumn(map(channel, offset));
+            
+            for (long i = 0; i < rows; i++) {
+                float valor = unzigzag(readVarLong(valores)) / 100f;
+                sink.accept(new Transaction(ids.next(), valor, origens.next(), destinos.next(), timestamps.next()));
+            }
+            return rows;
+        }
+    }
+    
+    /**
+     * Seção mapeada de uma coluna
+     */
+    private static final class Section {
+        final byte encoding;
+        final ByteBuffer buffer;
+        
+        Section(byte encoding, ByteBuffer buffer) {
+            this.encoding = encoding;
+            this.buffer = buffer;
+        }
+    }
+    
+    /**
+     * Mapeia a próxima seção e avança o deslocamento até a seguinte
+     */
+    private static Section map(FileChannel channel, long[] offset) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(9);
+        if (channel.read(prefix, offset[0]) != 9) {
+            throw new IOException("Arquivo colunar truncado");
+        }
+        long length = prefix.getLong(1);
+        if (length < 0 || length > Integer.MAX_VALUE || offset[0] + 9 + length > channel.size()) {
+            throw new IOException("Seção inválida ou maior que 2 GB no arquivo colunar");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset[0] + 9, length);
+        offset[0] += 9 + length;
+        return new Section(prefix.get(0), buffer);
+    }
+    
+    private static StringColumn stringColumn(Section section) throws IOException {
+        ByteBuffer buffer = section.buffer;
+        switch (section.encoding) {
+            case RAW:
+                return () -> readString(buffer);
+            case PREFIXED_NUMBER:
+                return new PrefixedNumberColumn(buffer);
+            case DICTIONARY:
+                String[] keys = new String[(int) readVarLong(buffer)];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = readString(buffer);
+                }
+                return () -> keys[(int) readVarLong(buffer)];
+            case EPOCH_DELTA:
+                return new EpochColumn(buffer);
+            default:
+                throw new IOException("Codificação desconhecida no arquivo colunar: " + section.encoding);
+        }
+    }
+    
+    /**
+     * Próximo valor de uma coluna de textos
+     */
+    private interface StringColumn {
+        String next();
+    }
+    
+    private static final class PrefixedNumberColumn implements StringColumn {
+        private final ByteBuffer buffer;
+        private final char[] chars;
+        private final int prefixLength;
+        private final int width;
+        private long number;
+        
+        PrefixedNumberColumn(ByteBuffer buffer) {
+            this.buffer = buffer;
+            String prefix = readString(buffer);
+            this.prefixLength = prefix.length();
+            this.width = (int) readVarLong(buffer);
+            this.chars = Arrays.copyOf(prefix.toCharArray(), prefixLength + 19);
+        }
+        
+        @Override
+        public String next() {
+            number += unzigzag(readVarLong(buffer));
+            int digits = 1;
+            for (long v = number / 10; v > 0; v /= 10) {
+                digits++;
+            }
+            int end = prefixLength + Math.max(width, digits);
+            long value = number;
+            for (int i = end - 1; i >= prefixLength; i--) {
+                chars[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return new String(chars, 0, end);
+        }
+    }
+    
+    private static final class EpochColumn implements StringColumn {
+        private final ByteBuffer buffer;
+        private final char[] chars = "0000-00-00 00:00:00".toCharArray();
+        private long seconds;
+        
+        EpochColumn(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        @Override
+        public String next() {
+            seconds += unzigzag(readVarLong(buffer));
+            LocalDateTime time = LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+            put(0, time.getYear(), 4);
+            put(5, time.getMonthValue(), 2);
+            put(8, time.getDayOfMonth(), 2);
+            put(11, time.getHour(), 2);
+            put(14, time.getMinute(), 2);
+            put(17, time.getSecond(), 2);
+            return new String(chars);
+        }
+        
+        private void put(int start, int value, int count) {
+            for (int i = start + count - 1; i >= start; i--) {
+                chars[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+        }
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+    
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarLong(buffer);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Vetor de bytes que cresce, com escrita de varint e de textos
+     */
+    private static final class ByteSink {
+        final byte encoding;
+        byte[] bytes;
+        int size;
+        
+        ByteSink(byte encoding, int initialCapacity) {
+            this.encoding = encoding;
+            this.bytes = new byte[Math.max(16, initialCapacity)];
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                long length = Math.max((long) size + extra, bytes.length * 2L);
+                if (length > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("Coluna maior que 2 GB");
+                }
+                bytes = Arrays.copyOf(bytes, (int) length);
+            }
+        }
+        
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+        
+        void write(byte[] source, int offset, int length) {
+            ensure(length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+        
+        void writeString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(encoded.length);
+            write(encoded, 0, encoded.length);
+        }
+    }
+    
+    /**
+     * Converte um CSV de transações para o formato colunar:
+     * ColumnarDataset entrada.csv saida.hixc
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Uso: ColumnarDataset entrada.csv saida" + EXTENSION);
+            System.exit(2);
+        }
+        try {
+            List<Transaction> transactions = CSVReader.readTransactions(args[0]);
+            writeTransactions(transactions, args[1]);
+            System.out.println("✓ " + transactions.size() + " transações gravadas em " + args[1]
+                + " (" + Files.size(Paths.get(args[1])) + " bytes)");
+        } catch (IOException e) {
+            System.err.println("Erro: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -2,9 +2,21 @@ package br.com.hybridIndexer.util;
 
 import br.com.hybridIndexer.model.Transaction;
 import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Classe para gerar datasets de teste com transações financeiras
@@ -13,6 +25,9 @@ public class DatasetGenerator {
     
     private static final Random random = new Random();
     
+    private static final byte[] HEADER = "id,valor,origem,destino,timestamp\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int CHUNK_ROWS = 1 << 16;   // linhas por bloco na geração paralela
+    
     // Listas de valores possíveis
     private static final String[] ORIGENS = {
         "BancoCentral", "BancoNacional", "BancoInternacional", "BancoDigital", "BancoRegional",
@@ -26,6 +41,10 @@ public class DatasetGenerator {
         "Fornecedor01", "Fornecedor02", "Fornecedor03", "Parceiro01", "Parceiro02"
     };
     
+    // Os mesmos nomes já codificados, para a geração paralela copiar bytes
+    private static final byte[][] ORIGENS_ASCII = ascii(ORIGENS);
+    private static final byte[][] DESTINOS_ASCII = ascii(DESTINOS);
+    
     /**
      * Gera um arquivo CSV com transações aleatórias
      * @param filename Nome do arquivo de saída
@@ -45,7 +64,7 @@ public class DatasetGenerator {
             
             // Gerar transações
             for (int i = 0; i < numberOfTransactions; i++) {
-                Transaction transaction = generateRandomTransaction(i);
+                Transaction transaction = generateTransaction(random, i, ORIGENS);
                 writeTransaction(writer, transaction);
                 
                 // Mostrar progresso
@@ -69,14 +88,7 @@ public class DatasetGenerator {
                                                    double collisionRate) throws IOException {
         System.out.println("Gerando dataset com taxa de colisão de " + (collisionRate * 100) + "%...");
         
-        // Calcular número de origens únicas baseado na taxa de colisão
-        int uniqueOrigins = Math.max(1, (int)(numberOfTransactions * (1 - collisionRate)));
-        String[] limitedOrigens = new String[Math.min(uniqueOrigins, ORIGENS.length)];
-        
-        // Selecionar origens limitadas
-        for (int i = 0; i < limitedOrigens.length; i++) {
-            limitedOrigens[i] = ORIGENS[i % ORIGENS.length];
-        }
+        String[] limitedOrigens = limitedOrigens(numberOfTransactions, collisionRate);
         
         // Garantir que o arquivo seja salvo na pasta resources
         String resourcesPath = "src/main/resources/" + filename;
@@ -88,7 +100,7 @@ public class DatasetGenerator {
             
             // Gerar transações
             for (int i = 0; i < numberOfTransactions; i++) {
-                Transaction transaction = generateTransactionWithLimitedOrigins(i, limitedOrigens);
+                Transaction transaction = generateTransaction(random, i, limitedOrigens);
                 writeTransaction(writer, transaction);
                 
                 if ((i + 1) % 10000 == 0) {
@@ -101,27 +113,49 @@ public class DatasetGenerator {
     }
     
     /**
-     * Gera uma transação aleatória
+     * Gera em memória as transações de um dataset, com a mesma distribuição dos
+     * arquivos e semente fixa, para que benchmarks e testes sejam reproduzíveis
+     * @param numberOfTransactions Número de transações a gerar
+     * @param collisionRate Taxa de colisão (0.0 usa todas as origens, como generateDataset)
+     * @param seed Semente do gerador aleatório
+     * @return Transações geradas, na ordem dos ids
      */
-    private static Transaction generateRandomTransaction(int id) {
-        String transactionId = String.format("TRX%08d", id);
-        float valor = 0.01f + random.nextFloat() * 99999.99f; // Valor entre 0.01 e 100000.00
-        String origem = ORIGENS[random.nextInt(ORIGENS.length)];
-        String destino = DESTINOS[random.nextInt(DESTINOS.length)];
-        String timestamp = generateRandomTimestamp();
+    public static List<Transaction> generateTransactions(int numberOfTransactions, double collisionRate,
+                                                         long seed) {
+        Random seeded = new Random(seed);
+        String[] origens = collisionRate > 0 ? limitedOrigens(numberOfTransactions, collisionRate) : ORIGENS;
+        List<Transaction> transactions = new ArrayList<>(numberOfTransactions);
+        for (int i = 0; i < numberOfTransactions; i++) {
+            transactions.add(generateTransaction(seeded, i, origens));
+        }
+        return transactions;
+    }
+    
+    /**
+     * Origens usadas com a taxa de colisão informada
+     */
+    private static String[] limitedOrigens(int numberOfTransactions, double collisionRate) {
+        // Calcular número de origens únicas baseado na taxa de colisão
+        int uniqueOrigins = Math.max(1, (int)(numberOfTransactions * (1 - collisionRate)));
+        String[] limitedOrigens = new String[Math.min(uniqueOrigins, ORIGENS.length)];
         
-        return new Transaction(transactionId, valor, origem, destino, timestamp);
+        // Selecionar origens limitadas
+        for (int i = 0; i < limitedOrigens.length; i++) {
+            limitedOrigens[i] = ORIGENS[i % ORIGENS.length];
+        }
+        return limitedOrigens;
     }
     
     /**
-     * Gera uma transação com origens limitadas (para aumentar colisões)
+     * Gera uma transação aleatória com uma das origens informadas
+     * (origens limitadas aumentam as colisões)
      */
-    private static Transaction generateTransactionWithLimitedOrigins(int id, String[] limitedOrigens) {
+    private static Transaction generateTransaction(Random random, int id, String[] origens) {
         String transactionId = String.format("TRX%08d", id);
-        float valor = 0.01f + random.nextFloat() * 99999.99f;
-        String origem = limitedOrigens[random.nextInt(limitedOrigens.length)];
+        float valor = 0.01f + random.nextFloat() * 99999.99f; // Valor entre 0.01 e 100000.00
+        String origem = origens[random.nextInt(origens.length)];
         String destino = DESTINOS[random.nextInt(DESTINOS.length)];
-        String timestamp = generateRandomTimestamp();
+        String timestamp = generateRandomTimestamp(random);
         
         return new Transaction(transactionId, valor, origem, destino, timestamp);
     }
@@ -129,7 +163,7 @@ public class DatasetGenerator {
     /**
      * Gera um timestamp aleatório no formato YYYY-MM-DD HH:MM:SS
      */
-    private static String generateRandomTimestamp() {
+    private static String generateRandomTimestamp(Random random) {
         int year = 2020 + random.nextInt(5); // 2020-2024
         int month = 1 + random.nextInt(12);  // 1-12
         int day = 1 + random.nextInt(28);    // 1-28 (simplificado)
@@ -158,9 +192,216 @@ public class DatasetGenerator {
     }
     
     /**
-     * Método main para gerar datasets de teste
+     * Gera um arquivo CSV com a distribuição de generateDataset usando várias
+     * threads. As linhas são divididas em blocos de CHUNK_ROWS; cada bloco tem
+     * o seu SplittableRandom, derivado da semente na ordem dos blocos, e é
+     * formatado direto em um vetor de bytes, sem String.format nem objetos
+     * Transaction. Os blocos prontos são gravados em ordem, com no máximo dois
+     * por thread em memória, então o resultado depende só da semente, não do
+     * número de threads.
+     * @param filename Caminho do arquivo de saída
+     * @param numberOfTransactions Número de transações a gerar
+     * @param seed Semente do gerador aleatório
+     * @param threads Threads de geração
+     * @param shards Arquivos de saída: 1 grava um só arquivo; mais divide as
+     *               linhas em arquivos nome-000.csv, nome-001.csv..., cada um
+     *               com cabeçalho
+     * @throws IOException Se houver erro na escrita dos arquivos
+     */
+    public static void generateDatasetParallel(String filename, long numberOfTransactions, long seed,
+                                               int threads, int shards) throws IOException {
+        if (numberOfTransactions < 0) {
+            throw new IllegalArgumentException("Número de transações não pode ser negativo: " + numberOfTransactions);
+        }
+        if (threads < 1 || shards < 1) {
+            throw new IllegalArgumentException("Threads e arquivos devem ser pelo menos 1: " + threads + ", " + shards);
+        }
+        long chunks = Math.max(1, (numberOfTransactions + CHUNK_ROWS - 1) / CHUNK_ROWS);
+        shards = (int) Math.min(shards, chunks);
+        System.out.println("Gerando dataset com " + numberOfTransactions + " transações em " + threads
+            + " threads...");
+        
+        SplittableRandom seeds = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<Chunk>> pending = new ArrayDeque<>();
+        OutputStream out = null;
+        int currentShard = -1;
+        long nextChunk = 0;
+        try {
+            for (long written = 0; written < chunks; written++) {
+                // Manter até duas tarefas por thread na fila, na ordem dos blocos
+                while (nextChunk < chunks && pending.size() < 2 * threads) {
+                    long firstId = nextChunk * CHUNK_ROWS;
+                    int rows = (int) Math.min(CHUNK_ROWS, numberOfTransactions - firstId);
+                    SplittableRandom chunkRandom = seeds.split();
+                    pending.add(pool.submit(() -> generateChunk(firstId, rows, chunkRandom)));
+                    nextChunk++;
+                }
+                Chunk chunk = pending.poll().get();
+                
+                int shard = (int) (written * shards / chunks);
+                if (shard != currentShard) {
+                    if (out != null) {
+                        out.close();
+                    }
+                    out = new FileOutputStream(shards == 1 ? filename : shardName(filename, shard));
+                    out.write(HEADER);
+                    currentShard = shard;
+                }
+                out.write(chunk.bytes, 0, chunk.length);
+                
+                if ((written + 1) % 16 == 0) {
+                    System.out.println("  " + Math.min(numberOfTransactions, (written + 1) * CHUNK_ROWS)
+                        + " transações geradas...");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Geração interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao gerar bloco: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+            if (out != null) {
+                out.close();
+            }
+        }
+        
+        System.out.println("✓ Dataset gerado com sucesso: " + filename
+            + (shards > 1 ? " (" + shards + " arquivos)" : ""));
+    }
+    
+    /**
+     * Nome do arquivo de uma parte: dados.csv → dados-003.csv
+     */
+    static String shardName(String filename, int shard) {
+        String suffix = String.valueOf(shard);
+        while (suffix.length() < 3) {
+            suffix = "0" + suffix;
+        }
+        int dot = filename.lastIndexOf('.');
+        int slash = Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\'));
+        if (dot <= slash) {
+            return filename + "-" + suffix;
+        }
+        return filename.substring(0, dot) + "-" + suffix + filename.substring(dot);
+    }
+    
+    /**
+     * Bloco de linhas CSV já codificadas
+     */
+    private static final class Chunk {
+        final byte[] bytes;
+        final int length;
+        
+        Chunk(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
+    
+    private static byte[][] ascii(String[] values) {
+        byte[][] encoded = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = values[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return encoded;
+    }
+    
+    private static int maxLength(byte[][] values) {
+        int max = 0;
+        for (byte[] value : values) {
+            max = Math.max(max, value.length);
+        }
+        return max;
+    }
+    
+    /**
+     * Formata um bloco de transações com a distribuição de generateTransaction
+     * (ids TRX%08d, valor com duas casas, origem e destino uniformes e timestamp
+     * entre 2020 e 2024)
+     */
+    private static Chunk generateChunk(long firstId, int rows, SplittableRandom random) {
+        // id (até 19 dígitos), valor (até 9 caracteres), timestamp (19), 4 vírgulas e a quebra de linha
+        int maxRow = 3 + 19 + 9 + maxLength(ORIGENS_ASCII) + maxLength(DESTINOS_ASCII) + 19 + 5;
+        byte[] buffer = new byte[rows * maxRow];
+        int pos = 0;
+        for (int i = 0; i < rows; i++) {
+            buffer[pos++] = 'T';
+            buffer[pos++] = 'R';
+            buffer[pos++] = 'X';
+            pos = writeNumber(buffer, pos, firstId + i, 8);
+            buffer[pos++] = ',';
+            
+            // Valor entre 0.01 e 100000.00, em centavos
+            float valor = 0.01f + random.nextFloat() * 99999.99f;
+            long cents = Math.round(valor * 100.0);
+            pos = writeNumber(buffer, pos, cents / 100, 1);
+            buffer[pos++] = '.';
+            pos = writeNumber(buffer, pos, cents % 100, 2);
+            buffer[pos++] = ',';
+            
+            byte[] origem = ORIGENS_ASCII[random.nextInt(ORIGENS_ASCII.length)];
+            System.arraycopy(origem, 0, buffer, pos, origem.length);
+            pos += origem.length;
+            buffer[pos++] = ',';
+            byte[] destino = DESTINOS_ASCII[random.nextInt(DESTINOS_ASCII.length)];
+            System.arraycopy(destino, 0, buffer, pos, destino.length);
+            pos += destino.length;
+            buffer[pos++] = ',';
+            
+            pos = writeNumber(buffer, pos, 2020 + random.nextInt(5), 4);
+            buffer[pos++] = '-';
+            pos = writeNumber(buffer, pos, 1 + random.nextInt(12), 2);
+            buffer[pos++] = '-';
+            pos = writeNumber(buffer, pos, 1 + random.nextInt(28), 2);
+            buffer[pos++] = ' ';
+            pos = writeNumber(buffer, pos, random.nextInt(24), 2);
+            buffer[pos++] = ':';
+            pos = writeNumber(buffer, pos, random.nextInt(60), 2);
+            buffer[pos++] = ':';
+            pos = writeNumber(buffer, pos, random.nextInt(60), 2);
+            buffer[pos++] = '\n';
+        }
+        return new Chunk(buffer, pos);
+    }
+    
+    /**
+     * Escreve um número não negativo em ASCII com zeros à esquerda até width dígitos
+     * @return Posição seguinte ao último dígito
+     */
+    private static int writeNumber(byte[] buffer, int pos, long value, int width) {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        int end = pos + Math.max(width, digits);
+        for (int i = end - 1; i >= pos; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+    
+    /**
+     * Método main para gerar datasets de teste.
+     * Com argumentos, gera um único dataset em paralelo:
+     * arquivo transações [threads] [arquivos] [semente]
      */
     public static void main(String[] args) {
+        if (args.length > 0) {
+            try {
+                generateDatasetParallel(args[0], Long.parseLong(args[1]),
+                    args.length > 4 ? Long.parseLong(args[4]) : 42L,
+                    args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors(),
+                    args.length > 3 ? Integer.parseInt(args[3]) : 1);
+            } catch (IOException e) {
+                System.err.println("Erro ao gerar dataset: " + e.getMessage());
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                System.err.println("Uso: DatasetGenerator arquivo transações [threads] [arquivos] [semente]");
+            }
+            return;
+        }
         try {
             // Gerar dataset pequeno
             generateDataset("transacoes_pequeno.csv", 1000);
@@ -175,7 +416,7 @@ public class DatasetGenerator {
             generateDatasetWithCollisions("transacoes_colisao_alta.csv", 10000, 0.8);
             
             System.out.println("\nTodos os datasets foram gerados com sucesso!");
-            
+        
         } catch (IOException e) {
             System.err.println("Erro ao gerar datasets: " + e.getMessage());
         }
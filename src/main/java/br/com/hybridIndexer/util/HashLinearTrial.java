@@ -1,48 +1,132 @@
 package br.com.hybridIndexer.util;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Tabela hash com sondagem linear no esquema Robin Hood.
+ * Cada posição guarda a distância da chave até sua posição ideal; na inserção,
+ * quem está mais longe de casa toma a posição de quem está mais perto. Isso
+ * mantém as sequências de sondagem curtas e uniformes mesmo com carga alta,
+ * permite encerrar buscas sem sucesso cedo e remover por deslocamento para
+ * trás, sem lápides e sem re-inserir o resto do agrupamento.
+ * Por padrão a posição vem de hashCode, que é previsível: chaves escolhidas por
+ * terceiros (por exemplo ids de transações) devem usar uma função de hash com
+ * semente, passada no construtor.
+ */
 public class HashLinearTrial<Key, Value>{
+    private static final double MAX_LOAD_FACTOR = 0.9;
+
     private int N; // numero de pares de chaves na tabela
     private int M = 512; // Tamanho da tabela hash com tratamento linear
     private Key[] keys; // the keys
     private Value[] vals; // the values
+    private int[] dist; // distância até a posição ideal + 1 (0 = posição vazia)
+    private long probes; // posições visitadas, para análise de desempenho
+    private final ToIntFunction<? super Key> hasher; // null = hashCode
 
     public HashLinearTrial() {
-        keys = (Key[]) new Object[M];
-        vals = (Value[]) new Object[M];
+        this(512);
     }
 
     public HashLinearTrial(int cap) {
+        this(cap, null);
+    }
+
+    /**
+     * @param cap Capacidade inicial
+     * @param hasher Hash de 32 bits das chaves (por exemplo HashStrategy::hash,
+     *               com semente); null para usar hashCode
+     */
+    @SuppressWarnings("unchecked")
+    public HashLinearTrial(int cap, ToIntFunction<? super Key> hasher) {
+        if (cap < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + cap);
+        }
         keys = (Key[]) new Object[cap];
         vals = (Value[]) new Object[cap];
+        dist = new int[cap];
         M = cap;
+        this.hasher = hasher;
     }
 
     /**
-     * Calcula o Hash
+     * Calcula o Hash.
+     * Os bits do hash da chave (hasher ou hashCode) são espalhados (finalizador de 32 bits do MurmurHash3)
+     * antes do módulo, para que chaves com hashCode sequencial não formem
+     * agrupamentos longos.
      * @param key
      * @return
      */
     private int hash(Key key){
-        // Implementar a função de Hash aqui.
-        return (key.hashCode() & 0x7fffffff) % M;
+        int h = hasher == null ? key.hashCode() : hasher.applyAsInt(key);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return (h & 0x7fffffff) % M;
     }
 
     /**
      * Redimensiona a tabela de acordo com a quantidade de chaves.
+     * As chaves são distintas, então cada uma é posicionada diretamente,
+     * em uma única passada e sem comparar chaves.
      * @param cap
      */
+    @SuppressWarnings("unchecked")
     private void resize(int cap) {
+        Key[] oldKeys = keys;
+        Value[] oldVals = vals;
+        int[] oldDist = dist;
 
-        HashLinearTrial<Key, Value> t;
-        t = new HashLinearTrial<Key, Value>(cap);
+        keys = (Key[]) new Object[cap];
+        vals = (Value[]) new Object[cap];
+        dist = new int[cap];
+        M = cap;
+
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldDist[i] != 0)
+                place(oldKeys[i], oldVals[i]);
+    }
 
-        for (int i = 0; i < keys.length; i++)
-            if (keys[i] != null)
-                t.put(keys[i], vals[i]);
-        keys = t.keys;
-        vals = t.vals;
-        M = t.M;
+    /**
+     * Posiciona uma chave que sabidamente não está na tabela
+     */
+    private void place(Key key, Value val) {
+        int d = 1;
+        for (int i = hash(key); ; i = (i + 1) % M, d++) {
+            if (dist[i] == 0) {
+                keys[i] = key;
+                vals[i] = val;
+                dist[i] = d;
+                return;
+            }
+            if (dist[i] < d) {
+                // A chave residente está mais perto de casa: ceder a posição a quem chega
+                Key k = keys[i]; Value v = vals[i]; int kd = dist[i];
+                keys[i] = key; vals[i] = val; dist[i] = d;
+                key = k; val = v; d = kd;
+            }
+        }
+    }
 
+    /**
+     * Posição da chave ou -1 se não existir.
+     * A busca para na primeira posição cuja ocupante está mais perto de casa
+     * do que a chave estaria: pelo invariante Robin Hood, a chave não está adiante.
+     */
+    private int indexOf(Key key) {
+        int d = 1;
+        for (int i = hash(key); dist[i] >= d; i = (i + 1) % M, d++) {
+            probes++;
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        probes++;
+        return -1;
     }
 
     public boolean contains(Key key) {
@@ -50,7 +134,7 @@ public class HashLinearTrial<Key, Value>{
             throw new IllegalArgumentException("Argument to contains() cannot be null");
         }
 
-        return get(key) != null;
+        return indexOf(key) >= 0;
     }
 
     /**
@@ -59,7 +143,6 @@ public class HashLinearTrial<Key, Value>{
      * @param val
      */
     public void put(Key key, Value val) {
-        // Implementar
         if (key == null) {
             throw new IllegalArgumentException("Key cannot be null");
         }
@@ -69,25 +152,41 @@ public class HashLinearTrial<Key, Value>{
             return;
         }
 
-        // Redimensionar se a tabela estiver mais de 50% cheia
-        if (N >= M/2) {
+        // Redimensionar antes de passar do fator de carga máximo
+        if (N + 1 > M * MAX_LOAD_FACTOR) {
             resize(2*M);
         }
 
-        int i;
-        for (i = hash(key); keys[i] != null; i = (i + 1) % M) {
-            if (keys[i].equals(key)) {
+        // Uma única passada: atualiza se encontrar a chave; senão insere com trocas Robin Hood
+        int d = 1;
+        for (int i = hash(key); ; i = (i + 1) % M, d++) {
+            probes++;
+            if (dist[i] == 0) {
+                keys[i] = key;
                 vals[i] = val;
+                dist[i] = d;
+                N++;
+                return;
+            }
+            if (dist[i] == d && keys[i].equals(key)) {
+                vals[i] = val;
+                return;
+            }
+            if (dist[i] < d) {
+                // A chave não existe adiante: tomar esta posição e recolocar a residente
+                Key k = keys[i]; Value v = vals[i];
+                keys[i] = key; vals[i] = val; dist[i] = d;
+                N++;
+                place(k, v);
                 return;
             }
         }
-        keys[i] = key;
-        vals[i] = val;
-        N++;
     }
 
     /**
-     * Remove um objeto do Hash
+     * Remove um objeto do Hash.
+     * As chaves seguintes do agrupamento voltam uma posição (deslocamento para
+     * trás) até encontrar uma posição vazia ou uma chave já em sua posição ideal.
      * @param key
      */
     public void delete(Key key)
@@ -95,28 +194,24 @@ public class HashLinearTrial<Key, Value>{
         if (key == null)
             throw new IllegalArgumentException("Argument to delete() cannot be null");
 
-        if (!contains(key))
+        int i = indexOf(key);
+        if (i < 0)
             return;
 
-        int i = hash(key);
-        while (!key.equals(keys[i]))
-            i = (i + 1) % M;
-
+        int j = (i + 1) % M;
+        while (dist[j] > 1) {
+            keys[i] = keys[j];
+            vals[i] = vals[j];
+            dist[i] = dist[j] - 1;
+            i = j;
+            j = (j + 1) % M;
+        }
         keys[i] = null;
         vals[i] = null;
-        i = (i + 1) % M;
-
-        while (keys[i] != null){
-            Key keyToRedo = keys[i];
-            Value valToRedo = vals[i];
-            keys[i] = null;
-            vals[i] = null;
-            N--;
-            put(keyToRedo, valToRedo);
-            i = (i + 1) % M;
-        }
+        dist[i] = 0;
+
         N--;
-        if (N > 0 && N == M/8)
+        if (N > 0 && N <= M/8)
             resize(M/2);
     }
 
@@ -126,16 +221,77 @@ public class HashLinearTrial<Key, Value>{
      * @return
      */
     public Value get(Key key) {
-        // Implementar
         if (key == null) {
             throw new IllegalArgumentException("Key cannot be null");
         }
 
-        for (int i = hash(key); keys[i] != null; i = (i + 1) % M) {
-            if (keys[i].equals(key)) {
-                return vals[i];
-            }
-        }
-        return null;
+        int i = indexOf(key);
+        return i >= 0 ? vals[i] : null;
+    }
+
+    public int size() {
+        return N;
+    }
+
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    /**
+     * Capacidade atual da tabela
+     */
+    public int capacity() {
+        return M;
+    }
+
+    /**
+     * Memória estimada dos vetores da tabela, sem as chaves e valores
+     */
+    public long estimatedBytes() {
+        return HeapEstimate.object(4 + 4 + 3 * HeapEstimate.REFERENCE + 8)
+            + 2 * HeapEstimate.referenceArray(M) + HeapEstimate.array(M, 4);
+    }
+
+    /**
+     * Total de posições visitadas por buscas e inserções
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    public void resetProbes() {
+        probes = 0;
+    }
+
+    /**
+     * Maior distância entre uma chave e sua posição ideal (pior sondagem)
+     */
+    public int maxProbeLength() {
+        int max = 0;
+        for (int d : dist)
+            max = Math.max(max, d);
+        return max;
+    }
+
+    /**
+     * Todas as chaves, na ordem da tabela
+     */
+    public Iterable<Key> keys() {
+        List<Key> list = new ArrayList<>(N);
+        for (int i = 0; i < M; i++)
+            if (dist[i] != 0)
+                list.add(keys[i]);
+        return list;
+    }
+
+    /**
+     * Todos os valores, na ordem da tabela
+     */
+    public List<Value> values() {
+        List<Value> list = new ArrayList<>(N);
+        for (int i = 0; i < M; i++)
+            if (dist[i] != 0)
+                list.add(vals[i]);
+        return list;
     }
 }
@@ -0,0 +1,337 @@
+package br.com.hybridIndexer.util;
+
+import br.com.hybridIndexer.datastructures.EscalationPolicy;
+import br.com.hybridIndexer.datastructures.HashStrategy;
+import br.com.hybridIndexer.datastructures.HybridHashTable;
+import br.com.hybridIndexer.model.Transaction;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Benchmark não interativo para uso em scripts e na integração contínua.
+ * Configurado por argumentos --chave=valor e/ou por um arquivo de propriedades
+ * (--config=arquivo); os argumentos têm precedência. Executa fases de
+ * aquecimento e de medição, cronometra cada operação com System.nanoTime em
+ * um LatencyHistogram e escreve os resultados em JSON ou CSV.
+ * Chaves "hybridIndexer.*" configuram a EscalationPolicy da tabela e, com
+ * --workload=zipf, chaves "workload.*" configuram o WorkloadGenerator.
+ *
+ * Exemplo:
+ *   java -cp target/classes br.com.hybridIndexer.Main --benchmark --size=100000 --format=json --output=res.json
+ */
+public class HeadlessBenchmark {
+    
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] OPERATIONS = {"put", "search", "getById"};
+    
+    // Opções e valores padrão
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+    static {
+        DEFAULTS.put("input", "");              // CSV ou arquivo colunar; vazio gera um dataset em memória
+        DEFAULTS.put("size", "10000");          // transações geradas quando não há input
+        DEFAULTS.put("workload", "uniform");    // uniform (DatasetGenerator) ou zipf (WorkloadGenerator)
+        DEFAULTS.put("collisionRate", "0.0");   // apenas com workload=uniform
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("operations", "put,search,getById");
+        DEFAULTS.put("warmup", "3");            // iterações de aquecimento (descartadas)
+        DEFAULTS.put("iterations", "5");        // iterações medidas
+        DEFAULTS.put("queries", "1000");        // buscas de cada tipo por iteração
+        DEFAULTS.put("windowDays", "30");       // largura do intervalo das buscas
+        DEFAULTS.put("idIndex", "CHAINING");
+        DEFAULTS.put("format", "json");         // json ou csv
+        DEFAULTS.put("output", "");             // arquivo de saída; vazio escreve na saída padrão
+    }
+    
+    private final Properties config;
+    private final List<String> operations;
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    private final Map<String, LatencyHistogram> warmupHistograms = new LinkedHashMap<>();
+    private List<Transaction> transactions;
+    private String[] origens;
+    private String[] starts;
+    private String[] ends;
+    private String[] ids;
+    private long checksum; // resultados consumidos, para o JIT não descartar as operações
+    
+    /**
+     * @param config Opções (chaves ausentes usam o padrão)
+     * @throws IllegalArgumentException se houver opção desconhecida ou valor inválido
+     */
+    public HeadlessBenchmark(Properties config) {
+        for (String key : config.stringPropertyNames()) {
+            if (!DEFAULTS.containsKey(key) && !key.startsWith(EscalationPolicy.PROPERTY_PREFIX)
+                && !key.startsWith(WorkloadGenerator.PROPERTY_PREFIX)) {
+                throw new IllegalArgumentException("Opção desconhecida: " + key);
+            }
+        }
+        this.config = config;
+        this.operations = Arrays.asList(option("operations").split("\\s*,\\s*"));
+        for (String operation : operations) {
+            if (!Arrays.asList(OPERATIONS).contains(operation)) {
+                throw new IllegalArgumentException("Operação desconhecida: " + operation
+                    + " (use " + String.join(", ", OPERATIONS) + ")");
+            }
+            histograms.put(operation, new LatencyHistogram());
+            warmupHistograms.put(operation, new LatencyHistogram());
+        }
+        if (!option("workload").equals("uniform") && !option("workload").equals("zipf")) {
+            throw new IllegalArgumentException("workload deve ser uniform ou zipf: " + option("workload"));
+        }
+        if (!option("format").equals("json") && !option("format").equals("csv")) {
+            throw new IllegalArgumentException("Formato deve ser json ou csv: " + option("format"));
+        }
+        try {
+            HybridHashTable.IdIndex.valueOf(option("idIndex"));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("idIndex deve ser um de "
+                + Arrays.toString(HybridHashTable.IdIndex.values()) + ": " + option("idIndex"));
+        }
+        if (intOption("warmup") < 0 || intOption("iterations") < 1 || intOption("queries") < 1) {
+            throw new IllegalArgumentException("warmup deve ser >= 0, iterations e queries >= 1");
+        }
+    }
+    
+    /**
+     * Lê --config=arquivo (se houver) e aplica os demais --chave=valor por cima
+     */
+    public static Properties parseArguments(String[] args) throws IOException {
+        Properties config = new Properties();
+        for (String arg : args) {
+            if (arg.startsWith("--config=")) {
+                try (Reader reader = new FileReader(arg.substring("--config=".length()))) {
+                    config.load(reader);
+                }
+            }
+        }
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Argumento inválido (use --chave=valor): " + arg);
+            }
+            if (!arg.startsWith("--config=")) {
+                config.setProperty(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return config;
+    }
+    
+    private String option(String key) {
+        return config.getProperty(key, DEFAULTS.get(key)).trim();
+    }
+    
+    private int intOption(String key) {
+        return Integer.parseInt(option(key));
+    }
+    
+    /**
+     * Carrega ou gera o dataset e sorteia as buscas com a semente configurada
+     */
+    private void prepare() throws IOException {
+        long seed = Long.parseLong(option("seed"));
+        boolean zipf = option("workload").equals("zipf");
+        if (option("input").isEmpty() && zipf) {
+            transactions = WorkloadGenerator.fromProperties(seed, config).generate(intOption("size"));
+        } else if (option("input").isEmpty()) {
+            transactions = DatasetGenerator.generateTransactions(intOption("size"),
+                                                                 Double.parseDouble(option("collisionRate")), seed);
+        } else if (ColumnarDataset.isColumnar(option("input"))) {
+            transactions = ColumnarDataset.readTransactions(option("input"));
+        } else {
+            transactions = CSVReader.readTransactions(option("input"));
+        }
+        if (transactions.isEmpty()) {
+            throw new IllegalArgumentException("Dataset vazio");
+        }
+        
+        int queries = intOption("queries");
+        int windowDays = intOption("windowDays");
+        Random random = new Random(seed);
+        LocalDateTime first = LocalDateTime.of(2020, 1, 1, 0, 0);
+        origens = new String[queries];
+        starts = new String[queries];
+        ends = new String[queries];
+        ids = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            // Os instantes da carga zipf cobrem um período curto: centrar as janelas em transações dela
+            LocalDateTime start = zipf
+                ? LocalDateTime.parse(transactions.get(random.nextInt(transactions.size())).getTimestamp(), TIMESTAMP)
+                    .minusHours(windowDays * 12L)
+                : first.plusMinutes(random.nextInt(5 * 365 * 24 * 60));
+            origens[i] = transactions.get(random.nextInt(transactions.size())).getOrigem();
+            starts[i] = start.format(TIMESTAMP);
+            ends[i] = start.plusDays(windowDays).format(TIMESTAMP);
+            ids[i] = transactions.get(random.nextInt(transactions.size())).getId();
+        }
+    }
+    
+    private HybridHashTable newTable() {
+        // Propriedades do sistema (-DhybridIndexer.*) valem quando a configuração não as define
+        Properties policy = new Properties(System.getProperties());
+        policy.putAll(config);
+        HybridHashTable table = new HybridHashTable(512, false, false, HybridHashTable.IdIndex.valueOf(option("idIndex")),
+                                                    HashStrategy.seeded(Long.parseLong(option("seed"))),
+                                                    EscalationPolicy.fromProperties(policy));
+        // O benchmark já cronometra cada operação; a cronometragem interna só somaria ruído
+        table.getMetrics().setTimingEnabled(false);
+        return table;
+    }
+    
+    /**
+     * Uma iteração: carga de todo o dataset e as buscas sobre a tabela carregada
+     */
+    private void iteration(Map<String, LatencyHistogram> target) {
+        HybridHashTable table = newTable();
+        LatencyHistogram put = target.get("put");
+        for (Transaction transaction : transactions) {
+            long start = System.nanoTime();
+            table.put(transaction);
+            long elapsed = System.nanoTime() - start;
+            if (put != null) {
+                put.record(elapsed);
+            }
+        }
+        
+        LatencyHistogram search = target.get("search");
+        if (search != null) {
+            for (int i = 0; i < origens.length; i++) {
+                long start = System.nanoTime();
+                int found = table.search(origens[i], starts[i], ends[i]).size();
+                search.record(System.nanoTime() - start);
+                checksum += found;
+            }
+        }
+        
+        LatencyHistogram getById = target.get("getById");
+        if (getById != null) {
+            for (String id : ids) {
+                long start = System.nanoTime();
+                Transaction found = table.getById(id);
+                getById.record(System.nanoTime() - start);
+                checksum += found == null ? 0 : 1;
+            }
+        }
+        checksum += table.getSize();
+    }
+    
+    /**
+     * Executa as fases de aquecimento e medição
+     */
+    public void run() throws IOException {
+        prepare();
+        for (int i = 0; i < intOption("warmup"); i++) {
+            iteration(warmupHistograms);
+        }
+        for (int i = 0; i < intOption("iterations"); i++) {
+            iteration(histograms);
+        }
+    }
+    
+    public Map<String, LatencyHistogram> getHistograms() {
+        return histograms;
+    }
+    
+    /**
+     * Resultados em JSON: configuração efetiva e, por operação, contagem,
+     * vazão e latências em nanossegundos
+     */
+    public void writeJson(PrintStream out) {
+        out.println("{");
+        out.println("  \"config\": {");
+        List<String> entries = new ArrayList<>();
+        for (String key : DEFAULTS.keySet()) {
+            entries.add("    \"" + key + "\": \"" + escape(option(key)) + "\"");
+        }
+        for (String key : config.stringPropertyNames()) {
+            if (key.startsWith(EscalationPolicy.PROPERTY_PREFIX) || key.startsWith(WorkloadGenerator.PROPERTY_PREFIX)) {
+                entries.add("    \"" + escape(key) + "\": \"" + escape(config.getProperty(key)) + "\"");
+            }
+        }
+        out.println(String.join(",\n", entries));
+        out.println("  },");
+        out.println("  \"transactions\": " + transactions.size() + ",");
+        out.println("  \"checksum\": " + checksum + ",");
+        out.println("  \"results\": [");
+        List<String> results = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            results.add(String.format(Locale.ROOT,
+                "    {\"operation\": \"%s\", \"count\": %d, \"opsPerSec\": %.1f, \"meanNs\": %.1f, "
+                + "\"minNs\": %d, \"p50Ns\": %d, \"p99Ns\": %d, \"p999Ns\": %d, \"maxNs\": %d}",
+                entry.getKey(), h.getCount(), opsPerSec(h), h.getMean(), h.getMin(),
+                h.percentile(50), h.percentile(99), h.percentile(99.9), h.getMax()));
+        }
+        out.println(String.join(",\n", results));
+        out.println("  ]");
+        out.println("}");
+    }
+    
+    /**
+     * Resultados em CSV, uma linha por operação
+     */
+    public void writeCsv(PrintStream out) {
+        out.println("operation,count,ops_per_sec,mean_ns,min_ns,p50_ns,p99_ns,p999_ns,max_ns");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            out.println(String.format(Locale.ROOT, "%s,%d,%.1f,%.1f,%d,%d,%d,%d,%d",
+                entry.getKey(), h.getCount(), opsPerSec(h), h.getMean(), h.getMin(),
+                h.percentile(50), h.percentile(99), h.percentile(99.9), h.getMax()));
+        }
+    }
+    
+    private static double opsPerSec(LatencyHistogram h) {
+        return h.getTotal() == 0 ? 0.0 : h.getCount() * 1e9 / h.getTotal();
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+    
+    private static void printUsage() {
+        System.err.println("Uso: --benchmark [--config=arquivo.properties] [--chave=valor ...]");
+        System.err.println("Opções (padrão):");
+        for (Map.Entry<String, String> entry : DEFAULTS.entrySet()) {
+            System.err.println("  --" + entry.getKey() + "=" + entry.getValue());
+        }
+        System.err.println("  --hybridIndexer.<limite>=valor   limites da EscalationPolicy");
+        System.err.println("  --workload.<parâmetro>=valor     parâmetros do WorkloadGenerator (workload=zipf)");
+    }
+    
+    /**
+     * Executa o benchmark; termina com código 2 para configuração inválida
+     * e 1 para erro de leitura ou escrita
+     */
+    public static void main(String[] args) {
+        try {
+            HeadlessBenchmark benchmark = new HeadlessBenchmark(parseArguments(args));
+            benchmark.run();
+            String output = benchmark.option("output");
+            try (PrintStream out = output.isEmpty() ? null : new PrintStream(output, "UTF-8")) {
+                PrintStream target = out == null ? System.out : out;
+                if (benchmark.option("format").equals("csv")) {
+                    benchmark.writeCsv(target);
+                } else {
+                    benchmark.writeJson(target);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Erro: " + e.getMessage());
+            printUsage();
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Erro: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.hybridIndexer.util;
+
+/**
+ * Estimativa do tamanho de objetos no heap para uma JVM de 64 bits com
+ * ponteiros comprimidos (o padrão abaixo de 32 GB de heap): cabeçalho de
+ * 12 bytes por objeto, 16 por vetor, referências de 4 bytes e alinhamento
+ * em 8 bytes. Serve para comparar estruturas e planejar capacidade, não
+ * para medir o heap com exatidão.
+ */
+public final class HeapEstimate {
+    public static final int OBJECT_HEADER = 12;
+    public static final int ARRAY_HEADER = 16;
+    public static final int REFERENCE = 4;
+    
+    private HeapEstimate() {
+    }
+    
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+    
+    /**
+     * Objeto com os campos informados
+     * @param fieldBytes Soma dos tamanhos dos campos (referência = 4, int = 4, long = 8...)
+     */
+    public static long object(int fieldBytes) {
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+    
+    /**
+     * Vetor de length posições de elementBytes bytes cada
+     */
+    public static long array(int length, int elementBytes) {
+        return align(ARRAY_HEADER + (long) length * elementBytes);
+    }
+    
+    /**
+     * Vetor de referências
+     */
+    public static long referenceArray(int length) {
+        return array(length, REFERENCE);
+    }
+    
+    /**
+     * String com o conteúdo compacto (Latin-1) quando possível, como no Java 9+
+     */
+    public static long string(String s) {
+        if (s == null) {
+            return 0;
+        }
+        boolean latin1 = true;
+        for (int i = 0; i < s.length() && latin1; i++) {
+            latin1 = s.charAt(i) <= 0xFF;
+        }
+        // String: valor, hash, coder e hashIsZero
+        return object(REFERENCE + 4 + 1 + 1) + array(s.length(), latin1 ? 1 : 2);
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.hybridIndexer.util;
+
+import java.util.Arrays;
+
+/**
+ * Histograma de latências em escala log-linear.
+ * Cada potência de dois é dividida em 32 faixas iguais, então o erro relativo
+ * de um percentil é menor que 1/32 (cerca de 3%) para qualquer ordem de
+ * grandeza, com memória fixa e registro O(1), sem guardar as amostras.
+ * Valores abaixo de 32 são exatos. O máximo e o mínimo são exatos.
+ */
+public class LatencyHistogram {
+    private static final LogLinearScale SCALE = new LogLinearScale(5);
+    
+    private final long[] counts = new long[SCALE.bucketCount()];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    
+    /**
+     * Registra uma amostra
+     * @param value Latência (não negativa), normalmente em nanossegundos
+     */
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Latência não pode ser negativa: " + value);
+        }
+        counts[SCALE.index(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+    
+    /**
+     * Valor abaixo do qual estão p% das amostras (limite superior da faixa,
+     * nunca maior que o máximo registrado)
+     * @param percentile Percentil entre 0 e 100
+     * @return O valor do percentil, ou 0 sem amostras
+     */
+    public long percentile(double percentile) {
+        return SCALE.percentile(counts, count, percentile, max);
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public double getMean() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+    
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+    
+    public long getMax() {
+        return max;
+    }
+    
+    /**
+     * Soma de todas as amostras
+     */
+    public long getTotal() {
+        return sum;
+    }
+    
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.hybridIndexer.util;
+
+/**
+ * Escala log-linear dos histogramas (LatencyHistogram e StripedHistogram).
+ * Cada potência de dois é dividida em 2^subBucketBits faixas iguais: valores
+ * abaixo de 2^subBucketBits são exatos e acima disso o erro relativo é menor
+ * que 1 / 2^subBucketBits, com memória fixa e sem guardar as amostras.
+ */
+final class LogLinearScale {
+    private final int subBucketBits;
+    private final int subBuckets;
+    
+    LogLinearScale(int subBucketBits) {
+        this.subBucketBits = subBucketBits;
+        this.subBuckets = 1 << subBucketBits;
+    }
+    
+    /**
+     * Número de faixas necessárias para qualquer long não negativo
+     */
+    int bucketCount() {
+        return (64 - subBucketBits) * subBuckets;
+    }
+    
+    /**
+     * Faixa do valor: exata abaixo de 2^subBucketBits, senão a potência de dois
+     * e os subBucketBits bits seguintes
+     */
+    int index(long value) {
+        if (value < subBuckets) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        int sub = (int) (value >>> shift) & (subBuckets - 1);
+        return subBuckets + shift * subBuckets + sub;
+    }
+    
+    /**
+     * Maior valor que cai na faixa
+     */
+    long upperBound(int index) {
+        if (index < subBuckets) {
+            return index;
+        }
+        int shift = index / subBuckets - 1;
+        int sub = index % subBuckets;
+        return ((long) (subBuckets + sub + 1) << shift) - 1;
+    }
+    
+    /**
+     * Valor abaixo do qual estão p% das contagens (limite superior da faixa,
+     * nunca maior que o máximo registrado)
+     * @param counts Contagem de cada faixa
+     * @param count Soma das contagens
+     * @param percentile Percentil entre 0 e 100
+     * @param max Maior valor registrado
+     * @return O valor do percentil, ou 0 sem registros
+     */
+    long percentile(long[] counts, long count, double percentile, long max) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentil deve estar entre 0 e 100: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,245 @@
+package br.com.hybridIndexer.util;
+
+/**
+ * Versão de HashLinearTrial especializada para chaves long e valores int.
+ * Chaves, valores e distâncias de sondagem ficam em vetores primitivos
+ * paralelos: put, get e remove não criam objetos nem chamam equals.
+ * Usa o mesmo esquema Robin Hood, com capacidade potência de dois.
+ */
+public class LongIntHashMap {
+    private static final double MAX_LOAD_FACTOR = 0.9;
+
+    private int N; // numero de pares de chaves na tabela
+    private int M; // Tamanho da tabela (potência de dois)
+    private int mask;
+    private long[] keys;
+    private int[] vals;
+    private int[] dist; // distância até a posição ideal + 1 (0 = posição vazia)
+    private final int missingValue; // devolvido por get/remove quando a chave não existe
+    private long probes;
+
+    public LongIntHashMap() {
+        this(16, -1);
+    }
+
+    /**
+     * @param cap Capacidade inicial (arredondada para potência de dois)
+     * @param missingValue Valor devolvido quando a chave não existe
+     */
+    public LongIntHashMap(int cap, int missingValue) {
+        if (cap < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + cap);
+        }
+        this.missingValue = missingValue;
+        allocate(Integer.highestOneBit(Math.max(2, cap - 1)) << 1);
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        vals = new int[cap];
+        dist = new int[cap];
+        M = cap;
+        mask = cap - 1;
+    }
+
+    /**
+     * Espalha os bits da chave (finalizador do MurmurHash3), para que ids
+     * sequenciais não ocupem posições vizinhas
+     */
+    private int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    private void resize(int cap) {
+        long[] oldKeys = keys;
+        int[] oldVals = vals;
+        int[] oldDist = dist;
+
+        allocate(cap);
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldDist[i] != 0)
+                place(oldKeys[i], oldVals[i]);
+    }
+
+    /**
+     * Posiciona uma chave que sabidamente não está na tabela
+     */
+    private void place(long key, int val) {
+        int d = 1;
+        for (int i = hash(key); ; i = (i + 1) & mask, d++) {
+            if (dist[i] == 0) {
+                keys[i] = key;
+                vals[i] = val;
+                dist[i] = d;
+                return;
+            }
+            if (dist[i] < d) {
+                long k = keys[i]; int v = vals[i]; int kd = dist[i];
+                keys[i] = key; vals[i] = val; dist[i] = d;
+                key = k; val = v; d = kd;
+            }
+        }
+    }
+
+    private int indexOf(long key) {
+        int d = 1;
+        for (int i = hash(key); dist[i] >= d; i = (i + 1) & mask, d++) {
+            probes++;
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        probes++;
+        return -1;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Busca o valor da chave
+     * @return O valor, ou missingValue se a chave não existir
+     */
+    public int get(long key) {
+        int i = indexOf(key);
+        return i >= 0 ? vals[i] : missingValue;
+    }
+
+    /**
+     * Insere ou substitui o valor da chave
+     * @return O valor anterior, ou missingValue se a chave não existia
+     */
+    public int put(long key, int val) {
+        if (N + 1 > M * MAX_LOAD_FACTOR) {
+            resize(2*M);
+        }
+
+        int d = 1;
+        for (int i = hash(key); ; i = (i + 1) & mask, d++) {
+            probes++;
+            if (dist[i] == 0) {
+                keys[i] = key;
+                vals[i] = val;
+                dist[i] = d;
+                N++;
+                return missingValue;
+            }
+            if (dist[i] == d && keys[i] == key) {
+                int previous = vals[i];
+                vals[i] = val;
+                return previous;
+            }
+            if (dist[i] < d) {
+                long k = keys[i]; int v = vals[i];
+                keys[i] = key; vals[i] = val; dist[i] = d;
+                N++;
+                place(k, v);
+                return missingValue;
+            }
+        }
+    }
+
+    /**
+     * Remove a chave por deslocamento para trás
+     * @return O valor removido, ou missingValue se a chave não existia
+     */
+    public int remove(long key) {
+        int i = indexOf(key);
+        if (i < 0)
+            return missingValue;
+
+        int removed = vals[i];
+        int j = (i + 1) & mask;
+        while (dist[j] > 1) {
+            keys[i] = keys[j];
+            vals[i] = vals[j];
+            dist[i] = dist[j] - 1;
+            i = j;
+            j = (j + 1) & mask;
+        }
+        dist[i] = 0;
+
+        N--;
+        if (M > 16 && N <= M/8)
+            resize(M/2);
+        return removed;
+    }
+
+    public void clear() {
+        allocate(16);
+        N = 0;
+    }
+
+    public int size() {
+        return N;
+    }
+
+    public boolean isEmpty() {
+        return N == 0;
+    }
+
+    public int capacity() {
+        return M;
+    }
+
+    /**
+     * Memória estimada do mapa: chaves, valores e distâncias
+     */
+    public long estimatedBytes() {
+        return HeapEstimate.object(4 + 4 + 4 + 3 * HeapEstimate.REFERENCE + 8)
+            + HeapEstimate.array(M, 8) + 2 * HeapEstimate.array(M, 4);
+    }
+
+    public int getMissingValue() {
+        return missingValue;
+    }
+
+    /**
+     * Total de posições visitadas por buscas e inserções
+     */
+    public long getProbes() {
+        return probes;
+    }
+
+    public void resetProbes() {
+        probes = 0;
+    }
+
+    /**
+     * Maior distância entre uma chave e sua posição ideal (pior sondagem)
+     */
+    public int maxProbeLength() {
+        int max = 0;
+        for (int d : dist)
+            max = Math.max(max, d);
+        return max;
+    }
+
+    /**
+     * Cópia das chaves, na ordem da tabela
+     */
+    public long[] keys() {
+        long[] result = new long[N];
+        for (int i = 0, n = 0; i < M; i++)
+            if (dist[i] != 0)
+                result[n++] = keys[i];
+        return result;
+    }
+
+    /**
+     * Cópia dos valores, na mesma ordem de keys()
+     */
+    public int[] values() {
+        int[] result = new int[N];
+        for (int i = 0, n = 0; i < M; i++)
+            if (dist[i] != 0)
+                result[n++] = vals[i];
+        return result;
+    }
+}
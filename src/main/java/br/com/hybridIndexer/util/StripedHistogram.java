@@ -0,0 +1,110 @@
+package br.com.hybridIndexer.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma seguro para várias threads, com contadores LongAdder por faixa.
+ * Usa a escala log-linear do LatencyHistogram (LogLinearScale) com 8 faixas por potência
+ * de dois: valores abaixo de 16 são exatos (comprimentos de sondagem, por
+ * exemplo) e acima disso o erro relativo é menor que 1/8. Os contadores de
+ * cada faixa só são criados quando a faixa recebe o primeiro valor.
+ * A leitura é feita sem bloquear as escritas, então percentis lidos durante
+ * gravações concorrentes são aproximados.
+ */
+public class StripedHistogram {
+    private static final LogLinearScale SCALE = new LogLinearScale(3);
+    
+    private final AtomicReferenceArray<LongAdder> counts = new AtomicReferenceArray<>(SCALE.bucketCount());
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+    
+    /**
+     * Registra um valor não negativo
+     */
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Valor não pode ser negativo: " + value);
+        }
+        int i = SCALE.index(value);
+        LongAdder adder = counts.get(i);
+        if (adder == null) {
+            counts.compareAndSet(i, null, new LongAdder());
+            adder = counts.get(i);
+        }
+        adder.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+    
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            LongAdder adder = counts.get(i);
+            if (adder != null) {
+                total += adder.sum();
+            }
+        }
+        return total;
+    }
+    
+    public long getTotal() {
+        return sum.sum();
+    }
+    
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0.0 : (double) getTotal() / count;
+    }
+    
+    public long getMax() {
+        return max.get();
+    }
+    
+    /**
+     * Valor abaixo do qual estão p% dos registros (limite superior da faixa)
+     * @param percentile Percentil entre 0 e 100
+     * @return O valor do percentil, ou 0 sem registros
+     */
+    public long percentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            LongAdder adder = counts.get(i);
+            snapshot[i] = adder == null ? 0 : adder.sum();
+            count += snapshot[i];
+        }
+        return SCALE.percentile(snapshot, count, percentile, getMax());
+    }
+    
+    /**
+     * Contagem de cada faixa não vazia, indexada pelo maior valor da faixa
+     */
+    public Map<Long, Long> buckets() {
+        Map<Long, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length(); i++) {
+            LongAdder adder = counts.get(i);
+            if (adder != null && adder.sum() > 0) {
+                buckets.put(SCALE.upperBound(i), adder.sum());
+            }
+        }
+        return buckets;
+    }
+    
+    /**
+     * Zera o histograma. Registros concorrentes ao reset podem ser perdidos.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            LongAdder adder = counts.get(i);
+            if (adder != null) {
+                adder.reset();
+            }
+        }
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,367 @@
+package br.com.hybridIndexer.util;
+
+import br.com.hybridIndexer.model.Transaction;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * Gerador de cargas de trabalho com a assimetria da produção, reproduzível
+ * pela semente. Diferente de DatasetGenerator (15 origens e destinos
+ * uniformes e datas sorteadas em cinco anos):
+ * - origens e destinos vêm de milhares a milhões de chaves distintas, com
+ *   popularidade de Zipf (poucas chaves quentes e uma cauda longa), o que
+ *   exercita o escalonamento dos buckets grandes e as colisões das chaves raras;
+ * - os instantes seguem um relógio com intervalos exponenciais e rajadas de
+ *   transações muito próximas, em ordem, quase em ordem (atraso limitado) ou
+ *   espalhados ao acaso pelo mesmo período;
+ * - os valores seguem uma log-normal (muitos valores pequenos, poucos grandes).
+ * A mesma semente e a mesma configuração geram sempre as mesmas transações.
+ * Os parâmetros podem ser lidos de propriedades com o prefixo "workload.".
+ */
+public class WorkloadGenerator {
+    public static final String PROPERTY_PREFIX = "workload.";
+    
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int NAME_CACHE_LIMIT = 1 << 20;
+    
+    /**
+     * Ordem dos instantes em relação à ordem de geração
+     */
+    public enum TimeOrder {
+        ORDERED,        // instantes crescentes
+        NEAR_ORDERED,   // cada instante atrasado ao acaso em até maxDisorderSeconds
+        RANDOM          // instantes uniformes no período que o relógio cobriria
+    }
+    
+    private final long seed;
+    private int origens = 10_000;
+    private double origemSkew = 1.0;        // expoente de Zipf (0 = uniforme)
+    private int destinos = 100_000;
+    private double destinoSkew = 0.8;
+    private TimeOrder timeOrder = TimeOrder.NEAR_ORDERED;
+    private LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private double meanGapMillis = 1000;    // intervalo médio entre transações fora de rajadas
+    private int maxDisorderSeconds = 300;   // atraso máximo em NEAR_ORDERED
+    private double burstProbability = 0.0005; // chance de uma transação iniciar uma rajada
+    private int burstLength = 1000;         // transações por rajada, em média
+    private double burstIntensity = 50;     // quantas vezes o intervalo encolhe durante a rajada
+    
+    /**
+     * @param seed Semente; a mesma semente e configuração geram as mesmas transações
+     */
+    public WorkloadGenerator(long seed) {
+        this.seed = seed;
+    }
+    
+    /**
+     * Cria o gerador a partir de propriedades; chaves ausentes mantêm o padrão
+     * @throws IllegalArgumentException se algum valor for inválido
+     */
+    public static WorkloadGenerator fromProperties(long seed, Properties properties) {
+        WorkloadGenerator generator = new WorkloadGenerator(seed);
+        String value;
+        if ((value = property(properties, "origens")) != null) {
+            generator.setOrigens(Integer.parseInt(value));
+        }
+        if ((value = property(properties, "origemSkew")) != null) {
+            generator.setOrigemSkew(Double.parseDouble(value));
+        }
+        if ((value = property(properties, "destinos")) != null) {
+            generator.setDestinos(Integer.parseInt(value));
+        }
+        if ((value = property(properties, "destinoSkew")) != null) {
+            generator.setDestinoSkew(Double.parseDouble(value));
+        }
+        if ((value = property(properties, "timeOrder")) != null) {
+            try {
+                generator.setTimeOrder(TimeOrder.valueOf(value));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("timeOrder deve ser ORDERED, NEAR_ORDERED ou RANDOM: " + value);
+            }
+        }
+        if ((value = property(properties, "start")) != null) {
+            try {
+                generator.setStart(LocalDateTime.parse(value, TIMESTAMP));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("start deve estar no formato yyyy-MM-dd HH:mm:ss: " + value);
+            }
+        }
+        if ((value = property(properties, "meanGapMillis")) != null) {
+            generator.setMeanGapMillis(Double.parseDouble(value));
+        }
+        if ((value = property(properties, "maxDisorderSeconds")) != null) {
+            generator.setMaxDisorderSeconds(Integer.parseInt(value));
+        }
+        if ((value = property(properties, "burstProbability")) != null) {
+            generator.setBurstProbability(Double.parseDouble(value));
+        }
+        if ((value = property(properties, "burstLength")) != null) {
+            generator.setBurstLength(Integer.parseInt(value));
+        }
+        if ((value = property(properties, "burstIntensity")) != null) {
+            generator.setBurstIntensity(Double.parseDouble(value));
+        }
+        return generator;
+    }
+    
+    private static String property(Properties properties, String name) {
+        String value = properties.getProperty(PROPERTY_PREFIX + name);
+        return value == null ? null : value.trim();
+    }
+    
+    /**
+     * Gera as transações em memória
+     * @param numberOfTransactions Número de transações a gerar
+     * @return Transações na ordem de geração (ids crescentes)
+     */
+    public List<Transaction> generate(int numberOfTransactions) {
+        List<Transaction> transactions = new ArrayList<>(numberOfTransactions);
+        generate(numberOfTransactions, transactions::add);
+        return transactions;
+    }
+    
+    /**
+     * Gera as transações uma a uma, sem guardá-las, para datasets maiores que o heap
+     * @param numberOfTransactions Número de transações a gerar
+     * @param sink Recebe cada transação, na ordem de geração
+     */
+    public void generate(long numberOfTransactions, Consumer<Transaction> sink) {
+        if (numberOfTransactions < 0) {
+            throw new IllegalArgumentException("Número de transações não pode ser negativo: " + numberOfTransactions);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        ZipfSampler origemSampler = new ZipfSampler(origens, origemSkew);
+        ZipfSampler destinoSampler = new ZipfSampler(destinos, destinoSkew);
+        String[] origemNames = new String[Math.min(origens, NAME_CACHE_LIMIT)];
+        String[] destinoNames = new String[Math.min(destinos, NAME_CACHE_LIMIT)];
+        long startMillis = start.toEpochSecond(ZoneOffset.UTC) * 1000;
+        double spanMillis = numberOfTransactions * meanGapMillis;
+        double clock = startMillis;
+        long burstRemaining = 0;
+        
+        for (long i = 0; i < numberOfTransactions; i++) {
+            // Relógio: intervalos exponenciais, encolhidos durante as rajadas
+            if (burstRemaining == 0 && random.nextDouble() < burstProbability) {
+                burstRemaining = 1 + (long) exponential(random, burstLength);
+            }
+            double gap = meanGapMillis;
+            if (burstRemaining > 0) {
+                gap /= burstIntensity;
+                burstRemaining--;
+            }
+            clock += exponential(random, gap);
+            
+            long millis;
+            if (timeOrder == TimeOrder.ORDERED) {
+                millis = (long) clock;
+            } else if (timeOrder == TimeOrder.NEAR_ORDERED) {
+                millis = Math.max(startMillis, (long) clock - random.nextLong(maxDisorderSeconds * 1000L + 1));
+            } else {
+                millis = startMillis + (long) (random.nextDouble() * spanMillis);
+            }
+            
+            String origem = name(origemNames, "ORG", origemSampler.sample(random), 7);
+            String destino = name(destinoNames, "DST", destinoSampler.sample(random), 8);
+            sink.accept(new Transaction(padded("TRX", i, 8), valor(random), origem, destino, timestamp(millis)));
+        }
+    }
+    
+    /**
+     * Amostra exponencial com a média informada
+     */
+    private static double exponential(SplittableRandom random, double mean) {
+        return -mean * Math.log(1.0 - random.nextDouble());
+    }
+    
+    /**
+     * Valor log-normal com mediana de 150,00, entre 0,01 e 1.000.000,00
+     */
+    private static float valor(SplittableRandom random) {
+        double valor = 150.0 * Math.exp(1.2 * random.nextGaussian());
+        valor = Math.min(1_000_000.0, Math.max(0.01, valor));
+        return Math.round(valor * 100) / 100f;
+    }
+    
+    private static String timestamp(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), 0, ZoneOffset.UTC).format(TIMESTAMP);
+    }
+    
+    /**
+     * Nome da chave de uma posição. As posições mais populares (as primeiras)
+     * reutilizam a mesma String, como aconteceria com chaves lidas de um
+     * cadastro; além do limite do cache cada transação recebe a sua.
+     */
+    private static String name(String[] cache, String prefix, int rank, int width) {
+        if (rank <= cache.length) {
+            String name = cache[rank - 1];
+            if (name == null) {
+                name = padded(prefix, rank, width);
+                cache[rank - 1] = name;
+            }
+            return name;
+        }
+        return padded(prefix, rank, width);
+    }
+    
+    /**
+     * Prefixo seguido do número com zeros à esquerda (sem String.format)
+     */
+    static String padded(String prefix, long value, int width) {
+        String digits = Long.toString(value);
+        StringBuilder sb = new StringBuilder(prefix.length() + Math.max(width, digits.length()));
+        sb.append(prefix);
+        for (int i = digits.length(); i < width; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+    
+    // Getters e Setters
+    public long getSeed() {
+        return seed;
+    }
+    
+    public int getOrigens() {
+        return origens;
+    }
+    
+    public void setOrigens(int origens) {
+        if (origens < 1) {
+            throw new IllegalArgumentException("Número de origens deve ser positivo: " + origens);
+        }
+        this.origens = origens;
+    }
+    
+    public double getOrigemSkew() {
+        return origemSkew;
+    }
+    
+    /**
+     * Expoente de Zipf da popularidade das origens (0 = uniforme; 1 ou mais
+     * concentra a maior parte das transações em poucas origens)
+     */
+    public void setOrigemSkew(double origemSkew) {
+        if (!(origemSkew >= 0)) {
+            throw new IllegalArgumentException("Assimetria das origens não pode ser negativa: " + origemSkew);
+        }
+        this.origemSkew = origemSkew;
+    }
+    
+    public int getDestinos() {
+        return destinos;
+    }
+    
+    public void setDestinos(int destinos) {
+        if (destinos < 1) {
+            throw new IllegalArgumentException("Número de destinos deve ser positivo: " + destinos);
+        }
+        this.destinos = destinos;
+    }
+    
+    public double getDestinoSkew() {
+        return destinoSkew;
+    }
+    
+    public void setDestinoSkew(double destinoSkew) {
+        if (!(destinoSkew >= 0)) {
+            throw new IllegalArgumentException("Assimetria dos destinos não pode ser negativa: " + destinoSkew);
+        }
+        this.destinoSkew = destinoSkew;
+    }
+    
+    public TimeOrder getTimeOrder() {
+        return timeOrder;
+    }
+    
+    public void setTimeOrder(TimeOrder timeOrder) {
+        if (timeOrder == null) {
+            throw new IllegalArgumentException("Ordem dos instantes não pode ser null");
+        }
+        this.timeOrder = timeOrder;
+    }
+    
+    public LocalDateTime getStart() {
+        return start;
+    }
+    
+    /**
+     * Instante da primeira transação (UTC)
+     */
+    public void setStart(LocalDateTime start) {
+        if (start == null) {
+            throw new IllegalArgumentException("Instante inicial não pode ser null");
+        }
+        this.start = start;
+    }
+    
+    public double getMeanGapMillis() {
+        return meanGapMillis;
+    }
+    
+    public void setMeanGapMillis(double meanGapMillis) {
+        if (!(meanGapMillis > 0)) {
+            throw new IllegalArgumentException("Intervalo médio deve ser positivo: " + meanGapMillis);
+        }
+        this.meanGapMillis = meanGapMillis;
+    }
+    
+    public int getMaxDisorderSeconds() {
+        return maxDisorderSeconds;
+    }
+    
+    public void setMaxDisorderSeconds(int maxDisorderSeconds) {
+        if (maxDisorderSeconds < 0) {
+            throw new IllegalArgumentException("Atraso máximo não pode ser negativo: " + maxDisorderSeconds);
+        }
+        this.maxDisorderSeconds = maxDisorderSeconds;
+    }
+    
+    public double getBurstProbability() {
+        return burstProbability;
+    }
+    
+    public void setBurstProbability(double burstProbability) {
+        if (!(burstProbability >= 0 && burstProbability <= 1)) {
+            throw new IllegalArgumentException("Probabilidade de rajada deve estar em [0, 1]: " + burstProbability);
+        }
+        this.burstProbability = burstProbability;
+    }
+    
+    public int getBurstLength() {
+        return burstLength;
+    }
+    
+    public void setBurstLength(int burstLength) {
+        if (burstLength < 1) {
+            throw new IllegalArgumentException("Tamanho médio da rajada deve ser positivo: " + burstLength);
+        }
+        this.burstLength = burstLength;
+    }
+    
+    public double getBurstIntensity() {
+        return burstIntensity;
+    }
+    
+    public void setBurstIntensity(double burstIntensity) {
+        if (!(burstIntensity >= 1)) {
+            throw new IllegalArgumentException("Intensidade da rajada deve ser pelo menos 1: " + burstIntensity);
+        }
+        this.burstIntensity = burstIntensity;
+    }
+    
+    @Override
+    public String toString() {
+        return "WorkloadGenerator{seed=" + seed + ", origens=" + origens + ", origemSkew=" + origemSkew
+            + ", destinos=" + destinos + ", destinoSkew=" + destinoSkew + ", timeOrder=" + timeOrder
+            + ", start=" + start.format(TIMESTAMP) + ", meanGapMillis=" + meanGapMillis
+            + ", maxDisorderSeconds=" + maxDisorderSeconds + ", burstProbability=" + burstProbability
+            + ", burstLength=" + burstLength + ", burstIntensity=" + burstIntensity + "}";
+    }
+}
@@ -0,0 +1,102 @@
+package br.com.hybridIndexer.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * Amostrador da distribuição de Zipf sobre as posições 1..n: a posição k é
+ * sorteada com probabilidade proporcional a 1 / k^expoente. Usa o método de
+ * rejeição-inversão de Hörmann e Derflinger, com custo constante por amostra
+ * e sem tabelas, então serve para milhões de chaves distintas.
+ * Expoente 0 equivale à distribuição uniforme.
+ */
+public class ZipfSampler {
+    private final int n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+    
+    /**
+     * @param n Número de posições (chaves distintas)
+     * @param exponent Expoente da distribuição (0 = uniforme, 1 = Zipf clássica)
+     * @throws IllegalArgumentException se n < 1 ou o expoente for negativo
+     */
+    public ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Número de posições deve ser positivo: " + n);
+        }
+        if (!(exponent >= 0)) {
+            throw new IllegalArgumentException("Expoente não pode ser negativo: " + exponent);
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1.0;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2.0 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+    
+    /**
+     * Sorteia uma posição
+     * @return Posição entre 1 (a mais provável) e n
+     */
+    public int sample(SplittableRandom random) {
+        if (exponent == 0) {
+            return 1 + random.nextInt(n);
+        }
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+    
+    public int getN() {
+        return n;
+    }
+    
+    public double getExponent() {
+        return exponent;
+    }
+    
+    // H(x), primitiva de h(x) = 1 / x^expoente, escrita de forma estável perto de expoente = 1
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1.0 - exponent) * logX) * logX;
+    }
+    
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+    
+    private double hIntegralInverse(double x) {
+        double t = x * (1.0 - exponent);
+        if (t < -1.0) {
+            t = -1.0;
+        }
+        return Math.exp(helper1(t) * x);
+    }
+    
+    // log(1 + x) / x, com a série de Taylor perto de 0
+    private static double helper1(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1.0 - x * (0.5 - x * (1.0 / 3.0 - 0.25 * x));
+    }
+    
+    // (exp(x) - 1) / x, com a série de Taylor perto de 0
+    private static double helper2(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1.0 + x * 0.5 * (1.0 + x * (1.0 / 3.0) * (1.0 + 0.25 * x));
+    }
+}
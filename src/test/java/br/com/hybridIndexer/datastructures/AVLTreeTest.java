@@ -0,0 +1,68 @@
+package br.com.hybridIndexer.datastructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.Test;
+
+/**
+ * Inserções e remoções aleatórias na AVL comparadas a um TreeSet, verificando
+ * o tamanho (que remove só decrementa quando o valor existe), a ordem e o
+ * balanceamento e as alturas guardadas em cada nó.
+ */
+public class AVLTreeTest {
+
+    /**
+     * @return Altura da subárvore (-1 para vazia)
+     */
+    private static int checkNode(NodeAVL<Integer> node) {
+        if (node == null) {
+            return -1;
+        }
+        int left = checkNode(node.getLeft());
+        int right = checkNode(node.getRight());
+        assertTrue("desbalanceada em " + node.getElement(), Math.abs(left - right) <= 1);
+        int height = Math.max(left, right) + 1;
+        assertEquals("altura guardada em " + node.getElement(), height, node.getHeight());
+        return height;
+    }
+
+    private static void checkTree(AVLTree<Integer> tree, TreeSet<Integer> model) {
+        assertEquals(model.size(), tree.size());
+        checkNode(tree.getRoot());
+        List<Integer> inOrder = new ArrayList<>();
+        tree.forEach(inOrder::add);
+        assertEquals(new ArrayList<>(model), inOrder);
+    }
+
+    @Test
+    public void randomInsertsAndRemovesKeepInvariants() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        TreeSet<Integer> model = new TreeSet<>();
+        Random random = new Random(1);
+        for (int op = 0; op < 20_000; op++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(model.remove(value), tree.remove(value));
+                checkTree(tree, model);
+            } else if (model.add(value)) {
+                tree.insert(value);
+            }
+            assertEquals(model.contains(value), tree.find(value));
+        }
+        checkTree(tree, model);
+    }
+
+    @Test
+    public void removingMissingValueKeepsSize() {
+        AVLTree<Integer> tree = new AVLTree<>();
+        tree.insert(1);
+        tree.insert(2);
+        assertEquals(false, tree.remove(3));
+        assertEquals(2, tree.size());
+    }
+}
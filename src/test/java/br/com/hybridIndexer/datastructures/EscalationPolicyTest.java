@@ -0,0 +1,29 @@
+package br.com.hybridIndexer.datastructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.util.Properties;
+import org.junit.Test;
+
+public class EscalationPolicyTest {
+
+    @Test
+    public void rejectsSameHashLimitBelowMinimum() {
+        EscalationPolicy policy = new EscalationPolicy();
+        assertThrows(IllegalArgumentException.class, () -> policy.setMaxQuadraticProbes(0));
+        assertThrows(IllegalArgumentException.class,
+                     () -> policy.setMaxQuadraticProbes(EscalationPolicy.MIN_QUADRATIC_PROBES - 1));
+        policy.setMaxQuadraticProbes(EscalationPolicy.MIN_QUADRATIC_PROBES);
+        assertEquals(EscalationPolicy.MIN_QUADRATIC_PROBES, policy.getMaxQuadraticProbes());
+    }
+
+    @Test
+    public void propertiesAreValidatedLikeSetters() {
+        Properties properties = new Properties();
+        properties.setProperty("hybridIndexer.maxQuadraticProbes", "1");
+        assertThrows(IllegalArgumentException.class, () -> EscalationPolicy.fromProperties(properties));
+        properties.setProperty("hybridIndexer.maxQuadraticProbes", "5");
+        assertEquals(5, EscalationPolicy.fromProperties(properties).getMaxQuadraticProbes());
+    }
+}
@@ -0,0 +1,390 @@
+package br.com.hybridIndexer.datastructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import br.com.hybridIndexer.model.Transaction;
+import br.com.hybridIndexer.util.CollisionAttackBenchmark;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * Compara a HybridHashTable com um modelo de referência (um mapa id → transação)
+ * durante sequências aleatórias de inserções, atualizações e remoções.
+ * Os limites da política são pequenos para que os buckets passem por todas as
+ * estruturas (vetor ordenado, AVL, Rubro-Negra, B+) nos dois sentidos, e a
+ * capacidade inicial é mínima para que a tabela cresça e encolha várias vezes.
+ */
+public class HybridHashTableTest {
+    private static final String START = "2023-01-01 00:00:00";
+    private static final String END = "2023-12-31 23:59:59";
+    private static final int ORIGENS = 40;
+    private static final int DESTINOS = 12;
+
+    private static EscalationPolicy smallPolicy() {
+        EscalationPolicy policy = new EscalationPolicy();
+        policy.setSmallBucketThreshold(4);
+        policy.setMaxAvlHeight(3);
+        policy.setBPlusTreeThreshold(32);
+        return policy;
+    }
+
+    private static HybridHashTable newTable(HybridHashTable.IdIndex idIndex, HashStrategy hashStrategy) {
+        return new HybridHashTable(16, true, true, idIndex, hashStrategy, smallPolicy());
+    }
+
+    private static String timestamp(Random random) {
+        // Poucos minutos distintos, para que haja empates de timestamp desfeitos pelo id
+        return String.format("2023-%02d-%02d %02d:%02d:00", 1 + random.nextInt(12), 1 + random.nextInt(28),
+                             random.nextInt(24), random.nextInt(4) * 15);
+    }
+
+    private static Transaction randomTransaction(Random random, String id) {
+        return new Transaction(id, random.nextInt(1000), "ORIG" + random.nextInt(ORIGENS),
+                               "DEST" + random.nextInt(DESTINOS), timestamp(random));
+    }
+
+    private static List<Transaction> expected(Map<String, Transaction> model, Predicate<Transaction> filter) {
+        return model.values().stream().filter(filter).sorted().collect(Collectors.toList());
+    }
+
+    private static void assertMatches(HybridHashTable table, Map<String, Transaction> model, Random random) {
+        assertEquals("tamanho", model.size(), table.getSize());
+        for (Transaction t : model.values()) {
+            assertEquals(t, table.getById(t.getId()));
+        }
+        String from = timestamp(random);
+        String to = timestamp(random);
+        if (from.compareTo(to) > 0) {
+            String swap = from;
+            from = to;
+            to = swap;
+        }
+        String start = from;
+        String end = to;
+        for (int i = 0; i < ORIGENS; i++) {
+            String origem = "ORIG" + i;
+            assertEquals(origem, expected(model, t -> t.getOrigem().equals(origem)),
+                         table.search(origem, START, END));
+            assertEquals(origem + " entre " + start + " e " + end,
+                         expected(model, t -> t.getOrigem().equals(origem)
+                             && t.getTimestamp().compareTo(start) >= 0 && t.getTimestamp().compareTo(end) <= 0),
+                         table.search(origem, start, end));
+        }
+        for (int i = 0; i < DESTINOS; i++) {
+            String destino = "DEST" + i;
+            assertEquals(destino, expected(model, t -> t.getDestino().equals(destino)),
+                         table.searchByDestino(destino, START, END));
+            String origem = "ORIG" + random.nextInt(ORIGENS);
+            assertEquals(origem + "→" + destino,
+                         expected(model, t -> t.getOrigem().equals(origem) && t.getDestino().equals(destino)),
+                         table.searchByOrigemDestino(origem, destino, START, END));
+        }
+    }
+
+    private static void runRandomOperations(HybridHashTable.IdIndex idIndex, HashStrategy hashStrategy) {
+        HybridHashTable table = newTable(idIndex, hashStrategy);
+        Map<String, Transaction> model = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        Random random = new Random(42);
+        int nextId = 0;
+
+        for (int op = 1; op <= 12_000; op++) {
+            int choice = random.nextInt(10);
+            if (choice < 5 || ids.isEmpty()) {
+                Transaction t = randomTransaction(random, "T" + nextId++);
+                table.put(t);
+                model.put(t.getId(), t);
+                ids.add(t.getId());
+            } else if (choice < 7) {
+                Transaction t = randomTransaction(random, ids.get(random.nextInt(ids.size())));
+                assertEquals(model.put(t.getId(), t), table.update(t));
+            } else {
+                String id = ids.remove(random.nextInt(ids.size()));
+                assertEquals(model.remove(id), table.removeById(id));
+                assertNull(table.removeById(id));
+            }
+            if (op % 1000 == 0) {
+                assertMatches(table, model, random);
+            }
+        }
+
+        // Esvaziar: as árvores voltam a estruturas menores e a tabela encolhe
+        for (String id : ids) {
+            assertEquals(model.remove(id), table.removeById(id));
+            if (model.size() % 500 == 0) {
+                assertMatches(table, model, random);
+            }
+        }
+        assertEquals(0, table.getSize());
+        assertEquals(16, table.getCapacity());
+        assertTrue(table.search("ORIG0", START, END).isEmpty());
+    }
+
+    @Test
+    public void randomOperationsMatchModelWithChaining() {
+        runRandomOperations(HybridHashTable.IdIndex.CHAINING, HashStrategy.seeded(7));
+    }
+
+    @Test
+    public void randomOperationsMatchModelWithRobinHood() {
+        runRandomOperations(HybridHashTable.IdIndex.ROBIN_HOOD, HashStrategy.seeded(7));
+    }
+
+    @Test
+    public void randomOperationsMatchModelWithPrimitiveIdIndex() {
+        runRandomOperations(HybridHashTable.IdIndex.PRIMITIVE, HashStrategy.seeded(7));
+    }
+
+    @Test
+    public void randomOperationsMatchModelWithStringHashCode() {
+        runRandomOperations(HybridHashTable.IdIndex.CHAINING, HashStrategy.javaHashCode());
+    }
+
+    @Test
+    public void parallelScanMatchesSequentialScan() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Sem particionamento a origem quente fica em uma B+; com limite 200, em partições mensais
+            for (int partitionThreshold : new int[] {Integer.MAX_VALUE, 200}) {
+                EscalationPolicy parallelPolicy = smallPolicy();
+                parallelPolicy.setPartitionThreshold(partitionThreshold);
+                parallelPolicy.setParallelScanThreshold(8);
+                EscalationPolicy sequentialPolicy = smallPolicy();
+                sequentialPolicy.setPartitionThreshold(partitionThreshold);
+                HybridHashTable parallel = new HybridHashTable(16, true, true, HybridHashTable.IdIndex.CHAINING,
+                                                               HashStrategy.seeded(7), parallelPolicy);
+                parallel.setScanPool(pool);
+                HybridHashTable sequential = new HybridHashTable(16, true, true, HybridHashTable.IdIndex.CHAINING,
+                                                                 HashStrategy.seeded(7), sequentialPolicy);
+                Random random = new Random(3);
+                for (int i = 0; i < 5_000; i++) {
+                    Transaction t = randomTransaction(random, "T" + i);
+                    if (random.nextBoolean()) {
+                        t = new Transaction(t.getId(), t.getValor(), "ORIG0", t.getDestino(), t.getTimestamp());
+                    }
+                    parallel.put(t);
+                    sequential.put(t);
+                }
+                assertEquals(sequential.search("ORIG0", null, null), parallel.search("ORIG0", null, null));
+                for (int q = 0; q < 200; q++) {
+                    String from = timestamp(random);
+                    String to = timestamp(random);
+                    String origem = "ORIG" + random.nextInt(3);
+                    String destino = "DEST" + random.nextInt(DESTINOS);
+                    assertEquals(sequential.search(origem, from, to), parallel.search(origem, from, to));
+                    assertEquals(sequential.searchByDestino(destino, from, to),
+                                 parallel.searchByDestino(destino, from, to));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void repeatedIdReplacesWithEveryIdIndex() {
+        for (HybridHashTable.IdIndex idIndex : HybridHashTable.IdIndex.values()) {
+            HybridHashTable table = newTable(idIndex, HashStrategy.seeded(7));
+            Map<String, Transaction> model = new HashMap<>();
+            Random random = new Random(5);
+            // As mesmas 200 ids duas vezes; na segunda, origem, destino e instante mudam
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < 200; i++) {
+                    Transaction t = randomTransaction(random, "T" + i);
+                    table.put(t);
+                    model.put(t.getId(), t);
+                }
+            }
+            assertEquals(idIndex.toString(), 200, table.getSize());
+            assertMatches(table, model, random);
+        }
+    }
+
+    @Test
+    public void dropPartitionsBeforeKeepsIndexesConsistent() {
+        for (HybridHashTable.IdIndex idIndex : HybridHashTable.IdIndex.values()) {
+            EscalationPolicy policy = smallPolicy();
+            policy.setPartitionThreshold(20);
+            HybridHashTable table = new HybridHashTable(16, true, true, idIndex, HashStrategy.seeded(7), policy);
+            Map<String, Transaction> model = new HashMap<>();
+            Random random = new Random(8);
+            // Cinco origens com ~600 transações cada: todos os buckets de origem ficam particionados
+            for (int i = 0; i < 3_000; i++) {
+                Transaction t = randomTransaction(random, "T" + i);
+                t = new Transaction(t.getId(), t.getValor(), "ORIG" + random.nextInt(5), t.getDestino(),
+                                    t.getTimestamp());
+                table.put(t);
+                model.put(t.getId(), t);
+            }
+            List<String> droppedIds = model.values().stream()
+                .filter(t -> t.getTimestamp().compareTo("2023-07") < 0)
+                .map(Transaction::getId).collect(Collectors.toList());
+            assertEquals(droppedIds.size(), table.dropPartitionsBefore("2023-07-10 00:00:00"));
+            for (String id : droppedIds) {
+                model.remove(id);
+                assertNull(table.getById(id));
+            }
+            assertMatches(table, model, random);
+        }
+    }
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static List<Transaction> inWindow(Map<String, Transaction> model, String watermark) {
+        return model.values().stream().filter(t -> t.getTimestamp().compareTo(watermark) >= 0)
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    public void retentionKeepsAboutOneWindowUnderOrderedIngest() {
+        for (HybridHashTable.IdIndex idIndex : HybridHashTable.IdIndex.values()) {
+            HybridHashTable table = newTable(idIndex, HashStrategy.seeded(7));
+            table.setRetention(Duration.ofHours(1));
+            Map<String, Transaction> model = new HashMap<>();
+            Random random = new Random(21);
+            LocalDateTime first = LocalDateTime.of(2023, 1, 1, 0, 0);
+            // Uma transação a cada 10 s: a janela de uma hora tem 361 transações
+            for (int i = 0; i < 20_000; i++) {
+                Transaction t = new Transaction("T" + i, 1, "ORIG" + random.nextInt(ORIGENS),
+                                                "DEST" + random.nextInt(DESTINOS),
+                                                first.plusSeconds(10L * i).format(TIMESTAMP));
+                table.put(t);
+                model.put(t.getId(), t);
+                if (i >= 2_000 && i % 500 == 0) {
+                    assertTrue(idIndex + ": " + table.getSize(), table.getSize() >= 361 && table.getSize() <= 2 * 361);
+                    for (Transaction kept : inWindow(model, table.getWatermark())) {
+                        assertEquals(kept, table.getById(kept.getId()));
+                    }
+                }
+            }
+            assertEquals(20_000 - table.getSize(), table.getEvictedCount());
+            assertTrue(table.getCapacity() <= 1024);
+        }
+    }
+
+    @Test
+    public void evictExpiredRemovesEverythingBelowWatermark() {
+        for (HybridHashTable.IdIndex idIndex : HybridHashTable.IdIndex.values()) {
+            EscalationPolicy policy = smallPolicy();
+            policy.setPartitionThreshold(60);
+            HybridHashTable table = new HybridHashTable(16, true, true, idIndex, HashStrategy.seeded(7), policy);
+            Map<String, Transaction> model = new HashMap<>();
+            Random random = new Random(22);
+            // Sem retenção a tabela guarda tudo; com ela ligada, as escritas seguintes
+            // fixam o limite e o descarte incremental remove só parte das vencidas
+            for (int i = 0; i < 4_000; i++) {
+                Transaction t = randomTransaction(random, "T" + i);
+                table.put(t);
+                model.put(t.getId(), t);
+            }
+            table.setRetention(Duration.ofDays(90));
+            for (int i = 4_000; i < 4_050; i++) {
+                Transaction t = randomTransaction(random, "T" + i);
+                table.put(t);
+                model.put(t.getId(), t);
+            }
+            String watermark = table.getWatermark();
+            int expired = model.size() - inWindow(model, watermark).size();
+            assertTrue(table.getEvictedCount() < expired);
+            assertEquals(expired - table.getEvictedCount(), table.evictExpired());
+            assertEquals(watermark, table.getWatermark());
+
+            Map<String, Transaction> kept = new HashMap<>();
+            for (Transaction t : inWindow(model, watermark)) {
+                kept.put(t.getId(), t);
+            }
+            for (Transaction t : model.values()) {
+                if (!kept.containsKey(t.getId())) {
+                    assertNull(t.getId(), table.getById(t.getId()));
+                }
+            }
+            assertMatches(table, kept, random);
+            assertEquals(0, table.evictExpired());
+        }
+    }
+
+    @Test
+    public void distinctKeysGrowOnlyWithLoadFactor() {
+        HybridHashTable table = new HybridHashTable(16, true, true);
+        for (int i = 0; i < 20_000; i++) {
+            table.put(new Transaction("T" + i, 1, "ORIG" + i, "DEST" + i, START));
+        }
+        // 20.000 / 0,75 cabe em 32.768 posições; nenhuma sequência de sondagem força o crescimento
+        assertEquals(32_768, table.getCapacity());
+        for (int i = 0; i < 20_000; i += 997) {
+            assertEquals(1, table.search("ORIG" + i, START, END).size());
+            assertEquals(1, table.searchByDestino("DEST" + i, START, END).size());
+        }
+    }
+
+    @Test
+    public void idsWithSameHashCodeAreIndexedById() {
+        List<String> ids = CollisionAttackBenchmark.collidingKeys(10);
+        for (HybridHashTable.IdIndex idIndex : HybridHashTable.IdIndex.values()) {
+            HybridHashTable table = new HybridHashTable(16, false, false, idIndex, HashStrategy.seeded(9));
+            for (String id : ids) {
+                table.put(new Transaction(id, 1, "ORIG", "DEST", START));
+            }
+            assertEquals(ids.size(), table.getSize());
+            for (String id : ids) {
+                assertEquals(id, table.getById(id).getId());
+            }
+        }
+    }
+
+    @Test
+    public void tooManyKeysWithSameHashAreRejected() {
+        // "Aa" e "BB" têm o mesmo String.hashCode, assim como qualquer concatenação delas
+        HybridHashTable table = new HybridHashTable(16, false, false, HybridHashTable.IdIndex.CHAINING,
+                                                    HashStrategy.javaHashCode(), new EscalationPolicy());
+        String[] keys = {"AaAaAa", "AaAaBB", "AaBBAa", "AaBBBB", "BBAaAa"};
+        for (int i = 0; i < 4; i++) {
+            table.put(new Transaction("T" + i, 1, keys[i], "D", START));
+        }
+        assertThrows(IllegalStateException.class,
+                     () -> table.put(new Transaction("T4", 1, keys[4], "D", START)));
+        assertEquals(4, table.getSize());
+        assertNull(table.getById("T4"));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(1, table.search(keys[i], START, END).size());
+        }
+    }
+
+    @Test
+    public void keysWithSameHashAreKeptWithSeededStrategy() {
+        // Uma estratégia com semente que, por azar, dá o mesmo hash a todas as chaves
+        HashStrategy unlucky = new HashStrategy() {
+            @Override
+            public int hash(String key) {
+                return 12345;
+            }
+            
+            @Override
+            public boolean isSeeded() {
+                return true;
+            }
+        };
+        HybridHashTable table = new HybridHashTable(16, false, false, HybridHashTable.IdIndex.CHAINING,
+                                                    unlucky, new EscalationPolicy());
+        for (int i = 0; i < 40; i++) {
+            table.put(new Transaction("T" + i, 1, "ORIG" + i, "D", START));
+        }
+        assertEquals(40, table.getSize());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(1, table.search("ORIG" + i, START, END).size());
+        }
+    }
+}
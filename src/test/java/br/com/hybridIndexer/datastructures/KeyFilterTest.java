@@ -0,0 +1,126 @@
+package br.com.hybridIndexer.datastructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import br.com.hybridIndexer.model.Transaction;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Filtro de chaves: nenhum falso negativo, no filtro isolado e nos três
+ * índices por chave da tabela ao longo de redimensionamentos, reconstruções e
+ * remoções seguidas de novas inserções; e a taxa de falsos positivos perto do
+ * 1% documentado quando o filtro está cheio.
+ */
+public class KeyFilterTest {
+    private static final String START = "2023-01-01 00:00:00";
+    private static final String END = "2023-12-31 23:59:59";
+
+    @Test
+    public void falsePositiveRateStaysNearOnePercentWhenFull() {
+        Random random = new Random(49);
+        KeyFilter filter = new KeyFilter(20_000);
+        Set<Integer> added = new HashSet<>();
+        while (true) {
+            int hash = random.nextInt();
+            if (added.add(hash)) {
+                filter.add(hash);
+                if (filter.isSaturated()) {
+                    break;
+                }
+            }
+        }
+        for (int hash : added) {
+            assertTrue(filter.mightContain(hash));
+        }
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            int hash = random.nextInt();
+            if (!added.contains(hash) && filter.mightContain(hash)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue("taxa de falsos positivos " + rate, rate < 0.025);
+    }
+
+    @Test
+    public void saturatesAfterExpectedKeys() {
+        KeyFilter filter = new KeyFilter(1_000);
+        int added = 0;
+        while (!filter.isSaturated()) {
+            filter.add(added++);
+        }
+        // Arredondado para potência de 2 em blocos: nunca menos que o previsto
+        assertTrue(added > 1_000);
+        assertEquals(added, filter.keys());
+    }
+
+    private static Transaction transaction(String id, String origem, String destino) {
+        return new Transaction(id, 1, origem, destino, START);
+    }
+
+    private static void assertFound(HybridHashTable table, Transaction t) {
+        assertTrue(t.getId(), table.search(t.getOrigem(), START, END).contains(t));
+        assertTrue(t.getId(), table.searchByDestino(t.getDestino(), START, END).contains(t));
+        assertTrue(t.getId(), table.searchByOrigemDestino(t.getOrigem(), t.getDestino(), START, END).contains(t));
+    }
+
+    @Test
+    public void noFalseNegativesAcrossResizeRebuildAndReinsert() {
+        // Capacidade 16: o filtro começa com um bloco e é reconstruído e
+        // copiado a cada redimensionamento
+        HybridHashTable table = new HybridHashTable(16, true, true);
+        List<Transaction> inserted = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            Transaction t = transaction("T" + i, "ORIG" + i, "DEST" + (i * 7));
+            table.put(t);
+            inserted.add(t);
+            if (i % 97 == 0) {
+                for (Transaction earlier : inserted) {
+                    assertFound(table, earlier);
+                }
+            }
+        }
+        assertTrue(table.getCapacity() > 16);
+        for (Transaction t : inserted) {
+            assertFound(table, t);
+        }
+
+        // Remover a única transação de uma chave e inserir de novo a mesma chave
+        for (int i = 0; i < 3_000; i += 3) {
+            assertEquals(inserted.get(i), table.removeById("T" + i));
+            assertTrue(table.search("ORIG" + i, START, END).isEmpty());
+            Transaction again = transaction("U" + i, "ORIG" + i, "DEST" + (i * 7));
+            table.put(again);
+            inserted.set(i, again);
+        }
+        for (Transaction t : inserted) {
+            assertFound(table, t);
+        }
+    }
+
+    @Test
+    public void absentKeysAreMostlyRejectedByTheFilter() {
+        HybridHashTable table = new HybridHashTable(16, true, true);
+        for (int i = 0; i < 2_000; i++) {
+            table.put(transaction("T" + i, "ORIG" + i, "DEST" + i));
+        }
+        long before = table.getMetrics().getFilterRejections();
+        int absent = 10_000;
+        for (int i = 0; i < absent; i++) {
+            assertTrue(table.search("NONE" + i, START, END).isEmpty());
+        }
+        long rejected = table.getMetrics().getFilterRejections() - before;
+        // Reconstruído com folga para o dobro das chaves: bem abaixo de 5% passam
+        assertTrue("rejeitadas " + rejected, rejected > absent * 0.95);
+        assertFalse(table.search("ORIG0", START, END).isEmpty());
+    }
+}
@@ -0,0 +1,142 @@
+package br.com.hybridIndexer.datastructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+/**
+ * Inserções e remoções aleatórias na Rubro-Negra comparadas a um TreeSet,
+ * verificando as propriedades da árvore (raiz preta, sem vermelho com filho
+ * vermelho, mesma altura negra em todos os caminhos, ponteiros de pai e
+ * tamanho das subárvores) depois de cada remoção.
+ */
+public class RedBlackTreeTest {
+
+    /**
+     * @return Altura negra da subárvore
+     */
+    private static int checkNode(RedBlackTree<Integer> tree, NodeRB<Integer> node, NodeRB<Integer> parent) {
+        if (node == null || node.getElement() == null) {
+            return 1;
+        }
+        assertSame(parent, node.getParent());
+        if (node.isRed()) {
+            assertFalse("vermelho com filho vermelho", isRed(node.getLeft()) || isRed(node.getRight()));
+        }
+        int left = checkNode(tree, node.getLeft(), node);
+        int right = checkNode(tree, node.getRight(), node);
+        assertEquals("altura negra", left, right);
+        assertEquals("tamanho da subárvore", node.getLeft().getCount() + node.getRight().getCount() + 1,
+                     node.getCount());
+        return left + (node.isBlack() ? 1 : 0);
+    }
+
+    private static boolean isRed(NodeRB<Integer> node) {
+        return node != null && node.getElement() != null && node.isRed();
+    }
+
+    private static void checkTree(RedBlackTree<Integer> tree, TreeSet<Integer> model) {
+        assertEquals(model.size(), tree.size());
+        NodeRB<Integer> root = tree.getRoot();
+        assertEquals(model.size(), root.getCount());
+        if (root.getElement() != null) {
+            assertTrue("raiz preta", root.isBlack());
+            checkNode(tree, root, root.getParent());
+        }
+        List<Integer> inOrder = new ArrayList<>();
+        tree.forEach(inOrder::add);
+        assertEquals(new ArrayList<>(model), inOrder);
+    }
+
+    @Test
+    public void randomInsertsAndRemovesKeepInvariants() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        TreeSet<Integer> model = new TreeSet<>();
+        Random random = new Random(1);
+        for (int op = 0; op < 20_000; op++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(model.remove(value), tree.remove(value));
+                checkTree(tree, model);
+            } else if (model.add(value)) {
+                tree.insert(value);
+            }
+            assertEquals(model.contains(value), tree.find(value));
+        }
+        checkTree(tree, model);
+        for (Integer value : new ArrayList<>(model)) {
+            assertTrue(tree.remove(value));
+        }
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void rangeCollectMatchesSequentialTraversal() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        for (int i = 0; i < 100_000; i++) {
+            tree.insert(i * 2);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[][] ranges = {{0, 199_998}, {1, 150_001}, {10_000, 10_040}, {-5, -1}, {199_999, 300_000}};
+            for (int[] range : ranges) {
+                List<Integer> expected = new ArrayList<>();
+                tree.rangeTraversal(range[0], range[1], expected::add);
+                // Limite 1: sempre paralelo quando houver algo a coletar; limite alto: sequencial
+                AtomicLong parallel = new AtomicLong();
+                AtomicLong sequential = new AtomicLong();
+                assertEquals(expected, tree.rangeCollect(range[0], range[1], 1, pool, parallel::addAndGet));
+                assertEquals(expected, tree.rangeCollect(range[0], range[1], Integer.MAX_VALUE, pool,
+                                                         sequential::addAndGet));
+                assertTrue("comparações", sequential.get() >= expected.size() && sequential.get() > 0);
+                assertTrue("comparações", parallel.get() >= expected.size() && parallel.get() > 0);
+            }
+            List<Integer> all = new ArrayList<>();
+            tree.forEach(all::add);
+            assertEquals(all, tree.rangeCollect(null, null, 1, pool, n -> { }));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void narrowRangeNearRootStaysSequential() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        for (int i = 0; i < 100_000; i++) {
+            tree.insert(i * 2);
+        }
+        // Um pool encerrado rejeita tarefas: só a coleta que se divide falha
+        ForkJoinPool closed = new ForkJoinPool(1);
+        closed.shutdown();
+        int middle = tree.getRoot().getElement();
+        // Cinco elementos em volta da raiz, onde a subárvore da divisão é a árvore inteira
+        assertEquals(5, tree.rangeCollect(middle - 4, middle + 4, 6, closed, n -> { }).size());
+        assertThrows(RejectedExecutionException.class,
+                     () -> tree.rangeCollect(middle - 4, middle + 4, 5, closed, n -> { }));
+    }
+
+    @Test
+    public void iteratorStartsAtLowerBound() {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        for (int i = 0; i < 100; i += 10) {
+            tree.insert(i);
+        }
+        assertEquals(Integer.valueOf(30), tree.iterator(25).next());
+        assertEquals(Integer.valueOf(20), tree.descendingIterator(25).next());
+        if (tree.iterator(91).hasNext()) {
+            fail("nenhum elemento maior ou igual a 91");
+        }
+    }
+}
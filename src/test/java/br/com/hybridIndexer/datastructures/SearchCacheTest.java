@@ -0,0 +1,167 @@
+package br.com.hybridIndexer.datastructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import br.com.hybridIndexer.model.Transaction;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * Limite por peso e ordem LRU do SearchCache, e invalidação por origem na
+ * HybridHashTable: cada tipo de escrita deve invalidar só os resultados da
+ * origem afetada, e a busca seguinte deve refletir a escrita.
+ */
+public class SearchCacheTest {
+    private static final String START = "2023-01-01 00:00:00";
+    private static final String END = "2023-12-31 23:59:59";
+
+    private static List<Transaction> result(int size) {
+        List<Transaction> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            items.add(new Transaction("R" + i, 1, "ORIG", "DEST", START));
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    @Test
+    public void leastRecentlyUsedLeaveFirst() {
+        // Limite 40: cada resultado de 9 transações pesa 10
+        SearchCache cache = new SearchCache(40);
+        for (String origem : new String[] {"A", "B", "C", "D"}) {
+            cache.put(origem, START, END, result(9));
+        }
+        assertEquals(36, cache.cachedTransactions());
+        cache.get("A", START, END);
+        cache.put("E", START, END, result(9));
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get("B", START, END));
+        assertEquals(9, cache.get("A", START, END).size());
+        assertEquals(9, cache.get("E", START, END).size());
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void resultsLargerThanQuarterOfLimitAreNotStored() {
+        SearchCache cache = new SearchCache(40);
+        cache.put("A", START, END, result(10));
+        assertNull(cache.get("A", START, END));
+        cache.put("A", START, END, result(9));
+        assertEquals(9, cache.get("A", START, END).size());
+    }
+
+    @Test
+    public void invalidateAffectsOnlyItsOrigem() {
+        SearchCache cache = new SearchCache(100);
+        cache.put("A", START, END, result(3));
+        cache.put("A", null, null, result(4));
+        cache.put("B", START, END, result(5));
+        cache.invalidate("A");
+        assertNull(cache.get("A", START, END));
+        assertNull(cache.get("A", null, null));
+        assertEquals(2, cache.getInvalidations());
+        assertEquals(5, cache.get("B", START, END).size());
+        assertEquals(5, cache.cachedTransactions());
+    }
+
+    private static List<Transaction> expected(Map<String, Transaction> model, String origem) {
+        return model.values().stream().filter(t -> t.getOrigem().equals(origem)).sorted()
+            .collect(Collectors.toList());
+    }
+
+    private static Transaction put(HybridHashTable table, Map<String, Transaction> model,
+                                   String id, String origem, String timestamp) {
+        Transaction t = new Transaction(id, 1, origem, "DEST", timestamp);
+        table.put(t);
+        model.put(id, t);
+        return t;
+    }
+
+    /**
+     * A busca da origem escrita reflete a escrita; a da outra origem continua
+     * sendo a mesma lista guardada
+     */
+    private static void checkInvalidated(HybridHashTable table, Map<String, Transaction> model,
+                                         String written, List<Transaction> untouched, String other) {
+        assertEquals(expected(model, written), table.search(written, START, END));
+        assertSame(untouched, table.search(other, START, END));
+    }
+
+    @Test
+    public void everyWriteInvalidatesItsOrigem() {
+        EscalationPolicy policy = new EscalationPolicy();
+        policy.setSmallBucketThreshold(4);
+        policy.setPartitionThreshold(8);
+        HybridHashTable table = new HybridHashTable(16, true, true, HybridHashTable.IdIndex.CHAINING,
+                                                    HashStrategy.seeded(3), policy);
+        table.setSearchCache(1_000);
+        Map<String, Transaction> model = new HashMap<>();
+        for (int i = 0; i < 20; i++) {
+            put(table, model, "A" + i, "ORIGA", String.format("2023-%02d-10 10:00:00", 1 + i % 12));
+            put(table, model, "B" + i, "ORIGB", String.format("2023-%02d-10 11:00:00", 1 + i % 12));
+        }
+        List<Transaction> b = table.search("ORIGB", START, END);
+        table.search("ORIGA", START, END);
+        assertSame(b, table.search("ORIGB", START, END));
+
+        put(table, model, "A100", "ORIGA", "2023-06-15 00:00:00");
+        checkInvalidated(table, model, "ORIGA", b, "ORIGB");
+
+        assertEquals(model.remove("A0"), table.removeById("A0"));
+        checkInvalidated(table, model, "ORIGA", b, "ORIGB");
+
+        // Atualização que troca de origem invalida as duas
+        Transaction moved = new Transaction("A1", 1, "ORIGB", "DEST", "2023-02-10 10:00:00");
+        table.update(moved);
+        model.put("A1", moved);
+        assertEquals(expected(model, "ORIGA"), table.search("ORIGA", START, END));
+        b = table.search("ORIGB", START, END);
+        assertEquals(expected(model, "ORIGB"), b);
+
+        // Descarte de partições: as duas origens estão particionadas por mês
+        assertEquals(model.values().stream().filter(t -> t.getTimestamp().compareTo("2023-03") < 0).count(),
+                     table.dropPartitionsBefore("2023-03-01 00:00:00"));
+        model.values().removeIf(t -> t.getTimestamp().compareTo("2023-03") < 0);
+        assertEquals(expected(model, "ORIGA"), table.search("ORIGA", START, END));
+        assertEquals(expected(model, "ORIGB"), table.search("ORIGB", START, END));
+
+        // Retenção: a escrita em ORIGA fixa o limite e o descarte alcança ORIGB
+        List<Transaction> a = table.search("ORIGA", START, END);
+        b = table.search("ORIGB", START, END);
+        table.setRetention(Duration.ofDays(120));
+        put(table, model, "A200", "ORIGA", "2023-12-20 00:00:00");
+        table.evictExpired();
+        model.values().removeIf(t -> t.getTimestamp().compareTo(table.getWatermark()) < 0);
+        List<Transaction> a2 = table.search("ORIGA", START, END);
+        List<Transaction> b2 = table.search("ORIGB", START, END);
+        assertNotSame(a, a2);
+        assertNotSame(b, b2);
+        assertEquals(expected(model, "ORIGA"), a2);
+        assertEquals(expected(model, "ORIGB"), b2);
+    }
+
+    @Test
+    public void resultsAreUnmodifiableWithAndWithoutCache() {
+        for (long limit : new long[] {0, 1_000}) {
+            HybridHashTable table = new HybridHashTable(16, true, true);
+            table.setSearchCache(limit);
+            table.put(new Transaction("T1", 1, "ORIG", "DEST", START));
+            Transaction extra = new Transaction("T2", 1, "ORIG", "DEST", START);
+            assertThrows(UnsupportedOperationException.class, () -> table.search("ORIG", START, END).add(extra));
+            assertThrows(UnsupportedOperationException.class, () -> table.search("ORIG", START, END).add(extra));
+            assertThrows(UnsupportedOperationException.class,
+                         () -> table.searchByDestino("DEST", START, END).add(extra));
+            assertThrows(UnsupportedOperationException.class,
+                         () -> table.searchByOrigemDestino("ORIG", "DEST", START, END).clear());
+        }
+    }
+}
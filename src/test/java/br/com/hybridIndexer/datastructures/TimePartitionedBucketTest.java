@@ -0,0 +1,167 @@
+package br.com.hybridIndexer.datastructures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import br.com.hybridIndexer.model.Transaction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+/**
+ * Compara o TimePartitionedBucket com um TreeSet durante inserções e remoções
+ * aleatórias em partições mensais. O limite do vetor ordenado é pequeno para
+ * que as partições passem a Árvore B+ e voltem a vetor várias vezes, e os
+ * intervalos sorteados cruzam as fronteiras entre meses.
+ */
+public class TimePartitionedBucketTest {
+
+    private static EscalationPolicy monthlyPolicy() {
+        EscalationPolicy policy = new EscalationPolicy();
+        policy.setSmallBucketThreshold(4);
+        policy.setPartitionPeriod(EscalationPolicy.PartitionPeriod.MONTH);
+        return policy;
+    }
+
+    private static String timestamp(Random random) {
+        return String.format("2023-%02d-%02d %02d:%02d:00", 1 + random.nextInt(12), 1 + random.nextInt(28),
+                             random.nextInt(24), random.nextInt(60));
+    }
+
+    private static Transaction transaction(String id, String timestamp) {
+        return new Transaction(id, 1, "ORIG", "DEST", timestamp);
+    }
+
+    private static <T> List<T> list(Iterator<T> iterator) {
+        List<T> items = new ArrayList<>();
+        iterator.forEachRemaining(items::add);
+        return items;
+    }
+
+    private static long months(TreeSet<Transaction> model) {
+        return model.stream().map(t -> t.getTimestamp().substring(0, 7)).distinct().count();
+    }
+
+    private static void checkBucket(TimePartitionedBucket bucket, TreeSet<Transaction> model, Random random) {
+        assertEquals(model.size(), bucket.size());
+        assertEquals(months(model), bucket.partitionCount());
+        assertEquals(new ArrayList<>(model), list(bucket.iterator()));
+        assertEquals(new ArrayList<>(model.descendingSet()), list(bucket.descendingIterator()));
+        for (int i = 0; i < 20; i++) {
+            Transaction a = Transaction.lowerBound(timestamp(random));
+            Transaction b = Transaction.upperBound(timestamp(random));
+            Transaction from = a.compareTo(b) <= 0 ? a : Transaction.lowerBound(b.getTimestamp());
+            Transaction to = a.compareTo(b) <= 0 ? b : Transaction.upperBound(a.getTimestamp());
+            List<Transaction> range = new ArrayList<>();
+            bucket.rangeTraversal(from, to, range::add);
+            assertEquals(new ArrayList<>(model.subSet(from, true, to, true)), range);
+            assertEquals(new ArrayList<>(model.tailSet(from, true)), list(bucket.iterator(from)));
+            assertEquals(new ArrayList<>(model.headSet(to, true).descendingSet()),
+                         list(bucket.descendingIterator(to)));
+        }
+    }
+
+    @Test
+    public void randomInsertsAndRemovesMatchModel() {
+        TimePartitionedBucket bucket = new TimePartitionedBucket(monthlyPolicy());
+        TreeSet<Transaction> model = new TreeSet<>();
+        List<Transaction> present = new ArrayList<>();
+        Random random = new Random(11);
+        for (int op = 1; op <= 6_000; op++) {
+            if (random.nextInt(3) > 0 || present.isEmpty()) {
+                Transaction t = transaction("T" + op, timestamp(random));
+                bucket.insert(t);
+                model.add(t);
+                present.add(t);
+            } else {
+                Transaction t = present.remove(random.nextInt(present.size()));
+                assertTrue(bucket.remove(t));
+                assertFalse(bucket.remove(t));
+                model.remove(t);
+            }
+            if (op % 500 == 0) {
+                checkBucket(bucket, model, random);
+            }
+        }
+        for (Transaction t : present) {
+            assertTrue(bucket.find(t));
+            assertTrue(bucket.remove(t));
+        }
+        assertTrue(bucket.isEmpty());
+        assertEquals(0, bucket.partitionCount());
+        assertNull(bucket.oldestPeriod());
+    }
+
+    @Test
+    public void partitionEscalatesAndReturnsToArray() {
+        TimePartitionedBucket bucket = new TimePartitionedBucket(monthlyPolicy());
+        List<Transaction> may = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Transaction t = transaction("M" + i, String.format("2023-05-%02d 10:00:00", 1 + i));
+            bucket.insert(t);
+            may.add(t);
+        }
+        assertTrue(bucket.partition(0) instanceof BPlusTree);
+        // Com metade do limite do vetor (2), a B+ volta a ser vetor ordenado
+        for (int i = 0; i < 8; i++) {
+            assertTrue(bucket.remove(may.get(i)));
+        }
+        assertTrue(bucket.partition(0) instanceof SortedArrayBucket);
+        assertEquals(may.subList(8, 10), list(bucket.iterator()));
+    }
+
+    @Test
+    public void freezeCompactsOldPartitionsUntilTheyAreWritten() {
+        TimePartitionedBucket bucket = new TimePartitionedBucket(monthlyPolicy());
+        TreeSet<Transaction> model = new TreeSet<>();
+        Random random = new Random(12);
+        for (int i = 0; i < 600; i++) {
+            Transaction t = transaction("T" + i, timestamp(random));
+            bucket.insert(t);
+            model.add(t);
+        }
+        assertEquals(6, bucket.freezeBefore("2023-07-01 00:00:00"));
+        assertEquals(0, bucket.freezeBefore("2023-07-01 00:00:00"));
+        assertEquals(6, bucket.frozenCount());
+        for (int i = 0; i < 6; i++) {
+            assertTrue(bucket.partition(i) instanceof SortedArrayBucket);
+        }
+        assertTrue(bucket.partition(6) instanceof BPlusTree);
+        checkBucket(bucket, model, random);
+
+        // Escrita em partição congelada: ela volta a escalar e deixa de contar como congelada
+        Transaction late = transaction("TARDIA", "2023-03-15 12:00:00");
+        bucket.insert(late);
+        model.add(late);
+        assertEquals(5, bucket.frozenCount());
+        assertTrue(bucket.partition(2) instanceof BPlusTree);
+        checkBucket(bucket, model, random);
+    }
+
+    @Test
+    public void dropBeforeRemovesWholePartitions() {
+        TimePartitionedBucket bucket = new TimePartitionedBucket(monthlyPolicy());
+        TreeSet<Transaction> model = new TreeSet<>();
+        Random random = new Random(13);
+        for (int i = 0; i < 600; i++) {
+            Transaction t = transaction("T" + i, timestamp(random));
+            bucket.insert(t);
+            model.add(t);
+        }
+        List<Transaction> dropped = new ArrayList<>();
+        assertEquals(4, bucket.dropBefore("2023-05-20 00:00:00", dropped::add));
+        List<Transaction> expected = model.stream()
+            .filter(t -> t.getTimestamp().compareTo("2023-05") < 0).collect(Collectors.toList());
+        assertEquals(expected, dropped);
+        model.removeAll(expected);
+        assertEquals("2023-05", bucket.oldestPeriod());
+        checkBucket(bucket, model, random);
+        assertEquals(0, bucket.dropBefore("2023-01-01 00:00:00", dropped::add));
+    }
+}
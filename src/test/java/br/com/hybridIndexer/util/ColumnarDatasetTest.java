@@ -0,0 +1,168 @@
+package br.com.hybridIndexer.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import br.com.hybridIndexer.model.Transaction;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Gravação e leitura do formato colunar: cada codificação de coluna e o seu
+ * fallback para textos devolvem as mesmas transações, e arquivos vazios ou
+ * de outro formato são rejeitados.
+ */
+public class ColumnarDatasetTest {
+    // Codificações gravadas no arquivo (ver o layout em ColumnarDataset)
+    private static final int RAW = 0;
+    private static final int PREFIXED_NUMBER = 1;
+    private static final int EPOCH_DELTA = 4;
+    private static final int HEADER_BYTES = 4 + 1 + 8;
+
+    private static Transaction transaction(String id, String timestamp) {
+        return new Transaction(id, 1234 / 100f, "ORIG", "DEST", timestamp);
+    }
+
+    private static List<Transaction> withIds(String... ids) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (String id : ids) {
+            transactions.add(transaction(id, "2023-01-01 00:00:00"));
+        }
+        return transactions;
+    }
+
+    private static List<Transaction> withTimestamps(String... timestamps) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < timestamps.length; i++) {
+            transactions.add(transaction("T" + i, timestamps[i]));
+        }
+        return transactions;
+    }
+
+    /**
+     * Grava, confere as linhas lidas e devolve a codificação de cada coluna
+     */
+    private static int[] roundTrip(List<Transaction> transactions) throws IOException {
+        Path file = Files.createTempFile("dataset", ColumnarDataset.EXTENSION);
+        try {
+            ColumnarDataset.writeTransactions(transactions, file.toString());
+            assertTrue(ColumnarDataset.isColumnar(file.toString()));
+            assertEquals(transactions, ColumnarDataset.readTransactions(file.toString()));
+
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+            int[] encodings = new int[5];
+            int offset = HEADER_BYTES;
+            for (int i = 0; i < encodings.length; i++) {
+                encodings[i] = bytes.get(offset);
+                offset += 9 + (int) bytes.getLong(offset + 1);
+            }
+            assertEquals(bytes.limit(), offset);
+            return encodings;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void prefixedIdsRoundTrip() throws IOException {
+        // Fora de ordem e com números mais largos que o primeiro, sem zeros à esquerda
+        int[] encodings = roundTrip(withIds("TRX0042", "TRX0007", "TRX0100", "TRX123456", "TRX0000"));
+        assertEquals(PREFIXED_NUMBER, encodings[0]);
+    }
+
+    @Test
+    public void idsWithMixedWidthsFallBackToText() throws IOException {
+        // A7 fixa largura 1, e A007 não seria reconstruído com os zeros
+        assertEquals(RAW, roundTrip(withIds("A7", "A007", "A8"))[0]);
+        assertEquals(RAW, roundTrip(withIds("A007", "A7"))[0]);
+        assertEquals(RAW, roundTrip(withIds("A1", "B2"))[0]);
+        assertEquals(RAW, roundTrip(withIds("abc", "abd"))[0]);
+        assertEquals(RAW, roundTrip(withIds("A1", "A1x"))[0]);
+    }
+
+    @Test
+    public void epochTimestampsRoundTripOutOfOrderAndBefore1970() throws IOException {
+        int[] encodings = roundTrip(withTimestamps(
+            "2023-05-01 12:00:00", "1969-12-31 23:59:59", "1970-01-01 00:00:00",
+            "1900-02-28 08:30:15", "2024-02-29 23:59:59", "2023-05-01 11:59:59"));
+        assertEquals(EPOCH_DELTA, encodings[4]);
+    }
+
+    @Test
+    public void timestampsInOtherFormatsFallBackToText() throws IOException {
+        assertEquals(RAW, roundTrip(withTimestamps("2023-05-01 12:00:00", "2023-02-30 10:00:00"))[4]);
+        assertEquals(RAW, roundTrip(withTimestamps("2023-05-01 12:00:00", "2023-05-01T12:00:00"))[4]);
+        assertEquals(RAW, roundTrip(withTimestamps("2023-05-01 12:00", "2023-05-01 12:00:00"))[4]);
+    }
+
+    @Test
+    public void valoresAndDictionariesRoundTrip() throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+        String[] keys = {"ORIG", "DEST", "ação", ""};
+        for (int i = 0; i < 50; i++) {
+            transactions.add(new Transaction("TRX" + i, (i * 137 - 3000) / 100f, keys[i % keys.length],
+                                             keys[(i / 2) % keys.length], "2023-01-01 00:00:00"));
+        }
+        roundTrip(transactions);
+    }
+
+    @Test
+    public void emptyDatasetRoundTrips() throws IOException {
+        roundTrip(Collections.emptyList());
+    }
+
+    @Test
+    public void emptyFileIsRejected() throws IOException {
+        Path file = Files.createTempFile("empty", ColumnarDataset.EXTENSION);
+        try {
+            assertFalse(ColumnarDataset.isColumnar(file.toString()));
+            assertThrows(IOException.class, () -> ColumnarDataset.readTransactions(file.toString()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void badMagicIsRejected() throws IOException {
+        Path file = Files.createTempFile("magic", ColumnarDataset.EXTENSION);
+        try {
+            ColumnarDataset.writeTransactions(withIds("TRX1", "TRX2"), file.toString());
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[0] = 'X';
+            Files.write(file, bytes);
+            assertFalse(ColumnarDataset.isColumnar(file.toString()));
+            assertThrows(IOException.class, () -> ColumnarDataset.readTransactions(file.toString()));
+
+            // Um CSV com o tamanho de um cabeçalho também não passa
+            Files.write(file, "id,valor,origem,destino,timestamp\n".getBytes(StandardCharsets.UTF_8));
+            assertFalse(ColumnarDataset.isColumnar(file.toString()));
+            assertThrows(IOException.class, () -> ColumnarDataset.readTransactions(file.toString()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void truncatedFileIsRejected() throws IOException {
+        Path file = Files.createTempFile("truncated", ColumnarDataset.EXTENSION);
+        try {
+            ColumnarDataset.writeTransactions(withIds("TRX1", "TRX2"), file.toString());
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+            assertTrue(ColumnarDataset.isColumnar(file.toString()));
+            assertThrows(IOException.class, () -> ColumnarDataset.readTransactions(file.toString()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
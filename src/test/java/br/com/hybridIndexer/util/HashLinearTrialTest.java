@@ -0,0 +1,51 @@
+package br.com.hybridIndexer.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import br.com.hybridIndexer.datastructures.HashStrategy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class HashLinearTrialTest {
+
+    @Test
+    public void randomOperationsMatchHashMap() {
+        HashLinearTrial<String, Integer> map = new HashLinearTrial<>(4, HashStrategy.seeded(3)::hash);
+        Map<String, Integer> model = new HashMap<>();
+        Random random = new Random(5);
+        for (int op = 0; op < 50_000; op++) {
+            String key = "K" + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                map.delete(key);
+                model.remove(key);
+            } else {
+                map.put(key, op);
+                model.put(key, op);
+            }
+        }
+        assertEquals(model.size(), map.size());
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(model.get("K" + i), map.get("K" + i));
+        }
+    }
+
+    @Test
+    public void seededHashSpreadsKeysWithSameHashCode() {
+        List<String> keys = CollisionAttackBenchmark.collidingKeys(12);
+        HashLinearTrial<String, Integer> map = new HashLinearTrial<>(512, HashStrategy.seeded(3)::hash);
+        for (int i = 0; i < keys.size(); i++) {
+            map.put(keys.get(i), i);
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(Integer.valueOf(i), map.get(keys.get(i)));
+        }
+        assertNull(map.get("AaAa"));
+        // Com hashCode as 4.096 chaves formariam uma única sequência de sondagem
+        assertTrue("maior sondagem " + map.maxProbeLength(), map.maxProbeLength() < 32);
+    }
+}
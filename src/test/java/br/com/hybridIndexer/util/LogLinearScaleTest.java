@@ -0,0 +1,45 @@
+package br.com.hybridIndexer.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class LogLinearScaleTest {
+
+    @Test
+    public void valuesFallInBucketBelowUpperBound() {
+        for (int bits : new int[] {3, 5}) {
+            LogLinearScale scale = new LogLinearScale(bits);
+            Random random = new Random(bits);
+            for (int i = 0; i < 100_000; i++) {
+                long value = random.nextLong() >>> (1 + random.nextInt(63));
+                int index = scale.index(value);
+                assertTrue(index < scale.bucketCount());
+                assertTrue(value <= scale.upperBound(index));
+                assertTrue(index == 0 || value > scale.upperBound(index - 1));
+            }
+            for (long value = 0; value < (1 << bits); value++) {
+                assertEquals(value, scale.upperBound(scale.index(value)));
+            }
+        }
+    }
+
+    @Test
+    public void bothHistogramsReportSamePercentilesForSmallValues() {
+        LatencyHistogram latency = new LatencyHistogram();
+        StripedHistogram striped = new StripedHistogram();
+        for (long value = 0; value < 8; value++) {
+            for (int i = 0; i <= value; i++) {
+                latency.record(value);
+                striped.record(value);
+            }
+        }
+        for (double p : new double[] {0, 25, 50, 90, 99, 100}) {
+            assertEquals(latency.percentile(p), striped.percentile(p));
+        }
+        assertEquals(7, striped.percentile(100));
+        assertEquals(0, new StripedHistogram().percentile(50));
+    }
+}